@@ -0,0 +1,79 @@
+package org.accesodatos.spring.benchmark;
+
+import org.accesodatos.spring.models.Cuenta;
+import org.accesodatos.spring.models.Perfil;
+import org.accesodatos.spring.models.Transaccion;
+import org.accesodatos.spring.models.Usuario;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Entidades de prueba para los microbenchmarks, con valores parecidos a los reales y semilla fija
+ * para que todas las ejecuciones midan exactamente los mismos datos.
+ */
+final class DatosBenchmark {
+    private static final LocalDateTime INICIO = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+    private DatosBenchmark() {
+    }
+
+    static Usuario usuario(long id, int numCuentas, int transaccionesPorCuenta) {
+        Usuario usuario = new Usuario();
+        usuario.setId(id);
+        usuario.setUsername("usuario" + id);
+        usuario.setPassword("secreto" + id);
+        usuario.setEmail("usuario" + id + "@banco.es");
+        usuario.setFechaRegistro(LocalDate.of(2023, 5, 17));
+        usuario.setVersion(3L);
+
+        Perfil perfil = new Perfil();
+        perfil.setId(id);
+        perfil.setNombreCompleto("Nombre Apellido " + id);
+        perfil.setTelefono("600" + String.format("%06d", id));
+        perfil.setDireccion("Calle Mayor " + id + ", Valencia");
+        perfil.setUsuario(usuario);
+        usuario.setPerfil(perfil);
+
+        List<Cuenta> cuentas = new ArrayList<>(numCuentas);
+        for (int i = 0; i < numCuentas; i++) {
+            cuentas.add(cuenta(id * 1000 + i, usuario, transaccionesPorCuenta));
+        }
+        usuario.setCuentas(cuentas);
+        return usuario;
+    }
+
+    static Cuenta cuenta(long id, Usuario usuario, int numTransacciones) {
+        Cuenta cuenta = new Cuenta();
+        cuenta.setId(id);
+        cuenta.setTipoCuenta(id % 2 == 0 ? "Ahorro" : "Corriente");
+        cuenta.setFechaCreacion(INICIO.minusDays(30));
+        cuenta.setVersion(7L);
+        cuenta.setUsuario(usuario);
+
+        SplittableRandom aleatorio = new SplittableRandom(id);
+        List<Transaccion> transacciones = new ArrayList<>(numTransacciones);
+        long saldo = 0;
+        for (int i = 0; i < numTransacciones; i++) {
+            // Importes de 0,01 a 2.000,00 euros; los retiros nunca dejan el saldo en negativo
+            long monto = 1 + aleatorio.nextLong(200_000);
+            boolean retiro = saldo >= monto && aleatorio.nextInt(3) == 0;
+            saldo += retiro ? -monto : monto;
+
+            Transaccion transaccion = new Transaccion();
+            transaccion.setId(id * 100_000 + i);
+            transaccion.setMonto(monto);
+            transaccion.setFecha(INICIO.plusMinutes(37L * i).plusSeconds(aleatorio.nextInt(60)));
+            transaccion.setTipoTransaccion(retiro ? "Retiro" : "Deposito");
+            transaccion.setSaldoPosterior(saldo);
+            transaccion.setCuenta(cuenta);
+            transacciones.add(transaccion);
+        }
+        cuenta.setSaldo(saldo);
+        cuenta.setTransacciones(transacciones);
+        return cuenta;
+    }
+}
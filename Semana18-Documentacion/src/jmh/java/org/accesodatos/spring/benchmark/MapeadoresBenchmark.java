@@ -0,0 +1,171 @@
+package org.accesodatos.spring.benchmark;
+
+import org.accesodatos.spring.dtos.request.create.CuentaCreateDTO;
+import org.accesodatos.spring.dtos.request.create.PerfilCreateDTO;
+import org.accesodatos.spring.dtos.request.create.TransaccionCreateDTO;
+import org.accesodatos.spring.dtos.request.create.UsuarioCreateDTO;
+import org.accesodatos.spring.dtos.request.patch.PerfilPatchDTO;
+import org.accesodatos.spring.dtos.request.patch.UsuarioPatchDTO;
+import org.accesodatos.spring.dtos.response.CuentaDTO;
+import org.accesodatos.spring.dtos.response.PerfilDTO;
+import org.accesodatos.spring.dtos.response.TransaccionDTO;
+import org.accesodatos.spring.dtos.response.UsuarioDTO;
+import org.accesodatos.spring.mappers.CuentaMapper;
+import org.accesodatos.spring.mappers.PerfilMapper;
+import org.accesodatos.spring.mappers.TransaccionMapper;
+import org.accesodatos.spring.mappers.UsuarioMapper;
+import org.accesodatos.spring.models.Cuenta;
+import org.accesodatos.spring.models.Perfil;
+import org.accesodatos.spring.models.Transaccion;
+import org.accesodatos.spring.models.Usuario;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendimiento de los mappers, que se ejecutan en cada petición. Cada benchmark devuelve su resultado
+ * para que JIT no elimine el trabajo. Con -prof gc (por defecto en el perfil jmh) se informa también
+ * de los bytes reservados por operación (gc.alloc.rate.norm).
+ * <pre>
+ * ./mvnw -Pjmh test-compile exec:exec -Djmh.args="MapeadoresBenchmark -prof gc"
+ * ./mvnw -Pjmh test-compile exec:exec -Djmh.args="MapeadoresBenchmark.cuentaToDto -p numTransacciones=5000 -prof gc"
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapeadoresBenchmark {
+
+    // Mappers sin Spring: tienen las mismas dependencias que en la aplicación
+    @State(Scope.Benchmark)
+    public static class Mapeadores {
+        final PerfilMapper perfilMapper = new PerfilMapper();
+        final TransaccionMapper transaccionMapper = new TransaccionMapper();
+        final UsuarioMapper usuarioMapper = new UsuarioMapper(perfilMapper);
+        final CuentaMapper cuentaMapper = new CuentaMapper(usuarioMapper, transaccionMapper);
+    }
+
+    // CuentaMapper.toDto copia la lista completa de transacciones
+    @State(Scope.Benchmark)
+    public static class CuentaConTransacciones {
+        @Param({"0", "20", "1000", "5000"})
+        int numTransacciones;
+
+        Cuenta cuenta;
+
+        @Setup
+        public void preparar() {
+            cuenta = DatosBenchmark.usuario(1, 1, numTransacciones).getCuentas().getFirst();
+        }
+    }
+
+    // UsuarioMapper.toDto recorre las cuentas del usuario para devolver sus IDs
+    @State(Scope.Benchmark)
+    public static class UsuarioConCuentas {
+        @Param({"1", "10", "100"})
+        int numCuentas;
+
+        Usuario usuario;
+
+        @Setup
+        public void preparar() {
+            usuario = DatosBenchmark.usuario(1, numCuentas, 0);
+        }
+    }
+
+    // Entradas de los métodos de creación y actualización, que no dependen del volumen
+    @State(Scope.Benchmark)
+    public static class Peticiones {
+        Transaccion transaccion;
+        Perfil perfil;
+        Usuario usuario;
+        TransaccionCreateDTO transaccionCreateDTO;
+        CuentaCreateDTO cuentaCreateDTO;
+        UsuarioCreateDTO usuarioCreateDTO;
+        UsuarioPatchDTO usuarioPatchDTO;
+
+        @Setup
+        public void preparar() {
+            usuario = DatosBenchmark.usuario(1, 1, 1);
+            perfil = usuario.getPerfil();
+            transaccion = usuario.getCuentas().getFirst().getTransacciones().getFirst();
+
+            transaccionCreateDTO = new TransaccionCreateDTO();
+            transaccionCreateDTO.setMonto(25000L);
+            transaccionCreateDTO.setTipoTransaccion("Deposito");
+
+            cuentaCreateDTO = new CuentaCreateDTO();
+            cuentaCreateDTO.setSaldo(100000L);
+            cuentaCreateDTO.setTipoCuenta("Ahorro");
+            cuentaCreateDTO.setIdUsuario(1L);
+
+            PerfilCreateDTO perfilCreateDTO = new PerfilCreateDTO();
+            perfilCreateDTO.setNombreCompleto("Nombre Apellido");
+            perfilCreateDTO.setTelefono("600123456");
+            perfilCreateDTO.setDireccion("Calle Mayor 1, Valencia");
+            usuarioCreateDTO = new UsuarioCreateDTO();
+            usuarioCreateDTO.setUsername("nuevo");
+            usuarioCreateDTO.setPassword("secreto");
+            usuarioCreateDTO.setEmail("nuevo@banco.es");
+            usuarioCreateDTO.setFechaRegistro(LocalDate.of(2024, 1, 1));
+            usuarioCreateDTO.setPerfil(perfilCreateDTO);
+
+            // Cambia el email y el teléfono, y deja el resto como está
+            PerfilPatchDTO perfilPatchDTO = new PerfilPatchDTO();
+            perfilPatchDTO.setTelefono("600654321");
+            usuarioPatchDTO = new UsuarioPatchDTO();
+            usuarioPatchDTO.setEmail("cambiado@banco.es");
+            usuarioPatchDTO.setPerfil(perfilPatchDTO);
+        }
+    }
+
+    @Benchmark
+    public CuentaDTO cuentaToDto(Mapeadores m, CuentaConTransacciones datos) {
+        return m.cuentaMapper.toDto(datos.cuenta);
+    }
+
+    @Benchmark
+    public Cuenta cuentaToEntity(Mapeadores m, Peticiones datos) {
+        return m.cuentaMapper.toEntity(datos.cuentaCreateDTO);
+    }
+
+    @Benchmark
+    public UsuarioDTO usuarioToDto(Mapeadores m, UsuarioConCuentas datos) {
+        return m.usuarioMapper.toDto(datos.usuario);
+    }
+
+    @Benchmark
+    public Usuario usuarioToEntity(Mapeadores m, Peticiones datos) {
+        return m.usuarioMapper.toEntity(datos.usuarioCreateDTO);
+    }
+
+    // Aplica siempre los mismos valores, así que cada iteración hace el mismo trabajo
+    @Benchmark
+    public Usuario usuarioUpdateEntityFromPatchDto(Mapeadores m, Peticiones datos) {
+        m.usuarioMapper.updateEntityFromPatchDto(datos.usuarioPatchDTO, datos.usuario);
+        return datos.usuario;
+    }
+
+    @Benchmark
+    public PerfilDTO perfilToDto(Mapeadores m, Peticiones datos) {
+        return m.perfilMapper.toDto(datos.perfil);
+    }
+
+    @Benchmark
+    public Perfil perfilToEntity(Mapeadores m, Peticiones datos) {
+        return m.perfilMapper.toEntity(datos.usuarioCreateDTO.getPerfil());
+    }
+
+    @Benchmark
+    public TransaccionDTO transaccionToDto(Mapeadores m, Peticiones datos) {
+        return m.transaccionMapper.toDto(datos.transaccion);
+    }
+
+    @Benchmark
+    public Transaccion transaccionToEntity(Mapeadores m, Peticiones datos) {
+        return m.transaccionMapper.toEntity(datos.transaccionCreateDTO);
+    }
+}
@@ -0,0 +1,324 @@
+package org.accesodatos.spring.benchmark;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.accesodatos.spring.dtos.response.CuentaDTO;
+import org.accesodatos.spring.dtos.response.PerfilDTO;
+import org.accesodatos.spring.dtos.response.TransaccionDTO;
+import org.accesodatos.spring.dtos.response.UsuarioDTO;
+import org.accesodatos.spring.mappers.CuentaMapper;
+import org.accesodatos.spring.mappers.PerfilMapper;
+import org.accesodatos.spring.mappers.TransaccionMapper;
+import org.accesodatos.spring.mappers.UsuarioMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización a JSON de los DTOs de respuesta, como la hace la aplicación al escribir el cuerpo:
+ * <ul>
+ *     <li>el ObjectMapper configurado por Spring Boot (JacksonAutoConfiguration y spring.jackson.*),</li>
+ *     <li>el mismo con Afterburner o con Blackbird, que sustituyen la reflexión por código generado,</li>
+ *     <li>un escritor manual con JsonGenerator, sin introspección de los DTOs.</li>
+ * </ul>
+ * Todas las variantes escriben exactamente los mismos bytes (se comprueba al preparar cada benchmark).
+ * El JSON se escribe en un flujo que solo cuenta bytes, como el de la respuesta HTTP, y el benchmark devuelve
+ * ese recuento. Con -prof gc se informa de los bytes reservados por operación (gc.alloc.rate.norm).
+ * <pre>
+ * ./mvnw -Pjmh test-compile exec:exec -Djmh.args="SerializacionJsonBenchmark -prof gc"
+ * ./mvnw -Pjmh test-compile exec:exec -Djmh.args="SerializacionJsonBenchmark.cuenta -p numTransacciones=5000 -prof gc"
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializacionJsonBenchmark {
+    // Mismo formato que LocalDateTimeSerializer de jackson-datatype-jsr310 (los segundos se escriben siempre)
+    private static final DateTimeFormatter FORMATO_FECHA_HORA = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    // Caracteres de un importe long en euros con dos decimales y signo
+    private static final int LONGITUD_IMPORTE = 24;
+
+    // Mappers de la aplicación: los DTOs de entrada se obtienen de las entidades de DatosBenchmark
+    private static final PerfilMapper PERFIL_MAPPER = new PerfilMapper();
+    private static final TransaccionMapper TRANSACCION_MAPPER = new TransaccionMapper();
+    private static final UsuarioMapper USUARIO_MAPPER = new UsuarioMapper(PERFIL_MAPPER);
+    private static final CuentaMapper CUENTA_MAPPER = new CuentaMapper(USUARIO_MAPPER, TRANSACCION_MAPPER);
+
+    // Detalle de cuenta con su historial completo, el caso más costoso
+    @State(Scope.Benchmark)
+    public static class Cuenta {
+        @Param({"1", "100", "2000"})
+        int numTransacciones;
+
+        CuentaDTO dto;
+
+        @Setup
+        public void preparar() {
+            dto = cuenta(numTransacciones);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Usuario {
+        @Param({"1", "100"})
+        int numCuentas;
+
+        UsuarioDTO dto;
+
+        @Setup
+        public void preparar() {
+            dto = usuario(numCuentas);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Transaccion {
+        TransaccionDTO dto;
+
+        @Setup
+        public void preparar() {
+            dto = cuenta(1).getTransacciones().getFirst();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Mapeadores {
+        @Param({"configurado", "afterburner", "blackbird"})
+        String mapeador;
+
+        ObjectWriter escritor;
+
+        @Setup
+        public void preparar() throws IOException {
+            ObjectMapper configurado = mapeadorDeLaAplicacion();
+            ObjectMapper objectMapper = switch (mapeador) {
+                case "configurado" -> configurado;
+                case "afterburner" -> configurado.copy().registerModule(new AfterburnerModule());
+                case "blackbird" -> configurado.copy().registerModule(new BlackbirdModule());
+                default -> throw new IllegalArgumentException("Mapeador no válido: " + mapeador);
+            };
+            escritor = objectMapper.writer();
+
+            // Las variantes solo son comparables si producen el mismo JSON que la aplicación
+            for (Object dto : new Object[]{cuenta(50), usuario(5), cuenta(1).getTransacciones().getFirst()}) {
+                byte[] esperado = configurado.writeValueAsBytes(dto);
+                comprobarIguales(esperado, escritor.writeValueAsBytes(dto));
+                comprobarIguales(esperado, escribirBytes(dto));
+            }
+        }
+    }
+
+    // Para el escritor manual basta con la fábrica de generadores
+    @State(Scope.Benchmark)
+    public static class Generadores {
+        final JsonFactory fabrica = new JsonFactory();
+    }
+
+    @Benchmark
+    public long cuentaObjectMapper(Mapeadores m, Cuenta datos) throws IOException {
+        return serializar(m.escritor, datos.dto);
+    }
+
+    @Benchmark
+    public long cuentaJsonGenerator(Generadores g, Cuenta datos) throws IOException {
+        ContadorBytes salida = new ContadorBytes();
+        try (JsonGenerator gen = g.fabrica.createGenerator(salida, JsonEncoding.UTF8)) {
+            escribir(gen, new char[LONGITUD_IMPORTE], datos.dto);
+        }
+        return salida.total;
+    }
+
+    @Benchmark
+    public long usuarioObjectMapper(Mapeadores m, Usuario datos) throws IOException {
+        return serializar(m.escritor, datos.dto);
+    }
+
+    @Benchmark
+    public long usuarioJsonGenerator(Generadores g, Usuario datos) throws IOException {
+        ContadorBytes salida = new ContadorBytes();
+        try (JsonGenerator gen = g.fabrica.createGenerator(salida, JsonEncoding.UTF8)) {
+            escribir(gen, datos.dto);
+        }
+        return salida.total;
+    }
+
+    @Benchmark
+    public long transaccionObjectMapper(Mapeadores m, Transaccion datos) throws IOException {
+        return serializar(m.escritor, datos.dto);
+    }
+
+    @Benchmark
+    public long transaccionJsonGenerator(Generadores g, Transaccion datos) throws IOException {
+        ContadorBytes salida = new ContadorBytes();
+        try (JsonGenerator gen = g.fabrica.createGenerator(salida, JsonEncoding.UTF8)) {
+            escribir(gen, new char[LONGITUD_IMPORTE], datos.dto);
+        }
+        return salida.total;
+    }
+
+    private static CuentaDTO cuenta(int numTransacciones) {
+        return CUENTA_MAPPER.toDto(DatosBenchmark.usuario(1, 1, numTransacciones).getCuentas().getFirst());
+    }
+
+    private static UsuarioDTO usuario(int numCuentas) {
+        return USUARIO_MAPPER.toDto(DatosBenchmark.usuario(2, numCuentas, 0));
+    }
+
+    private static long serializar(ObjectWriter escritor, Object valor) throws IOException {
+        ContadorBytes salida = new ContadorBytes();
+        escritor.writeValue(salida, valor);
+        return salida.total;
+    }
+
+    // El ObjectMapper tal y como lo crea Spring Boot en la aplicación (módulos, spring.jackson.* y valores por defecto)
+    private static ObjectMapper mapeadorDeLaAplicacion() {
+        try (ConfigurableApplicationContext contexto = new SpringApplicationBuilder(JacksonAutoConfiguration.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .run()) {
+            return contexto.getBean(ObjectMapper.class);
+        }
+    }
+
+    // Escritores manuales: mismos campos, orden y formatos que las anotaciones de los DTOs
+
+    private static void escribir(JsonGenerator gen, char[] importe, CuentaDTO cuenta) throws IOException {
+        gen.writeStartObject();
+        gen.writeNumberField("id", cuenta.getId());
+        gen.writeFieldName("saldo");
+        escribirCentimos(gen, importe, cuenta.getSaldo());
+        gen.writeStringField("fechaCreacion", cuenta.getFechaCreacion().format(FORMATO_FECHA_HORA));
+        gen.writeStringField("tipoCuenta", cuenta.getTipoCuenta());
+        gen.writeNumberField("idUsuario", cuenta.getIdUsuario());
+        gen.writeFieldName("transacciones");
+        if (cuenta.getTransacciones() == null) {
+            gen.writeNull();
+        } else {
+            gen.writeStartArray();
+            for (TransaccionDTO transaccion : cuenta.getTransacciones()) {
+                escribir(gen, importe, transaccion);
+            }
+            gen.writeEndArray();
+        }
+        gen.writeEndObject();
+    }
+
+    private static void escribir(JsonGenerator gen, char[] importe, TransaccionDTO transaccion) throws IOException {
+        gen.writeStartObject();
+        gen.writeNumberField("id", transaccion.getId());
+        gen.writeFieldName("monto");
+        escribirCentimos(gen, importe, transaccion.getMonto());
+        gen.writeStringField("fecha", transaccion.getFecha().format(FORMATO_FECHA_HORA));
+        gen.writeStringField("tipoTransaccion", transaccion.getTipoTransaccion());
+        gen.writeFieldName("saldoPosterior");
+        if (transaccion.getSaldoPosterior() == null) {
+            gen.writeNull();
+        } else {
+            escribirCentimos(gen, importe, transaccion.getSaldoPosterior());
+        }
+        gen.writeEndObject();
+    }
+
+    private static void escribir(JsonGenerator gen, UsuarioDTO usuario) throws IOException {
+        gen.writeStartObject();
+        gen.writeNumberField("id", usuario.getId());
+        gen.writeStringField("username", usuario.getUsername());
+        gen.writeStringField("email", usuario.getEmail());
+        gen.writeStringField("fechaRegistro", usuario.getFechaRegistro().toString());
+        gen.writeFieldName("perfil");
+        PerfilDTO perfil = usuario.getPerfil();
+        if (perfil == null) {
+            gen.writeNull();
+        } else {
+            gen.writeStartObject();
+            gen.writeNumberField("id", perfil.getId());
+            gen.writeStringField("nombreCompleto", perfil.getNombreCompleto());
+            gen.writeStringField("telefono", perfil.getTelefono());
+            gen.writeStringField("direccion", perfil.getDireccion());
+            gen.writeEndObject();
+        }
+        gen.writeFieldName("cuentas");
+        if (usuario.getCuentas() == null) {
+            gen.writeNull();
+        } else {
+            gen.writeStartArray();
+            for (Long idCuenta : usuario.getCuentas()) {
+                gen.writeNumber(idCuenta);
+            }
+            gen.writeEndArray();
+        }
+        gen.writeEndObject();
+    }
+
+    // Como CentimosSerializer, pero con un búfer por respuesta en lugar de uno por hilo
+    private static void escribirCentimos(JsonGenerator gen, char[] texto, long centimos) throws IOException {
+        long absoluto = Math.abs(centimos);
+        long decimales = absoluto % 100;
+        int fin = texto.length;
+        texto[--fin] = (char) ('0' + decimales % 10);
+        texto[--fin] = (char) ('0' + decimales / 10);
+        texto[--fin] = '.';
+        long euros = absoluto / 100;
+        do {
+            texto[--fin] = (char) ('0' + euros % 10);
+            euros /= 10;
+        } while (euros > 0);
+        if (centimos < 0) {
+            texto[--fin] = '-';
+        }
+        gen.writeNumber(texto, fin, texto.length - fin);
+    }
+
+    private static byte[] escribirBytes(Object valor) throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        try (JsonGenerator gen = new JsonFactory().createGenerator(salida, JsonEncoding.UTF8)) {
+            switch (valor) {
+                case CuentaDTO cuenta -> escribir(gen, new char[LONGITUD_IMPORTE], cuenta);
+                case UsuarioDTO usuario -> escribir(gen, usuario);
+                case TransaccionDTO transaccion -> escribir(gen, new char[LONGITUD_IMPORTE], transaccion);
+                default -> throw new IllegalArgumentException("Tipo no soportado: " + valor.getClass());
+            }
+        }
+        return salida.toByteArray();
+    }
+
+    private static void comprobarIguales(byte[] esperado, byte[] obtenido) {
+        if (!Arrays.equals(esperado, obtenido)) {
+            throw new IllegalStateException("El escritor manual no produce el mismo JSON:\n"
+                    + new String(esperado) + "\n" + new String(obtenido));
+        }
+    }
+
+    // Destino de la serialización: solo cuenta los bytes, sin guardarlos
+    private static final class ContadorBytes extends OutputStream {
+        long total;
+
+        @Override
+        public void write(int b) {
+            total++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            total += len;
+        }
+    }
+}
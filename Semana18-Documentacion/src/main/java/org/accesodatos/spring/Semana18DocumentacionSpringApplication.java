@@ -3,11 +3,19 @@ package org.accesodatos.spring;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
+import java.util.Map;
+
 @SpringBootApplication
 public class Semana18DocumentacionSpringApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(Semana18DocumentacionSpringApplication.class, args);
+        SpringApplication aplicacion = new SpringApplication(Semana18DocumentacionSpringApplication.class);
+        // Valores por defecto, que application.properties puede cambiar: Actuator solo publica health y prometheus,
+        // y los repositorios se miden con TemporizadorMetodos en lugar de con el temporizador propio de Spring Data
+        aplicacion.setDefaultProperties(Map.of(
+                "management.endpoints.web.exposure.include", "health,prometheus",
+                "management.metrics.data.repository.autotime.enabled", "false"));
+        aplicacion.run(args);
     }
 
 }
@@ -0,0 +1,240 @@
+package org.accesodatos.spring.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.accesodatos.spring.utils.CommitUtils;
+import org.accesodatos.spring.utils.VersionUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Caché de respuestas GET ya serializadas (JSON y gzip), por tipo de recurso e ID.
+ * En un acierto no se consulta la base de datos ni se crean DTO: el array de bytes se escribe tal cual.
+ * <p>
+ * La entrada guarda la versión de la entidad con la que se generó, y las escrituras la invalidan tras el commit.
+ * La clave no incluye la versión: conocerla exigiría consultar la base de datos en cada GET. En su lugar, cada
+ * clave tiene como mucho una carga en curso, que comparten las peticiones que fallan a la vez, y al invalidar
+ * la clave se descarta solo esa carga, sin afectar a las de otras claves.
+ * Las escrituras de otros procesos sobre la misma base de datos (p. ej. Semana18-Reactivo) llegan por
+ * EscuchaCambiosCuentas; por si alguna se pierde, cada entrada caduca además a los banco.cache.respuestas.ttl.
+ * El tamaño está limitado en bytes: al superarlo se expulsan las entradas usadas hace más tiempo (LRU).
+ */
+@Component
+public class CacheRespuestas {
+    public enum Tipo { USUARIO, CUENTA }
+
+    private record Clave(Tipo tipo, Long id) {
+    }
+
+    // caduca en System.nanoTime()
+    private record Entrada(RespuestaSerializada respuesta, long caduca) {
+    }
+
+    // Carga en curso de una clave. Si se invalida la clave mientras tanto, su resultado no se guarda
+    private static final class Carga {
+        private final CompletableFuture<RespuestaSerializada> resultado = new CompletableFuture<>();
+        private boolean obsoleta;
+    }
+
+    private final ObjectMapper objectMapper;
+    private final long bytesMaximos;
+    private final long ttlNanos;
+    // ReentrantLock y no synchronized: con hilos virtuales, esperar un monitor ancla el hilo portador (Java 21)
+    private final ReentrantLock cerrojo = new ReentrantLock();
+
+    // accessOrder = true: el orden de iteración va del menos al más recientemente usado
+    private final LinkedHashMap<Clave, Entrada> entradas = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<Clave, Carga> cargas = new HashMap<>();
+    private long bytesOcupados;
+
+    public CacheRespuestas(ObjectMapper objectMapper,
+                           @Value("${banco.cache.respuestas.bytes-maximos:33554432}") long bytesMaximos,
+                           @Value("${banco.cache.respuestas.ttl:60s}") Duration ttl) {
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("banco.cache.respuestas.ttl debe ser mayor que 0");
+        }
+        this.objectMapper = objectMapper;
+        this.bytesMaximos = bytesMaximos;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+
+    /**
+     * Devuelve la respuesta cacheada o la genera con el cargador, la serializa y la guarda.
+     * Si otra petición ya está cargando la misma clave, espera su resultado en lugar de cargarla otra vez.
+     */
+    public <T> RespuestaSerializada obtener(Tipo tipo, Long id, Supplier<T> cargador, Function<T, Long> version) {
+        Clave clave = new Clave(tipo, id);
+        Carga enCurso;
+        Carga carga = null;
+        cerrojo.lock();
+        try {
+            Entrada cacheada = entradas.get(clave);
+            if (cacheada != null) {
+                if (System.nanoTime() - cacheada.caduca() < 0) {
+                    return cacheada.respuesta();
+                }
+                entradas.remove(clave);
+                bytesOcupados -= cacheada.respuesta().bytes();
+            }
+            enCurso = cargas.get(clave);
+            if (enCurso == null) {
+                carga = new Carga();
+                cargas.put(clave, carga);
+            }
+        } finally {
+            cerrojo.unlock();
+        }
+        // Se espera fuera del cerrojo: solo bloquea a las peticiones de esta clave
+        if (enCurso != null) {
+            return esperar(enCurso);
+        }
+
+        try {
+            T dto = cargador.get();
+            RespuestaSerializada respuesta = serializar(dto, version.apply(dto));
+            guardar(clave, carga, respuesta);
+            carga.resultado.complete(respuesta);
+            return respuesta;
+        } catch (RuntimeException | Error e) {
+            guardar(clave, carga, null);
+            carga.resultado.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public void invalidarTrasCommit(Tipo tipo, Long id) {
+        CommitUtils.trasCommit(() -> invalidar(tipo, id));
+    }
+
+    public void invalidarTodoTrasCommit(Tipo tipo) {
+        CommitUtils.trasCommit(() -> invalidarTodo(tipo));
+    }
+
+    public long bytesOcupados() {
+        cerrojo.lock();
+        try {
+            return bytesOcupados;
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    // Termina la carga: deja de estar en curso y, si nadie ha invalidado la clave mientras tanto, se guarda
+    private void guardar(Clave clave, Carga carga, RespuestaSerializada respuesta) {
+        cerrojo.lock();
+        try {
+            cargas.remove(clave, carga);
+            if (carga.obsoleta || respuesta == null || respuesta.bytes() > bytesMaximos) {
+                return;
+            }
+            Entrada anterior = entradas.put(clave, new Entrada(respuesta, System.nanoTime() + ttlNanos));
+            if (anterior != null) {
+                bytesOcupados -= anterior.respuesta().bytes();
+            }
+            bytesOcupados += respuesta.bytes();
+
+            Iterator<Entrada> menosUsadas = entradas.values().iterator();
+            while (bytesOcupados > bytesMaximos) {
+                bytesOcupados -= menosUsadas.next().respuesta().bytes();
+                menosUsadas.remove();
+            }
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    // Resultado de la carga de otra petición; si falla, se relanza su misma excepción (p. ej. 404)
+    private static RespuestaSerializada esperar(Carga carga) {
+        try {
+            return carga.resultado.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    // En el momento, sin esperar a ningún commit: para escrituras ya confirmadas por otro proceso
+    public void invalidar(Tipo tipo, Long id) {
+        cerrojo.lock();
+        try {
+            Clave clave = new Clave(tipo, id);
+            Entrada anterior = entradas.remove(clave);
+            if (anterior != null) {
+                bytesOcupados -= anterior.respuesta().bytes();
+            }
+            // La carga en curso pudo leer los datos anteriores a la escritura: no se guarda ni se comparte más
+            Carga carga = cargas.remove(clave);
+            if (carga != null) {
+                carga.obsoleta = true;
+            }
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    public void invalidarTodo(Tipo tipo) {
+        cerrojo.lock();
+        try {
+            Iterator<Map.Entry<Clave, Entrada>> iterador = entradas.entrySet().iterator();
+            while (iterador.hasNext()) {
+                Map.Entry<Clave, Entrada> entrada = iterador.next();
+                if (entrada.getKey().tipo() == tipo) {
+                    bytesOcupados -= entrada.getValue().respuesta().bytes();
+                    iterador.remove();
+                }
+            }
+            Iterator<Map.Entry<Clave, Carga>> enCurso = cargas.entrySet().iterator();
+            while (enCurso.hasNext()) {
+                Map.Entry<Clave, Carga> carga = enCurso.next();
+                if (carga.getKey().tipo() == tipo) {
+                    carga.getValue().obsoleta = true;
+                    enCurso.remove();
+                }
+            }
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    private RespuestaSerializada serializar(Object dto, Long version) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(dto);
+            byte[] gzip = comprimir(json);
+            // En cuerpos pequeños gzip no compensa: se sirve solo el JSON
+            return new RespuestaSerializada(version, VersionUtils.etag(version), json, gzip.length < json.length ? gzip : null);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Error al serializar la respuesta: " + e.getMessage());
+        }
+    }
+
+    private static byte[] comprimir(byte[] datos) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(datos.length / 2 + 32);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+            gzip.write(datos);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return salida.toByteArray();
+    }
+}
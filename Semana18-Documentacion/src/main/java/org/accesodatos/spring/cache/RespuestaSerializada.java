@@ -0,0 +1,53 @@
+package org.accesodatos.spring.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Cuerpo de una respuesta ya codificado: JSON tal cual y, si ocupa menos, comprimido con gzip.
+ * El ETag se calcula una sola vez a partir de la versión de la entidad.
+ */
+public record RespuestaSerializada(long version, String etag, byte[] json, byte[] gzip) {
+
+    public long bytes() {
+        return json.length + (gzip == null ? 0 : gzip.length);
+    }
+
+    /**
+     * Respuesta 200 con la variante que admite el cliente según Accept-Encoding.
+     * Con ETag, Spring responde 304 Not Modified si coincide con If-None-Match.
+     */
+    public ResponseEntity<byte[]> aResponseEntity(String acceptEncoding) {
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip != null && aceptaGzip(acceptEncoding)) {
+            return respuesta.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(gzip);
+        }
+        return respuesta.body(json);
+    }
+
+    // gzip (o *) en Accept-Encoding, salvo que venga con q=0
+    private static boolean aceptaGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String codificacion : acceptEncoding.split(",")) {
+            String[] partes = codificacion.split(";");
+            String nombre = partes[0].trim();
+            if (!nombre.equalsIgnoreCase("gzip") && !nombre.equals("*")) {
+                continue;
+            }
+            for (int i = 1; i < partes.length; i++) {
+                String parametro = partes[i].trim().replace(" ", "");
+                if (parametro.matches("q=0(\\.0{0,3})?")) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+}
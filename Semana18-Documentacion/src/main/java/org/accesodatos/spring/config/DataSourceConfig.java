@@ -0,0 +1,26 @@
+package org.accesodatos.spring.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class DataSourceConfig {
+
+    // El driver de PostgreSQL reescribe cada lote de INSERT como un único INSERT multi-fila.
+    // Debe ser estático para registrarse antes de que se cree el DataSource.
+    @Bean
+    public static BeanPostProcessor reescrituraInsercionesPorLotes() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource
+                        && !dataSource.getDataSourceProperties().containsKey("reWriteBatchedInserts")) {
+                    dataSource.addDataSourceProperty("reWriteBatchedInserts", "true");
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,108 @@
+package org.accesodatos.spring.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * DataSource con un semáforo del tamaño del pool delante de getConnection().
+ * Con hilos virtuales puede haber miles de peticiones a la vez: sin este límite todas compiten dentro de Hikari
+ * por las mismas conexiones. Así esperan en una cola FIFO barata y solo entran al pool tantas como conexiones hay.
+ * El permiso se devuelve al cerrar la conexión.
+ */
+public class DataSourceLimitado extends DelegatingDataSource {
+    private final Semaphore permisos;
+    private final int maximoConexiones;
+    private final long esperaMaximaMs;
+    private final LongAdder esperasAgotadas = new LongAdder();
+
+    public DataSourceLimitado(DataSource dataSource, int maximoConexiones, long esperaMaximaMs) {
+        super(dataSource);
+        this.permisos = new Semaphore(maximoConexiones, true);
+        this.maximoConexiones = maximoConexiones;
+        this.esperaMaximaMs = esperaMaximaMs;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        adquirirPermiso();
+        try {
+            return liberarAlCerrar(obtainTargetDataSource().getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permisos.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        adquirirPermiso();
+        try {
+            return liberarAlCerrar(obtainTargetDataSource().getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permisos.release();
+            throw e;
+        }
+    }
+
+    public int maximoConexiones() {
+        return maximoConexiones;
+    }
+
+    public int conexionesEnUso() {
+        return maximoConexiones - permisos.availablePermits();
+    }
+
+    // Aproximado: lo da el propio semáforo
+    public int hilosEsperando() {
+        return permisos.getQueueLength();
+    }
+
+    public long esperasAgotadas() {
+        return esperasAgotadas.sum();
+    }
+
+    // Misma excepción y mismo plazo que Hikari cuando no consigue conexión
+    private void adquirirPermiso() throws SQLException {
+        try {
+            if (!permisos.tryAcquire(esperaMaximaMs, TimeUnit.MILLISECONDS)) {
+                esperasAgotadas.increment();
+                throw new SQLTransientConnectionException(
+                        "No hay conexión disponible tras " + esperaMaximaMs + " ms (" + maximoConexiones + " en uso)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrumpido esperando una conexión", e);
+        }
+    }
+
+    private Connection liberarAlCerrar(Connection conexion) {
+        AtomicBoolean cerrada = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, metodo, argumentos) -> {
+                    // close() puede llamarse varias veces: el permiso se devuelve solo una
+                    if ("close".equals(metodo.getName()) && cerrada.compareAndSet(false, true)) {
+                        try {
+                            conexion.close();
+                        } finally {
+                            permisos.release();
+                        }
+                        return null;
+                    }
+                    try {
+                        return metodo.invoke(conexion, argumentos);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
@@ -0,0 +1,38 @@
+package org.accesodatos.spring.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class HibernateConfig {
+
+    // Los valores de application.properties tienen prioridad sobre estos valores por defecto
+    @Bean
+    public HibernatePropertiesCustomizer ajustesRendimientoHibernate() {
+        return propiedades -> {
+            // Las asociaciones LAZY se inicializan en lotes en lugar de una consulta por entidad (N+1)
+            propiedades.putIfAbsent(AvailableSettings.DEFAULT_BATCH_FETCH_SIZE, 50);
+
+            // Inserciones y actualizaciones agrupadas en lotes JDBC, ordenadas por entidad para no romper el lote
+            propiedades.putIfAbsent(AvailableSettings.STATEMENT_BATCH_SIZE, 50);
+            propiedades.putIfAbsent(AvailableSettings.ORDER_INSERTS, true);
+            propiedades.putIfAbsent(AvailableSettings.ORDER_UPDATES, true);
+            propiedades.putIfAbsent(AvailableSettings.BATCH_VERSIONED_DATA, true);
+
+            // Con incremento 50 en las secuencias, pooled-lo reserva los IDs [valor, valor + 49]
+            propiedades.putIfAbsent(AvailableSettings.PREFERRED_POOLED_OPTIMIZER, "pooled-lo");
+
+            // Caché de segundo nivel (JCache + Ehcache): regiones, tamaño y TTL definidos en ehcache.xml
+            propiedades.putIfAbsent(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            propiedades.putIfAbsent(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            propiedades.putIfAbsent("hibernate.javax.cache.provider", "org.ehcache.jsr107.EhcacheCachingProvider");
+            propiedades.putIfAbsent("hibernate.javax.cache.uri", "classpath:ehcache.xml");
+            // Al crear o borrar una cuenta se invalida la colección Usuario.cuentas cacheada de su usuario
+            propiedades.putIfAbsent(AvailableSettings.AUTO_EVICT_COLLECTION_CACHE, true);
+            // Aciertos, fallos y escrituras por región (GET /api/admin/cache)
+            propiedades.putIfAbsent(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+}
@@ -0,0 +1,57 @@
+package org.accesodatos.spring.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Modo de hilos virtuales: se activa con spring.threads.virtual.enabled=true (por defecto, hilos de plataforma).
+ * Spring Boot ejecuta entonces cada petición de Tomcat y las tareas @Scheduled en un hilo virtual;
+ * aquí se añade el límite de conexiones (DataSourceLimitado) y el registro de anclajes (MonitorAnclajes).
+ * Estado en GET /api/admin/hilos.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class HilosVirtualesConfig {
+
+    // Estático, como en DataSourceConfig, para registrarse antes de que se cree el DataSource
+    @Bean
+    public static BeanPostProcessor limiteConexionesJdbc() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource) {
+                    // Hikari aplica sus valores por defecto (10 conexiones) al validar, no al crearse
+                    dataSource.validate();
+                    return new DataSourceLimitado(dataSource, dataSource.getMaximumPoolSize(),
+                            dataSource.getConnectionTimeout());
+                }
+                return bean;
+            }
+        };
+    }
+
+    // Saturación del límite, junto a las métricas del pool (hikaricp_connections_*): hilos virtuales en cola
+    // y esperas que acabaron en error
+    @Bean
+    public MeterBinder metricasLimiteConexiones(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof DataSourceLimitado limitado) {
+                Gauge.builder("banco.jdbc.limite.en.uso", limitado, DataSourceLimitado::conexionesEnUso)
+                        .register(registry);
+                Gauge.builder("banco.jdbc.limite.esperando", limitado, DataSourceLimitado::hilosEsperando)
+                        .register(registry);
+                FunctionCounter.builder("banco.jdbc.limite.esperas.agotadas", limitado, DataSourceLimitado::esperasAgotadas)
+                        .register(registry);
+            }
+        };
+    }
+}
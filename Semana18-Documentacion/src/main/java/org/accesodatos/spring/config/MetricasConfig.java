@@ -0,0 +1,38 @@
+package org.accesodatos.spring.config;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Métricas en GET /actuator/prometheus: tiempos de servicios y repositorios (TemporizadorMetodos)
+ * y el pool de Hikari (hikaricp_connections_active, idle, pending y acquire), que Spring Boot registra solo.
+ */
+@Configuration
+public class MetricasConfig {
+
+    // Histograma de percentiles para los tiempos de métodos y la espera de conexión del pool:
+    // Prometheus calcula cualquier percentil (y agregado entre instancias) a partir de los buckets
+    @Bean
+    public MeterFilter histogramasPercentiles() {
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (id.getName().startsWith("banco.") || id.getName().equals("hikaricp.connections.acquire")) {
+                    return DistributionStatisticConfig.builder()
+                            .percentilesHistogram(true)
+                            // Las consultas por clave primaria tardan décimas de milisegundo (valores en nanosegundos)
+                            .minimumExpectedValue((double) TimeUnit.MICROSECONDS.toNanos(100))
+                            .maximumExpectedValue((double) TimeUnit.SECONDS.toNanos(30))
+                            .build()
+                            .merge(config);
+                }
+                return config;
+            }
+        };
+    }
+}
@@ -0,0 +1,77 @@
+package org.accesodatos.spring.config;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Registra los anclajes de hilos virtuales (evento JFR jdk.VirtualThreadPinned): un hilo virtual que se bloquea
+ * dentro de un bloque synchronized o de código nativo no libera su hilo portador, y con pocos portadores
+ * unos cuantos anclajes largos paran toda la aplicación.
+ * Se cuentan por el primer método de la aplicación en la pila, que es donde hay que cambiar el synchronized
+ * por un ReentrantLock. Para ver la pila completa: -Djdk.tracePinnedThreads=full.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class MonitorAnclajes {
+    private static final String PAQUETE_APLICACION = "org.accesodatos.";
+
+    private final RecordingStream grabacion = new RecordingStream();
+    private final Map<String, LongAdder> anclajesPorSitio = new ConcurrentHashMap<>();
+    private final LongAdder anclajes = new LongAdder();
+
+    public MonitorAnclajes(@Value("${banco.hilos.umbral-anclaje-ms:20}") long umbralMs) {
+        grabacion.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(umbralMs)).withStackTrace();
+        grabacion.onEvent("jdk.VirtualThreadPinned", this::registrar);
+        grabacion.startAsync();
+    }
+
+    private void registrar(RecordedEvent evento) {
+        anclajes.increment();
+        anclajesPorSitio.computeIfAbsent(sitio(evento), s -> new LongAdder()).increment();
+    }
+
+    private static String sitio(RecordedEvent evento) {
+        if (evento.getStackTrace() == null) {
+            return "desconocido";
+        }
+        RecordedFrame primero = null;
+        for (RecordedFrame marco : evento.getStackTrace().getFrames()) {
+            if (primero == null) {
+                primero = marco;
+            }
+            String clase = marco.getMethod().getType().getName();
+            if (clase.startsWith(PAQUETE_APLICACION)) {
+                return clase + "." + marco.getMethod().getName() + ":" + marco.getLineNumber();
+            }
+        }
+        // Anclaje fuera del código de la aplicación (driver, Hibernate...): se indica el método más interno
+        return primero == null ? "desconocido"
+                : primero.getMethod().getType().getName() + "." + primero.getMethod().getName();
+    }
+
+    public long anclajes() {
+        return anclajes.sum();
+    }
+
+    public Map<String, Long> anclajesPorSitio() {
+        return anclajesPorSitio.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().sum()));
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        grabacion.close();
+    }
+}
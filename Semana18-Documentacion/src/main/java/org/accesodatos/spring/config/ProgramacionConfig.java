@@ -0,0 +1,10 @@
+package org.accesodatos.spring.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Tareas periódicas de mantenimiento (p. ej. MantenimientoParticiones)
+@Configuration
+@EnableScheduling
+public class ProgramacionConfig {
+}
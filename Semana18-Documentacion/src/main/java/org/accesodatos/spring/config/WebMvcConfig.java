@@ -0,0 +1,21 @@
+package org.accesodatos.spring.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    // Las exportaciones NDJSON pueden durar minutos; el timeout asíncrono de Tomcat por defecto es de 30 segundos
+    @Value("${banco.exportacion.timeout:PT30M}")
+    private Duration timeoutExportacion;
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(timeoutExportacion.toMillis());
+    }
+}
@@ -0,0 +1,27 @@
+package org.accesodatos.spring.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.accesodatos.spring.dtos.response.EstadisticasCacheDTO;
+import org.accesodatos.spring.services.EstadisticasCacheService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/cache")
+@RequiredArgsConstructor
+public class CacheRestController {
+    private final EstadisticasCacheService estadisticasCacheService;
+
+    @GetMapping
+    @Operation(summary = "Estadísticas de la caché de segundo nivel",
+            description = "Aciertos, fallos, escrituras y expulsiones de cada región (usuarios, perfiles, cuentas y usuarios.cuentas).")
+    public ResponseEntity<List<EstadisticasCacheDTO>> obtenerEstadisticas() {
+        List<EstadisticasCacheDTO> estadisticas = estadisticasCacheService.obtenerEstadisticas();
+        return ResponseEntity.ok(estadisticas); // 200 OK
+    }
+}
@@ -1,20 +1,35 @@
 package org.accesodatos.spring.controllers;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.accesodatos.spring.cache.CacheRespuestas;
 import org.accesodatos.spring.dtos.request.create.CuentaCreateDTO;
 import org.accesodatos.spring.dtos.request.create.TransaccionCreateDTO;
 import org.accesodatos.spring.dtos.request.create.UsuarioCreateDTO;
 import org.accesodatos.spring.dtos.response.CuentaDTO;
+import org.accesodatos.spring.dtos.response.PaginaDTO;
+import org.accesodatos.spring.dtos.response.ResultadoTransaccionDTO;
+import org.accesodatos.spring.dtos.response.ResumenCuentaDTO;
 import org.accesodatos.spring.dtos.response.TransaccionDTO;
 import org.accesodatos.spring.dtos.response.UsuarioDTO;
 import org.accesodatos.spring.services.CuentaService;
+import org.accesodatos.spring.services.ResumenCuentaService;
 import org.accesodatos.spring.services.TransaccionService;
+import org.accesodatos.spring.utils.CursorUtils;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -23,22 +38,46 @@ import java.util.List;
 public class CuentaRestController {
     private final CuentaService cuentaService;
     private final TransaccionService transaccionService;
+    private final ResumenCuentaService resumenCuentaService;
+    private final CacheRespuestas cacheRespuestas;
 
     @GetMapping
-    @Operation(summary = "Obtiene todas las cuentas")
-    public ResponseEntity<List<CuentaDTO>> obtenerTodasLasCuentas() {
-        List<CuentaDTO> cuentas = cuentaService.obtenerTodasLasCuentas();
-        if (cuentas.isEmpty()) {
+    @Operation(summary = "Obtiene las cuentas paginadas por cursor",
+            description = "El cursor de la página siguiente se devuelve en la cabecera " + CursorUtils.CABECERA_SIGUIENTE_CURSOR)
+    public ResponseEntity<List<CuentaDTO>> obtenerTodasLasCuentas(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "" + CursorUtils.LIMITE_POR_DEFECTO) int limit) {
+        PaginaDTO<CuentaDTO> pagina = cuentaService.obtenerCuentasPaginadas(after, limit);
+        if (pagina.getContenido().isEmpty()) {
             return ResponseEntity.noContent().build(); // 204 No Content
         }
-        return ResponseEntity.ok(cuentas); // 200 OK
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+        if (pagina.getSiguienteCursor() != null) {
+            respuesta.header(CursorUtils.CABECERA_SIGUIENTE_CURSOR, pagina.getSiguienteCursor());
+        }
+        return respuesta.body(pagina.getContenido()); // 200 OK
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Exporta todas las cuentas en formato NDJSON (una cuenta por línea)")
+    public ResponseEntity<StreamingResponseBody> exportarCuentas() {
+        // Las cuentas se escriben según se leen de la base de datos, sin construir la lista completa
+        StreamingResponseBody cuerpo = cuentaService::exportarCuentas;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(cuerpo); // 200 OK
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Obtiene una cuenta por su ID")
-    public ResponseEntity<CuentaDTO> obtenerCuentaPorId(@PathVariable Long id) {
-        CuentaDTO cuentaDTO = cuentaService.obtenerCuentaPorId(id);
-        return ResponseEntity.ok(cuentaDTO); // 200 OK
+    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = CuentaDTO.class)))
+    public ResponseEntity<byte[]> obtenerCuentaPorId(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        // Se sirve el cuerpo ya serializado; solo se consulta el servicio si no está en caché
+        return cacheRespuestas.obtener(CacheRespuestas.Tipo.CUENTA, id,
+                        () -> cuentaService.obtenerCuentaPorId(id), CuentaDTO::getVersion)
+                .aResponseEntity(acceptEncoding); // 200 OK
     }
 
     @GetMapping("/usuario/{id}")
@@ -58,6 +97,42 @@ public class CuentaRestController {
         return ResponseEntity.status(HttpStatus.CREATED).body(cuentaCreada);
     }
 
+    @GetMapping("/{id}/transacciones")
+    @Operation(summary = "Obtiene el historial de transacciones de una cuenta, de más reciente a más antigua",
+            description = "Rango opcional [from, to) en formato ISO (2024-01-31T00:00:00). " +
+                    "El cursor de la página siguiente se devuelve en la cabecera " + CursorUtils.CABECERA_SIGUIENTE_CURSOR)
+    public ResponseEntity<List<TransaccionDTO>> obtenerHistorialTransacciones(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "" + CursorUtils.LIMITE_POR_DEFECTO) int limit) {
+        PaginaDTO<TransaccionDTO> pagina = transaccionService.obtenerHistorial(id, from, to, after, limit);
+        if (pagina.getContenido().isEmpty()) {
+            return ResponseEntity.noContent().build(); // 204 No Content
+        }
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+        if (pagina.getSiguienteCursor() != null) {
+            respuesta.header(CursorUtils.CABECERA_SIGUIENTE_CURSOR, pagina.getSiguienteCursor());
+        }
+        return respuesta.body(pagina.getContenido()); // 200 OK
+    }
+
+    @GetMapping("/{id}/resumen")
+    @Operation(summary = "Obtiene los totales de una cuenta por día o por mes",
+            description = "granularidad=dia|mes (por defecto mes). Rango opcional [from, to] de fechas ISO (2024-01-31)")
+    public ResponseEntity<List<ResumenCuentaDTO>> obtenerResumen(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "mes") String granularidad,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        List<ResumenCuentaDTO> resumen = resumenCuentaService.obtenerResumen(id, granularidad, from, to);
+        if (resumen.isEmpty()) {
+            return ResponseEntity.noContent().build(); // 204 No Content
+        }
+        return ResponseEntity.ok(resumen); // 200 OK
+    }
+
     @PostMapping("/{id}/transacciones")
     @Operation(summary = "Crea una nueva transacción para una cuenta")
     public ResponseEntity<TransaccionDTO> crearTransaccion(@PathVariable Long id, @Valid @RequestBody TransaccionCreateDTO dto) {
@@ -65,6 +140,14 @@ public class CuentaRestController {
         return ResponseEntity.status(HttpStatus.CREATED).body(transaccionCreada);
     }
 
+    @PostMapping("/{id}/transacciones/batch")
+    @Operation(summary = "Crea un lote de transacciones para una cuenta",
+            description = "Las transacciones se validan en orden contra el saldo acumulado; se devuelve el resultado de cada una")
+    public ResponseEntity<List<ResultadoTransaccionDTO>> crearTransaccionesEnLote(@PathVariable Long id, @RequestBody List<TransaccionCreateDTO> dtos) {
+        List<ResultadoTransaccionDTO> resultados = transaccionService.crearTransaccionesEnLote(id, dtos);
+        return ResponseEntity.ok(resultados); // 200 OK
+    }
+
     @DeleteMapping("/{id}")
     @Operation(summary = "Elimina una cuenta por su ID")
     public ResponseEntity<Void> eliminarCuenta(@PathVariable Long id) {
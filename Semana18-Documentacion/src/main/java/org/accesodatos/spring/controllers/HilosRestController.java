@@ -0,0 +1,26 @@
+package org.accesodatos.spring.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.accesodatos.spring.dtos.response.EstadisticasHilosDTO;
+import org.accesodatos.spring.services.EstadisticasHilosService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin/hilos")
+@RequiredArgsConstructor
+public class HilosRestController {
+    private final EstadisticasHilosService estadisticasHilosService;
+
+    @GetMapping
+    @Operation(summary = "Modo de ejecución de las peticiones",
+            description = "Hilos virtuales o de plataforma. Con hilos virtuales, conexiones en uso y en espera " +
+                    "del límite de JDBC y anclajes de hilos portadores por sitio del código.")
+    public ResponseEntity<EstadisticasHilosDTO> obtenerEstadisticas() {
+        EstadisticasHilosDTO estadisticas = estadisticasHilosService.obtenerEstadisticas();
+        return ResponseEntity.ok(estadisticas); // 200 OK
+    }
+}
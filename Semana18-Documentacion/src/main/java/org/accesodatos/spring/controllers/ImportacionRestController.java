@@ -0,0 +1,37 @@
+package org.accesodatos.spring.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.accesodatos.spring.dtos.response.ResultadoImportacionDTO;
+import org.accesodatos.spring.services.ImportacionService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/admin/transacciones")
+@RequiredArgsConstructor
+public class ImportacionRestController {
+    private final ImportacionService importacionService;
+
+    @PostMapping(value = "/importar", consumes = "text/csv")
+    @Operation(summary = "Importa transacciones históricas en CSV mediante COPY",
+            description = "CSV con cabecera y columnas id_cuenta,monto,fecha,tipo_transaccion (monto en euros). " +
+                    "El saldo de cada cuenta afectada se actualiza con el importe neto importado.")
+    public ResponseEntity<ResultadoImportacionDTO> importarCsv(InputStream datos) {
+        ResultadoImportacionDTO resultado = importacionService.importarTransacciones(datos, false);
+        return ResponseEntity.ok(resultado); // 200 OK
+    }
+
+    @PostMapping(value = "/importar", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @Operation(summary = "Importa transacciones históricas en el formato binario de COPY",
+            description = "Mismas columnas que la importación CSV: id_cuenta, monto, fecha y tipo_transaccion.")
+    public ResponseEntity<ResultadoImportacionDTO> importarBinario(InputStream datos) {
+        ResultadoImportacionDTO resultado = importacionService.importarTransacciones(datos, true);
+        return ResponseEntity.ok(resultado); // 200 OK
+    }
+}
@@ -0,0 +1,25 @@
+package org.accesodatos.spring.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.accesodatos.spring.dtos.response.EstadisticasOutboxDTO;
+import org.accesodatos.spring.services.OutboxService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin/outbox")
+@RequiredArgsConstructor
+public class OutboxRestController {
+    private final OutboxService outboxService;
+
+    @GetMapping
+    @Operation(summary = "Estado del outbox de transacciones",
+            description = "Eventos pendientes y su retraso, y eventos y lotes publicados por el relay desde el arranque.")
+    public ResponseEntity<EstadisticasOutboxDTO> obtenerEstadisticas() {
+        EstadisticasOutboxDTO estadisticas = outboxService.obtenerEstadisticas();
+        return ResponseEntity.ok(estadisticas); // 200 OK
+    }
+}
@@ -0,0 +1,34 @@
+package org.accesodatos.spring.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.accesodatos.spring.dtos.response.ParticionDTO;
+import org.accesodatos.spring.services.ParticionService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/particiones")
+@RequiredArgsConstructor
+public class ParticionRestController {
+    private final ParticionService particionService;
+
+    @GetMapping
+    @Operation(summary = "Lista las particiones mensuales de la tabla transacciones")
+    public ResponseEntity<List<ParticionDTO>> obtenerParticiones() {
+        List<ParticionDTO> particiones = particionService.obtenerParticiones();
+        return ResponseEntity.ok(particiones); // 200 OK
+    }
+
+    @PostMapping("/{mes}/desacoplar")
+    @Operation(summary = "Desacopla la partición de un mes pasado (formato AAAA-MM)",
+            description = "La tabla se conserva fuera de transacciones para archivarla o borrarla; sus filas dejan de consultarse.")
+    public ResponseEntity<Void> desacoplarParticion(@PathVariable @DateTimeFormat(pattern = "yyyy-MM") YearMonth mes) {
+        particionService.desacoplarParticion(mes);
+        return ResponseEntity.noContent().build(); // 204 No Content
+    }
+}
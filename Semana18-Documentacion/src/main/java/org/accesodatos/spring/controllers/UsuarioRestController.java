@@ -4,13 +4,19 @@ import com.fasterxml.jackson.databind.JsonNode;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.accesodatos.spring.cache.CacheRespuestas;
 import org.accesodatos.spring.dtos.request.create.UsuarioCreateDTO;
 import org.accesodatos.spring.dtos.request.patch.UsuarioPatchDTO;
 import org.accesodatos.spring.dtos.request.update.UsuarioUpdateDTO;
+import org.accesodatos.spring.dtos.response.PaginaDTO;
 import org.accesodatos.spring.dtos.response.UsuarioDTO;
 import org.accesodatos.spring.services.UsuarioService;
+import org.accesodatos.spring.utils.CursorUtils;
+import org.accesodatos.spring.utils.VersionUtils;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -22,22 +28,35 @@ import java.util.List;
 @RequiredArgsConstructor
 public class UsuarioRestController {
     private final UsuarioService usuarioService;
+    private final CacheRespuestas cacheRespuestas;
 
     @GetMapping
-    @Operation(summary = "Obtiene todos los usuarios")
-    public ResponseEntity<List<UsuarioDTO>> obtenerTodosLosUsuarios() {
-        List<UsuarioDTO> usuarios = usuarioService.obtenerTodosLosUsuarios();
-        if (usuarios.isEmpty()) {
+    @Operation(summary = "Obtiene los usuarios paginados por cursor",
+            description = "El cursor de la página siguiente se devuelve en la cabecera " + CursorUtils.CABECERA_SIGUIENTE_CURSOR)
+    public ResponseEntity<List<UsuarioDTO>> obtenerTodosLosUsuarios(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "" + CursorUtils.LIMITE_POR_DEFECTO) int limit) {
+        PaginaDTO<UsuarioDTO> pagina = usuarioService.obtenerUsuariosPaginados(after, limit);
+        if (pagina.getContenido().isEmpty()) {
             return ResponseEntity.noContent().build(); // 204 No Content
         }
-        return ResponseEntity.ok(usuarios); // 200 OK
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+        if (pagina.getSiguienteCursor() != null) {
+            respuesta.header(CursorUtils.CABECERA_SIGUIENTE_CURSOR, pagina.getSiguienteCursor());
+        }
+        return respuesta.body(pagina.getContenido()); // 200 OK
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Obtiene un usuario por su ID")
-    public ResponseEntity<UsuarioDTO> obtenerUsuarioPorId(@PathVariable Long id) {
-        UsuarioDTO usuarioDTO = usuarioService.obtenerUsuarioPorId(id);
-        return ResponseEntity.ok(usuarioDTO); // 200 OK
+    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = UsuarioDTO.class)))
+    public ResponseEntity<byte[]> obtenerUsuarioPorId(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        // Se sirve el cuerpo ya serializado; solo se consulta el servicio si no está en caché
+        return cacheRespuestas.obtener(CacheRespuestas.Tipo.USUARIO, id,
+                        () -> usuarioService.obtenerUsuarioPorId(id), UsuarioDTO::getVersion)
+                .aResponseEntity(acceptEncoding); // 200 OK
     }
 
     @PostMapping
@@ -48,21 +67,29 @@ public class UsuarioRestController {
     }
 
     @PutMapping("/{id}")
-    @Operation(summary = "Modifica los datos de un usuario")
-    public ResponseEntity<UsuarioDTO> actualizarUsuario(@PathVariable Long id, @Valid @RequestBody UsuarioUpdateDTO dto) {
-        UsuarioDTO usuarioActualizado = usuarioService.actualizarUsuario(id, dto);
-        return ResponseEntity.ok(usuarioActualizado); // 200 OK
+    @Operation(summary = "Modifica los datos de un usuario",
+            description = "Si se envía If-Match con el ETag leído, se rechaza con 412 cuando el usuario ha cambiado")
+    public ResponseEntity<UsuarioDTO> actualizarUsuario(@PathVariable Long id, @Valid @RequestBody UsuarioUpdateDTO dto,
+                                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        UsuarioDTO usuarioActualizado = usuarioService.actualizarUsuario(id, dto, VersionUtils.versionDesdeIfMatch(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(VersionUtils.etag(usuarioActualizado.getVersion()))
+                .body(usuarioActualizado); // 200 OK
     }
 
     @PatchMapping("/{id}")
-    @Operation(summary = "Modifica los datos de un usuario")
+    @Operation(summary = "Modifica los datos de un usuario",
+            description = "Si se envía If-Match con el ETag leído, se rechaza con 412 cuando el usuario ha cambiado")
     @io.swagger.v3.oas.annotations.parameters.RequestBody(
             description = "JSON con los datos del usuario a modificar. Todos los campos son opcionales.",
             content = @Content(schema = @Schema(implementation = UsuarioPatchDTO.class))
     )
-    public ResponseEntity<UsuarioDTO> actualizarUsuarioParcial(@PathVariable Long id, @RequestBody JsonNode patch) {
-        UsuarioDTO usuarioActualizado = usuarioService.actualizarUsuarioParcial(id, patch);
-        return ResponseEntity.ok(usuarioActualizado); // 200 OK
+    public ResponseEntity<UsuarioDTO> actualizarUsuarioParcial(@PathVariable Long id, @RequestBody JsonNode patch,
+                                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        UsuarioDTO usuarioActualizado = usuarioService.actualizarUsuarioParcial(id, patch, VersionUtils.versionDesdeIfMatch(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(VersionUtils.etag(usuarioActualizado.getVersion()))
+                .body(usuarioActualizado); // 200 OK
     }
 
     @DeleteMapping("/{id}")
@@ -0,0 +1,43 @@
+package org.accesodatos.spring.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.accesodatos.spring.dtos.response.PaginaDTO;
+import org.accesodatos.spring.dtos.response.VistaUsuarioDTO;
+import org.accesodatos.spring.services.VistaUsuarioService;
+import org.accesodatos.spring.utils.CursorUtils;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+// Solo lectura: la vista la mantienen los servicios de escritura de usuarios, cuentas y transacciones
+@RestController
+@RequestMapping("/api/vistas/usuarios")
+@RequiredArgsConstructor
+public class VistaUsuarioRestController {
+    private final VistaUsuarioService vistaUsuarioService;
+
+    @GetMapping
+    @Operation(summary = "Obtiene la vista general de los usuarios paginada por cursor",
+            description = "El cursor de la página siguiente se devuelve en la cabecera " + CursorUtils.CABECERA_SIGUIENTE_CURSOR)
+    public ResponseEntity<List<VistaUsuarioDTO>> obtenerVistas(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "" + CursorUtils.LIMITE_POR_DEFECTO) int limit) {
+        PaginaDTO<VistaUsuarioDTO> pagina = vistaUsuarioService.obtenerVistasPaginadas(after, limit);
+        if (pagina.getContenido().isEmpty()) {
+            return ResponseEntity.noContent().build(); // 204 No Content
+        }
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+        if (pagina.getSiguienteCursor() != null) {
+            respuesta.header(CursorUtils.CABECERA_SIGUIENTE_CURSOR, pagina.getSiguienteCursor());
+        }
+        return respuesta.body(pagina.getContenido()); // 200 OK
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Obtiene la vista general de un usuario: perfil, cuentas, saldos y número de transacciones")
+    public ResponseEntity<VistaUsuarioDTO> obtenerVista(@PathVariable Long id) {
+        return ResponseEntity.ok(vistaUsuarioService.obtenerVista(id)); // 200 OK
+    }
+}
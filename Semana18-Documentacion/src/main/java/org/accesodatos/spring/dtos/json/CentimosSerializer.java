@@ -0,0 +1,45 @@
+package org.accesodatos.spring.dtos.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Escribe un importe en céntimos como número JSON con dos decimales (125050 -> 1250.50),
+ * sin pasar por double ni BigDecimal.
+ * Las cifras se escriben en un búfer por hilo que el generador copia al momento, así que un importe
+ * no reserva memoria (con hilos virtuales, un búfer por hilo de petición).
+ */
+public class CentimosSerializer extends StdSerializer<Long> {
+    // Caracteres de un importe long en euros con dos decimales y signo
+    private static final int LONGITUD_IMPORTE = 24;
+    private static final ThreadLocal<char[]> TEXTO = ThreadLocal.withInitial(() -> new char[LONGITUD_IMPORTE]);
+
+    public CentimosSerializer() {
+        super(Long.class);
+    }
+
+    @Override
+    public void serialize(Long centimos, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        long valor = centimos;
+        char[] texto = TEXTO.get();
+        // Se rellena desde el final con las cifras del valor con signo: sin Math.abs, que desborda con Long.MIN_VALUE
+        int fin = texto.length;
+        long resto = valor;
+        for (int i = 0; i < 2; i++) {
+            texto[--fin] = (char) ('0' + Math.abs(resto % 10));
+            resto /= 10;
+        }
+        texto[--fin] = '.';
+        do {
+            texto[--fin] = (char) ('0' + Math.abs(resto % 10));
+            resto /= 10;
+        } while (resto != 0);
+        if (valor < 0) {
+            texto[--fin] = '-';
+        }
+        gen.writeNumber(texto, fin, texto.length - fin);
+    }
+}
@@ -1,16 +1,23 @@
 package org.accesodatos.spring.dtos.request.create;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 import lombok.Data;
+import org.accesodatos.spring.dtos.json.CentimosDeserializer;
+import org.accesodatos.spring.dtos.json.CentimosSerializer;
 
 @Data
 public class CuentaCreateDTO {
+    // Importe en céntimos; en JSON se expresa en euros con dos decimales
     @NotNull(message = "El saldo es obligatorio")
     @Min(value = 0, message = "El saldo no puede ser negativo")
-    private Double saldo;
+    @JsonSerialize(using = CentimosSerializer.class)
+    @JsonDeserialize(using = CentimosDeserializer.class)
+    private Long saldo;
 
     @NotBlank(message = "El tipo de cuenta es obligatorio")
     @Pattern(regexp = "Ahorros|Corriente", message = "El tipo de cuenta debe ser 'Ahorros' o 'Corriente'")
@@ -1,16 +1,40 @@
 package org.accesodatos.spring.dtos.response;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.accesodatos.spring.dtos.json.CentimosDeserializer;
+import org.accesodatos.spring.dtos.json.CentimosSerializer;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
+@NoArgsConstructor
 public class CuentaDTO {
     private Long id;
-    private Double saldo;
+    // Importe en céntimos; en JSON se expresa en euros con dos decimales
+    @JsonSerialize(using = CentimosSerializer.class)
+    @JsonDeserialize(using = CentimosDeserializer.class)
+    private long saldo;
     private LocalDateTime fechaCreacion;
     private String tipoCuenta;
     private Long idUsuario;
     private List<TransaccionDTO> transacciones;
+
+    // Se envía en la cabecera ETag, no en el cuerpo
+    @JsonIgnore
+    private Long version;
+
+    // Constructor para las proyecciones JPQL (SELECT new ...); las transacciones se asignan después
+    public CuentaDTO(Long id, long saldo, LocalDateTime fechaCreacion, String tipoCuenta, Long idUsuario, Long version) {
+        this.id = id;
+        this.saldo = saldo;
+        this.fechaCreacion = fechaCreacion;
+        this.tipoCuenta = tipoCuenta;
+        this.idUsuario = idUsuario;
+        this.version = version;
+    }
 }
@@ -0,0 +1,17 @@
+package org.accesodatos.spring.dtos.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadisticasCacheDTO {
+    private String region;
+    private long aciertos;
+    private long fallos;
+    private long escrituras;
+    private long expulsiones;
+    private double tasaAciertos;
+}
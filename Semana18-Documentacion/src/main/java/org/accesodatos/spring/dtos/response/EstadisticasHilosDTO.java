@@ -0,0 +1,22 @@
+package org.accesodatos.spring.dtos.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadisticasHilosDTO {
+    // "virtual" o "plataforma"
+    private String modo;
+    // Límite de conexiones para hilos virtuales; 0 en modo plataforma
+    private int maximoConexiones;
+    private int conexionesEnUso;
+    private int hilosEsperandoConexion;
+    private long esperasAgotadas;
+    private long anclajes;
+    private Map<String, Long> anclajesPorSitio;
+}
@@ -0,0 +1,23 @@
+package org.accesodatos.spring.dtos.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EstadisticasOutboxDTO {
+    private List<String> sumideros;
+    private long pendientes;
+    // Antigüedad del evento pendiente más antiguo: cuánto va el relay por detrás de las escrituras
+    private long retrasoMs;
+    private long publicados;
+    private long lotes;
+    private long lotesFallidos;
+    private double eventosPorSegundo;
+    private int tamanoLote;
+    private String ultimoError;
+}
@@ -0,0 +1,14 @@
+package org.accesodatos.spring.dtos.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class PaginaDTO<T> {
+    private List<T> contenido;
+    // Cursor opaco para pedir la página siguiente (null si no hay más resultados)
+    private String siguienteCursor;
+}
@@ -0,0 +1,17 @@
+package org.accesodatos.spring.dtos.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.YearMonth;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParticionDTO {
+    private String nombre;
+    private YearMonth mes;
+    // Estimación de las estadísticas de PostgreSQL (se actualiza con ANALYZE/autovacuum)
+    private long filasEstimadas;
+}
@@ -1,9 +1,13 @@
 package org.accesodatos.spring.dtos.response;
 
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class PerfilDTO {
     private Long id;
     private String nombreCompleto;
@@ -0,0 +1,15 @@
+package org.accesodatos.spring.dtos.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoImportacionDTO {
+    private long filas;
+    private int cuentasActualizadas;
+    private long milisegundos;
+    private long filasPorSegundo;
+}
@@ -0,0 +1,29 @@
+package org.accesodatos.spring.dtos.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Resultado de cada elemento de un lote de transacciones, en el mismo orden en que se recibieron
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ResultadoTransaccionDTO {
+    public static final String CREADA = "CREADA";
+    public static final String RECHAZADA = "RECHAZADA";
+
+    private int indice;
+    private String estado;
+    private TransaccionDTO transaccion;
+    private String error;
+
+    public static ResultadoTransaccionDTO creada(int indice, TransaccionDTO transaccion) {
+        return new ResultadoTransaccionDTO(indice, CREADA, transaccion, null);
+    }
+
+    public static ResultadoTransaccionDTO rechazada(int indice, String error) {
+        return new ResultadoTransaccionDTO(indice, RECHAZADA, null, error);
+    }
+}
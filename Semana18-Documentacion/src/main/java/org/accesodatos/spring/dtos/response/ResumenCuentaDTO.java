@@ -0,0 +1,26 @@
+package org.accesodatos.spring.dtos.response;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.accesodatos.spring.dtos.json.CentimosSerializer;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumenCuentaDTO {
+    // Primer día del periodo: el propio día o el primero del mes
+    private LocalDate periodo;
+    // Importes en céntimos; en JSON se expresan en euros con dos decimales
+    @JsonSerialize(using = CentimosSerializer.class)
+    private long totalDepositos;
+    @JsonSerialize(using = CentimosSerializer.class)
+    private long totalRetiros;
+    private long numTransacciones;
+    // Saldo tras la última transacción del periodo
+    @JsonSerialize(using = CentimosSerializer.class)
+    private long saldoCierre;
+}
@@ -1,11 +1,14 @@
 package org.accesodatos.spring.dtos.response;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
 import java.util.List;
 
 @Data
+@NoArgsConstructor
 public class UsuarioDTO {
     private Long id;
     private String username;
@@ -13,4 +16,21 @@ public class UsuarioDTO {
     private LocalDate fechaRegistro;
     private PerfilDTO perfil;
     private List<Long> cuentas;
+
+    // Se envía en la cabecera ETag, no en el cuerpo
+    @JsonIgnore
+    private Long version;
+
+    // Constructor para las proyecciones JPQL (SELECT new ...); los IDs de las cuentas se asignan después
+    public UsuarioDTO(Long id, String username, String email, LocalDate fechaRegistro, Long version,
+                      Long idPerfil, String nombreCompleto, String telefono, String direccion) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+        this.fechaRegistro = fechaRegistro;
+        this.version = version;
+        if (idPerfil != null) {
+            this.perfil = new PerfilDTO(idPerfil, nombreCompleto, telefono, direccion);
+        }
+    }
 }
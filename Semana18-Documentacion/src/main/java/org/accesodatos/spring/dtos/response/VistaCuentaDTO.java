@@ -0,0 +1,19 @@
+package org.accesodatos.spring.dtos.response;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.accesodatos.spring.dtos.json.CentimosSerializer;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VistaCuentaDTO {
+    private Long id;
+    private String tipoCuenta;
+    // Importe en céntimos; en JSON se expresa en euros con dos decimales
+    @JsonSerialize(using = CentimosSerializer.class)
+    private long saldo;
+    private long numTransacciones;
+}
@@ -0,0 +1,32 @@
+package org.accesodatos.spring.dtos.response;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.accesodatos.spring.dtos.json.CentimosSerializer;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VistaUsuarioDTO {
+    private Long id;
+    private String username;
+    private String email;
+    private LocalDate fechaRegistro;
+    private String nombreCompleto;
+    private String telefono;
+    private String direccion;
+    private int numCuentas;
+    // Suma de los saldos de sus cuentas, en céntimos; en JSON se expresa en euros
+    @JsonSerialize(using = CentimosSerializer.class)
+    private long saldoTotal;
+    private long numTransacciones;
+    private List<VistaCuentaDTO> cuentas;
+    // Momento de la última actualización de la fila
+    private LocalDateTime actualizado;
+}
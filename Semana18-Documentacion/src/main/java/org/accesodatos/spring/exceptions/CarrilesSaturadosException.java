@@ -0,0 +1,9 @@
+package org.accesodatos.spring.exceptions;
+
+// Hay demasiadas operaciones pendientes en los carriles de las cuentas. No es un error de la petición (503):
+// el cliente puede repetirla pasado un momento
+public class CarrilesSaturadosException extends RuntimeException {
+    public CarrilesSaturadosException(String message) {
+        super(message);
+    }
+}
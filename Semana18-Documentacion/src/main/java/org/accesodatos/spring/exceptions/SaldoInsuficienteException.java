@@ -0,0 +1,8 @@
+package org.accesodatos.spring.exceptions;
+
+// El retiro supera el saldo de la cuenta. Es una petición no válida (400), pero se distingue en las métricas
+public class SaldoInsuficienteException extends IllegalArgumentException {
+    public SaldoInsuficienteException(String message) {
+        super(message);
+    }
+}
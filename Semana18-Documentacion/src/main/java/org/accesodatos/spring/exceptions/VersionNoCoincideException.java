@@ -0,0 +1,8 @@
+package org.accesodatos.spring.exceptions;
+
+// La versión indicada en If-Match no es la actual: el cliente debe volver a leer el recurso
+public class VersionNoCoincideException extends RuntimeException {
+    public VersionNoCoincideException(String message) {
+        super(message);
+    }
+}
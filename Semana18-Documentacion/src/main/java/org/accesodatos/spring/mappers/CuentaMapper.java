@@ -31,6 +31,7 @@ public class CuentaMapper {
         dto.setTipoCuenta(cuenta.getTipoCuenta());
         dto.setFechaCreacion(cuenta.getFechaCreacion());
         dto.setIdUsuario(cuenta.getUsuario().getId());
+        dto.setVersion(cuenta.getVersion());
 
         if (cuenta.getTransacciones() != null) {
             List<TransaccionDTO> transaccionesDto = cuenta.getTransacciones().stream()
@@ -5,6 +5,7 @@ import lombok.RequiredArgsConstructor;
 import org.accesodatos.spring.dtos.request.create.TransaccionCreateDTO;
 import org.accesodatos.spring.dtos.response.TransaccionDTO;
 import org.accesodatos.spring.models.Transaccion;
+import org.accesodatos.spring.repositories.projections.TransaccionCuentaProjection;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
@@ -21,10 +22,18 @@ public class TransaccionMapper {
         dto.setMonto(transaccion.getMonto());
         dto.setFecha(transaccion.getFecha());
         dto.setTipoTransaccion(transaccion.getTipoTransaccion());
+        dto.setSaldoPosterior(transaccion.getSaldoPosterior());
 
         return dto;
     }
 
+    public TransaccionDTO toDto(TransaccionCuentaProjection proyeccion) {
+        if (proyeccion == null) return null;
+
+        return new TransaccionDTO(proyeccion.getId(), proyeccion.getMonto(),
+                proyeccion.getFecha(), proyeccion.getTipoTransaccion(), proyeccion.getSaldoPosterior());
+    }
+
     public Transaccion toEntity(TransaccionCreateDTO dto) {
         if (dto == null) return null;
 
@@ -28,6 +28,7 @@ public class UsuarioMapper {
         dto.setUsername(usuario.getUsername());
         dto.setEmail(usuario.getEmail());
         dto.setFechaRegistro(usuario.getFechaRegistro());
+        dto.setVersion(usuario.getVersion());
         dto.setPerfil(perfilMapper.toDto(usuario.getPerfil()));
         if (usuario.getCuentas() != null) {
             dto.setCuentas(usuario.getCuentas().stream().map(Cuenta::getId).toList());
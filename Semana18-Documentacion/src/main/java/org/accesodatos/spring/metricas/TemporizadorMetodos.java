@@ -0,0 +1,91 @@
+package org.accesodatos.spring.metricas;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolationException;
+import lombok.RequiredArgsConstructor;
+import org.accesodatos.spring.exceptions.SaldoInsuficienteException;
+import org.accesodatos.spring.exceptions.VersionNoCoincideException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+/**
+ * Mide cada método público de los servicios (services.impl.*ServiceImpl) y de los repositorios de Spring Data.
+ * Los tiempos se publican como banco.servicios y banco.repositorios, etiquetados por clase, método y resultado;
+ * el resultado separa los errores de negocio (saldo_insuficiente, no_encontrado...) de los fallos inesperados (error).
+ * Las llamadas internas de un servicio a sus propios métodos no pasan por el proxy y no se miden por separado.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class TemporizadorMetodos {
+    public static final String METRICA_SERVICIOS = "banco.servicios";
+    public static final String METRICA_REPOSITORIOS = "banco.repositorios";
+
+    private static final String PAQUETE_REPOSITORIOS = "org.accesodatos.spring.repositories";
+
+    private final MeterRegistry registry;
+
+    @Around("execution(public * org.accesodatos.spring.services.impl.*ServiceImpl.*(..))")
+    public Object medirServicio(ProceedingJoinPoint punto) throws Throwable {
+        return medir(METRICA_SERVICIOS, punto.getTarget().getClass().getSimpleName(), punto);
+    }
+
+    @Around("execution(* org.accesodatos.spring.repositories.*Repository.*(..))")
+    public Object medirRepositorio(ProceedingJoinPoint punto) throws Throwable {
+        return medir(METRICA_REPOSITORIOS, nombreRepositorio(punto.getThis()), punto);
+    }
+
+    private Object medir(String metrica, String clase, ProceedingJoinPoint punto) throws Throwable {
+        Timer.Sample muestra = Timer.start(registry);
+        String resultado = "ok";
+        try {
+            Object valor = punto.proceed();
+            // Un Optional vacío es el "no encontrado" de los repositorios
+            if (valor instanceof Optional<?> opcional && opcional.isEmpty()) {
+                resultado = "vacio";
+            }
+            return valor;
+        } catch (Throwable e) {
+            resultado = resultado(e);
+            throw e;
+        } finally {
+            muestra.stop(Timer.builder(metrica)
+                    .tag("clase", clase)
+                    .tag("metodo", punto.getSignature().getName())
+                    .tag("resultado", resultado)
+                    .register(registry));
+        }
+    }
+
+    // Mismos casos que GlobalExceptionHandler, con un valor fijo por caso para no multiplicar las series
+    static String resultado(Throwable e) {
+        return switch (e) {
+            case SaldoInsuficienteException s -> "saldo_insuficiente";
+            case NoSuchElementException n -> "no_encontrado";
+            case VersionNoCoincideException v -> "version_no_coincide";
+            case OptimisticLockingFailureException o -> "conflicto_concurrente";
+            case DataIntegrityViolationException d -> "violacion_integridad";
+            case IllegalArgumentException i -> "peticion_invalida";
+            case ConstraintViolationException c -> "peticion_invalida";
+            default -> "error";
+        };
+    }
+
+    // Los repositorios son proxies: la clase es la interfaz de la aplicación que implementan (CuentaRepository...)
+    private static String nombreRepositorio(Object proxy) {
+        for (Class<?> interfaz : proxy.getClass().getInterfaces()) {
+            if (interfaz.getPackageName().equals(PAQUETE_REPOSITORIOS)) {
+                return interfaz.getSimpleName();
+            }
+        }
+        return proxy.getClass().getSimpleName();
+    }
+}
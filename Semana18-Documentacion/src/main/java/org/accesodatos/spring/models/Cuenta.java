@@ -4,21 +4,33 @@ import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "cuentas")
 @Table(name = "cuentas")
+@NamedEntityGraph(name = "Cuenta.conTransacciones", attributeNodes = @NamedAttributeNode("transacciones"))
 public class Cuenta {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cuentas_seq")
+    @SequenceGenerator(name = "cuentas_seq", sequenceName = "cuentas_id_cuenta_seq", allocationSize = 50)
     @Column(name = "id_cuenta")
     private Long id;
 
+    // Céntimos (BIGINT): aritmética exacta y sin boxing
     @Column(nullable = false)
-    private Double saldo;
+    private long saldo;
+
+    // Saldo de apertura: saldo = saldoInicial + importe neto de las transacciones. Solo se escribe al crearla
+    @Column(name = "saldo_inicial", nullable = false, updatable = false)
+    private long saldoInicial;
 
     @Column(name = "fecha_creacion", nullable = false)
     private LocalDateTime fechaCreacion;
@@ -26,10 +38,17 @@ public class Cuenta {
     @Column(name = "tipo_cuenta", nullable = false)
     private String tipoCuenta;
 
-    @ManyToOne
+    // Control de concurrencia optimista; los UPDATE directos del saldo también la incrementan
+    @Version
+    private Long version;
+
+    // LAZY: para leer el ID del usuario basta con el proxy, no hace falta consultar la tabla usuarios
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_usuario", nullable = false)
     private Usuario usuario;
 
+    // Se inicializan en lotes: al recorrer varias cuentas se cargan sus transacciones con una sola consulta
     @OneToMany(mappedBy = "cuenta", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 500)
     private List<Transaccion> transacciones;
 }
\ No newline at end of file
@@ -3,13 +3,17 @@ package org.accesodatos.spring.models;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Data
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "perfiles")
 @Table(name = "perfiles")
 public class Perfil {
+    // Sin generador propio: con @MapsId el ID del perfil es el del usuario
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "id_perfil")
     private Long id;
 
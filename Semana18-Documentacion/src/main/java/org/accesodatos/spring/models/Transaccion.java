@@ -11,12 +11,15 @@ import java.time.LocalDateTime;
 @Table(name = "transacciones")
 public class Transaccion {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Los IDs se reservan de 50 en 50, así los INSERT masivos de transacciones pueden ir en lotes JDBC
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transacciones_seq")
+    @SequenceGenerator(name = "transacciones_seq", sequenceName = "transacciones_id_transaccion_seq", allocationSize = 50)
     @Column(name = "id_transaccion")
     private Long id;
 
+    // Céntimos (BIGINT)
     @Column(nullable = false)
-    private Double monto;
+    private long monto;
 
     @Column(nullable = false)
     private LocalDateTime fecha;
@@ -24,7 +27,11 @@ public class Transaccion {
     @Column(name = "tipo_transaccion", nullable = false)
     private String tipoTransaccion;
 
-    @ManyToOne
+    // Saldo de la cuenta justo después de aplicar esta transacción, en céntimos. Se guarda al insertarla
+    @Column(name = "saldo_posterior")
+    private Long saldoPosterior;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_cuenta", nullable = false)
     private Cuenta cuenta;
 }
\ No newline at end of file
@@ -3,16 +3,26 @@ package org.accesodatos.spring.models;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
 import java.util.List;
 
 @Data
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "usuarios")
 @Table(name = "usuarios")
+@NamedEntityGraph(name = "Usuario.conPerfilYCuentas", attributeNodes = {
+        @NamedAttributeNode("perfil"),
+        @NamedAttributeNode("cuentas")
+})
 public class Usuario {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Secuencia con incremento 50 (optimizador pooled-lo): Hibernate asigna los IDs en memoria sin un INSERT previo
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "usuarios_seq")
+    @SequenceGenerator(name = "usuarios_seq", sequenceName = "usuarios_id_usuario_seq", allocationSize = 50)
     @Column(name = "id_usuario")
     private Long id;
 
@@ -28,9 +38,16 @@ public class Usuario {
     @Column(name = "fecha_registro", nullable = false)
     private LocalDate fechaRegistro;
 
+    // Control de concurrencia optimista: se expone como ETag en la API
+    @Version
+    private Long version;
+
     @OneToOne(mappedBy = "usuario", cascade = CascadeType.ALL, orphanRemoval = true)
     private Perfil perfil;
 
+    // Se cachean solo los IDs; cada cuenta se resuelve después desde la región "cuentas"
     @OneToMany(mappedBy = "usuario")
+    @OrderBy("id")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "usuarios.cuentas")
     private List<Cuenta> cuentas;
 }
@@ -0,0 +1,32 @@
+package org.accesodatos.spring.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.accesodatos.spring.models.Transaccion;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Escribe en el outbox (ver migraciones/09_outbox_transacciones.sql) las transacciones registradas,
+ * en la misma transacción que las guarda: el evento existe si y solo si la transacción se confirma.
+ * La publicación la hace RelayOutbox en segundo plano, así que la petición solo paga este INSERT
+ * sea cual sea el número de consumidores.
+ */
+@Component
+@RequiredArgsConstructor
+public class EscritorOutbox {
+    private final JdbcTemplate jdbcTemplate;
+
+    public void registrar(Long idCuenta, List<Transaccion> transacciones) {
+        List<Object[]> filas = new ArrayList<>(transacciones.size());
+        for (Transaccion transaccion : transacciones) {
+            filas.add(new Object[]{transaccion.getId(), idCuenta, transaccion.getTipoTransaccion(),
+                    transaccion.getMonto(), transaccion.getSaldoPosterior(), transaccion.getFecha()});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO outbox_transacciones " +
+                "(id_transaccion, id_cuenta, tipo_transaccion, monto, saldo_posterior, fecha) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", filas);
+    }
+}
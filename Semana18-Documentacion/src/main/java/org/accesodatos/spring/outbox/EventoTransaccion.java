@@ -0,0 +1,22 @@
+package org.accesodatos.spring.outbox;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.accesodatos.spring.dtos.json.CentimosSerializer;
+
+import java.time.LocalDateTime;
+
+/**
+ * Transacción registrada, tal como se publica a los sistemas externos.
+ * idEvento es el ID de la fila del outbox: la entrega es al menos una vez, así que los consumidores
+ * deben descartar los eventos repetidos por este ID.
+ */
+public record EventoTransaccion(long idEvento,
+                                long idTransaccion,
+                                long idCuenta,
+                                String tipoTransaccion,
+                                // Importes en céntimos; en JSON se expresan en euros con dos decimales
+                                @JsonSerialize(using = CentimosSerializer.class) long monto,
+                                @JsonSerialize(using = CentimosSerializer.class) long saldoPosterior,
+                                LocalDateTime fecha,
+                                LocalDateTime registrado) {
+}
@@ -0,0 +1,134 @@
+package org.accesodatos.spring.outbox;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Publica los eventos del outbox en lotes: cada lote se saca de la tabla y se entrega a los sumideros
+ * en una misma transacción, de modo que si un sumidero falla el lote vuelve a la tabla (entrega al menos una vez).
+ * Con FOR UPDATE SKIP LOCKED varias instancias de la aplicación pueden publicar a la vez sin repartirse
+ * los mismos eventos; el orden por ID solo se garantiza dentro de cada lote.
+ */
+@Component
+public class RelayOutbox {
+    private static final String SACAR_LOTE = """
+            DELETE FROM outbox_transacciones
+            WHERE id_evento IN (SELECT id_evento FROM outbox_transacciones
+                                ORDER BY id_evento
+                                LIMIT ?
+                                FOR UPDATE SKIP LOCKED)
+            RETURNING id_evento, id_transaccion, id_cuenta, tipo_transaccion, monto, saldo_posterior, fecha, registrado""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final List<SumideroEventos> sumideros;
+    private final int tamanoLote;
+
+    // Contadores desde el arranque, para las estadísticas
+    private final LongAdder eventosPublicados = new LongAdder();
+    private final LongAdder lotesPublicados = new LongAdder();
+    private final LongAdder lotesFallidos = new LongAdder();
+    private final AtomicLong nanosPublicando = new AtomicLong();
+    private volatile String ultimoError;
+
+    public RelayOutbox(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                       ObjectProvider<SumideroEventos> sumideros,
+                       @Value("${banco.outbox.tamano-lote:500}") int tamanoLote) {
+        if (tamanoLote < 1) {
+            throw new IllegalArgumentException("banco.outbox.tamano-lote debe ser mayor que 0");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.sumideros = sumideros.orderedStream().toList();
+        this.tamanoLote = tamanoLote;
+    }
+
+    /**
+     * Vacía el outbox lote a lote y espera al siguiente intervalo cuando queda un lote incompleto.
+     * Sin sumideros no se publica nada: los eventos se conservan hasta que se configure alguno.
+     */
+    @Scheduled(fixedDelayString = "${banco.outbox.intervalo-ms:500}", initialDelayString = "${banco.outbox.intervalo-ms:500}")
+    public void publicarPendientes() {
+        if (sumideros.isEmpty()) return;
+
+        int publicados;
+        do {
+            publicados = publicarLote();
+        } while (publicados == tamanoLote);
+    }
+
+    // Devuelve el número de eventos publicados; 0 si el outbox está vacío o el lote ha fallado
+    int publicarLote() {
+        long inicio = System.nanoTime();
+        try {
+            Integer publicados = transactionTemplate.execute(status -> {
+                List<EventoTransaccion> eventos = jdbcTemplate.query(SACAR_LOTE, (rs, fila) -> new EventoTransaccion(
+                        rs.getLong("id_evento"), rs.getLong("id_transaccion"), rs.getLong("id_cuenta"),
+                        rs.getString("tipo_transaccion"), rs.getLong("monto"), rs.getLong("saldo_posterior"),
+                        rs.getTimestamp("fecha").toLocalDateTime(), rs.getTimestamp("registrado").toLocalDateTime()),
+                        tamanoLote);
+                if (eventos.isEmpty()) {
+                    return 0;
+                }
+                // RETURNING no respeta el ORDER BY de la subconsulta
+                List<EventoTransaccion> ordenados = eventos.stream()
+                        .sorted(Comparator.comparingLong(EventoTransaccion::idEvento))
+                        .toList();
+                for (SumideroEventos sumidero : sumideros) {
+                    sumidero.publicar(ordenados);
+                }
+                return ordenados.size();
+            });
+            if (publicados != null && publicados > 0) {
+                eventosPublicados.add(publicados);
+                lotesPublicados.increment();
+                nanosPublicando.addAndGet(System.nanoTime() - inicio);
+            }
+            return publicados == null ? 0 : publicados;
+        } catch (RuntimeException e) {
+            // El lote sigue en el outbox; se reintenta en el siguiente intervalo
+            lotesFallidos.increment();
+            ultimoError = e.getMessage();
+            return 0;
+        }
+    }
+
+    public List<String> nombresSumideros() {
+        return sumideros.stream().map(SumideroEventos::nombre).toList();
+    }
+
+    public int tamanoLote() {
+        return tamanoLote;
+    }
+
+    public long eventosPublicados() {
+        return eventosPublicados.sum();
+    }
+
+    public long lotesPublicados() {
+        return lotesPublicados.sum();
+    }
+
+    public long lotesFallidos() {
+        return lotesFallidos.sum();
+    }
+
+    // Eventos por segundo mientras se publica (sin contar las esperas entre intervalos)
+    public double eventosPorSegundo() {
+        long nanos = nanosPublicando.get();
+        return nanos == 0 ? 0 : eventosPublicados.sum() * 1_000_000_000.0 / nanos;
+    }
+
+    public String ultimoError() {
+        return ultimoError;
+    }
+}
@@ -0,0 +1,43 @@
+package org.accesodatos.spring.outbox;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Cola en memoria para consumidores dentro de la aplicación (p. ej. notificaciones o antifraude),
+ * que toman los eventos con cola().take() desde sus propios hilos.
+ * Se activa con banco.outbox.cola.habilitada=true. Si la cola no tiene sitio para el lote completo,
+ * el lote se rechaza y se queda en el outbox hasta que los consumidores la vacíen.
+ */
+@Component
+@ConditionalOnProperty(name = "banco.outbox.cola.habilitada", havingValue = "true")
+public class SumideroCola implements SumideroEventos {
+    private final BlockingQueue<EventoTransaccion> cola;
+
+    public SumideroCola(@Value("${banco.outbox.cola.capacidad:10000}") int capacidad) {
+        this.cola = new ArrayBlockingQueue<>(capacidad);
+    }
+
+    @Override
+    public String nombre() {
+        return "cola";
+    }
+
+    @Override
+    public synchronized void publicar(List<EventoTransaccion> eventos) {
+        // Solo el relay añade eventos: si ahora hay sitio, lo seguirá habiendo al añadirlos
+        if (cola.remainingCapacity() < eventos.size()) {
+            throw new IllegalStateException("Cola de eventos llena (" + cola.size() + " pendientes de consumir)");
+        }
+        cola.addAll(eventos);
+    }
+
+    public BlockingQueue<EventoTransaccion> cola() {
+        return cola;
+    }
+}
@@ -0,0 +1,13 @@
+package org.accesodatos.spring.outbox;
+
+import java.util.List;
+
+/**
+ * Destino local de los eventos del outbox. RelayOutbox entrega cada lote a todos los sumideros registrados
+ * como beans, en orden de ID. Si uno lanza una excepción, el lote vuelve al outbox y se entrega de nuevo
+ * más tarde a todos, también a los que ya lo recibieron.
+ */
+public interface SumideroEventos {
+    String nombre();
+    void publicar(List<EventoTransaccion> eventos);
+}
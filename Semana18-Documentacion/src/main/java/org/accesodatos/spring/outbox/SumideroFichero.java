@@ -0,0 +1,58 @@
+package org.accesodatos.spring.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Añade los eventos a un fichero NDJSON (un evento por línea), por ejemplo para que lo recoja otro proceso.
+ * Activo por defecto; se desactiva con banco.outbox.fichero.habilitado=false.
+ */
+@Component
+@ConditionalOnProperty(name = "banco.outbox.fichero.habilitado", havingValue = "true", matchIfMissing = true)
+public class SumideroFichero implements SumideroEventos {
+    private final Path ruta;
+    private final ObjectWriter escritorJson;
+
+    public SumideroFichero(ObjectMapper objectMapper,
+                           @Value("${banco.outbox.fichero.ruta:outbox-transacciones.ndjson}") Path ruta) {
+        this.ruta = ruta.toAbsolutePath();
+        this.escritorJson = objectMapper.writer();
+    }
+
+    @Override
+    public String nombre() {
+        return "fichero:" + ruta;
+    }
+
+    @Override
+    public void publicar(List<EventoTransaccion> eventos) {
+        try {
+            if (ruta.getParent() != null) {
+                Files.createDirectories(ruta.getParent());
+            }
+            // Un único write del lote completo
+            StringBuilder lineas = new StringBuilder(eventos.size() * 200);
+            for (EventoTransaccion evento : eventos) {
+                lineas.append(escritorJson.writeValueAsString(evento)).append('\n');
+            }
+            try (Writer escritor = Files.newBufferedWriter(ruta, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                escritor.write(lineas.toString());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo escribir en " + ruta, e);
+        }
+    }
+}
@@ -1,14 +1,61 @@
 package org.accesodatos.spring.repositories;
 
+import jakarta.persistence.QueryHint;
+import org.accesodatos.spring.dtos.response.CuentaDTO;
 import org.accesodatos.spring.models.Cuenta;
-import org.accesodatos.spring.models.Usuario;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface CuentaRepository extends JpaRepository<Cuenta, Long> {
     @Query("SELECT c FROM Cuenta c WHERE c.usuario.id = :usuarioId")
     List<Cuenta> findByUsuarioId(@Param("usuarioId") Long usuarioId);
+
+    // Escrituras que necesitan las transacciones (borrado en cascada): cuenta y transacciones en una sola consulta
+    @EntityGraph("Cuenta.conTransacciones")
+    Optional<Cuenta> findConTransaccionesById(Long id);
+
+    // Cursor del lado del servidor: PostgreSQL entrega las filas en bloques de 500 en lugar de todo el resultado
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT c FROM Cuenta c ORDER BY c.id")
+    Stream<Cuenta> streamAll();
+
+    // Proyecciones de solo lectura: se seleccionan únicamente las columnas del DTO, sin cargar entidades
+    @Query("SELECT new org.accesodatos.spring.dtos.response.CuentaDTO(c.id, c.saldo, c.fechaCreacion, c.tipoCuenta, c.usuario.id, c.version) " +
+            "FROM Cuenta c WHERE c.id = :id")
+    Optional<CuentaDTO> findDtoById(@Param("id") Long id);
+
+    // Paginación keyset: se busca por clave primaria en lugar de usar OFFSET
+    @Query("SELECT new org.accesodatos.spring.dtos.response.CuentaDTO(c.id, c.saldo, c.fechaCreacion, c.tipoCuenta, c.usuario.id, c.version) " +
+            "FROM Cuenta c WHERE c.id > :despuesDe ORDER BY c.id")
+    List<CuentaDTO> findDtosSiguientePagina(@Param("despuesDe") Long despuesDe, Limit limit);
+
+    @Query("SELECT new org.accesodatos.spring.dtos.response.CuentaDTO(c.id, c.saldo, c.fechaCreacion, c.tipoCuenta, c.usuario.id, c.version) " +
+            "FROM Cuenta c WHERE c.usuario.id IN :usuarioIds ORDER BY c.id")
+    List<CuentaDTO> findDtosByUsuarioIdIn(@Param("usuarioIds") Collection<Long> usuarioIds);
+
+    // Suma el importe solo si la cuenta sigue en la versión leída y devuelve la nueva versión;
+    // vacío si otra escritura se ha adelantado. Nativo y sin @Modifying, como aplicarImporte: un UPDATE masivo
+    // (JPQL o @Modifying) vaciaría toda la región "cuentas" de la caché de segundo nivel en cada lote
+    @Query(value = "UPDATE cuentas SET saldo = saldo + :importe, version = version + 1 " +
+            "WHERE id_cuenta = :id AND version = :version RETURNING version", nativeQuery = true)
+    Optional<Long> sumarSaldo(@Param("id") Long id, @Param("importe") long importe, @Param("version") Long version);
+
+    // Movimiento atómico: el saldo se modifica en la propia sentencia y solo si no queda en negativo.
+    // Si no devuelve fila, la cuenta no existe o el saldo es insuficiente
+    @Query(value = "UPDATE cuentas SET saldo = saldo + :importe, version = version + 1 " +
+            "WHERE id_cuenta = :id AND saldo + :importe >= 0 RETURNING saldo", nativeQuery = true)
+    Optional<Long> aplicarImporte(@Param("id") Long id, @Param("importe") long importe);
 }
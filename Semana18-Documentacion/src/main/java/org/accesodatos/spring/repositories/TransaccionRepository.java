@@ -1,14 +1,42 @@
 package org.accesodatos.spring.repositories;
 
-import org.accesodatos.spring.models.Cuenta;
+import org.accesodatos.spring.dtos.response.TransaccionDTO;
 import org.accesodatos.spring.models.Transaccion;
+import org.accesodatos.spring.repositories.projections.TransaccionCuentaProjection;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface TransaccionRepository extends JpaRepository<Transaccion, Long> {
     @Query("SELECT t FROM Transaccion t WHERE t.cuenta.id = :cuentaId")
     List<Transaccion> findByCuentaId(@Param("cuentaId") Long cuentaId);
+
+    // Proyecciones de solo lectura: se seleccionan únicamente las columnas del DTO, sin cargar entidades
+    @Query("SELECT new org.accesodatos.spring.dtos.response.TransaccionDTO(t.id, t.monto, t.fecha, t.tipoTransaccion, t.saldoPosterior) " +
+            "FROM Transaccion t WHERE t.cuenta.id = :cuentaId ORDER BY t.id")
+    List<TransaccionDTO> findDtosByCuentaId(@Param("cuentaId") Long cuentaId);
+
+    // Historial con búsqueda por posición (seek): recorre el índice (id_cuenta, fecha, id_transaccion) hacia atrás
+    // desde la posición del cursor, así que el coste no depende de cuántas páginas se hayan leído antes.
+    // La condición fecha <= :fechaAntesDe es redundante con la comparación de filas, pero PostgreSQL solo
+    // descarta particiones con condiciones simples sobre fecha
+    @Query("SELECT new org.accesodatos.spring.dtos.response.TransaccionDTO(t.id, t.monto, t.fecha, t.tipoTransaccion, t.saldoPosterior) " +
+            "FROM Transaccion t WHERE t.cuenta.id = :cuentaId AND t.fecha >= :desde AND t.fecha <= :fechaAntesDe " +
+            "AND (t.fecha, t.id) < (:fechaAntesDe, :idAntesDe) " +
+            "ORDER BY t.fecha DESC, t.id DESC")
+    List<TransaccionDTO> findDtosHistorial(@Param("cuentaId") Long cuentaId,
+                                           @Param("desde") LocalDateTime desde,
+                                           @Param("fechaAntesDe") LocalDateTime fechaAntesDe,
+                                           @Param("idAntesDe") long idAntesDe,
+                                           Limit limit);
+
+    @Query("SELECT t.cuenta.id AS idCuenta, t.id AS id, t.monto AS monto, t.fecha AS fecha, t.tipoTransaccion AS tipoTransaccion, " +
+            "t.saldoPosterior AS saldoPosterior " +
+            "FROM Transaccion t WHERE t.cuenta.id IN :cuentaIds ORDER BY t.id")
+    List<TransaccionCuentaProjection> findByCuentaIdIn(@Param("cuentaIds") Collection<Long> cuentaIds);
 }
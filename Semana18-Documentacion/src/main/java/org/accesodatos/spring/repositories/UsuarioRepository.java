@@ -1,11 +1,27 @@
 package org.accesodatos.spring.repositories;
 
+import org.accesodatos.spring.dtos.response.UsuarioDTO;
 import org.accesodatos.spring.models.Usuario;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     Optional<Usuario> findByEmail(String email);
+
+    // Escrituras que devuelven el usuario completo: usuario, perfil y cuentas en una sola consulta
+    @EntityGraph("Usuario.conPerfilYCuentas")
+    Optional<Usuario> findConPerfilYCuentasById(Long id);
+
+    // Proyección de solo lectura con paginación keyset: se busca por clave primaria en lugar de usar OFFSET
+    @Query("SELECT new org.accesodatos.spring.dtos.response.UsuarioDTO(u.id, u.username, u.email, u.fechaRegistro, u.version, " +
+            "p.id, p.nombreCompleto, p.telefono, p.direccion) " +
+            "FROM Usuario u LEFT JOIN u.perfil p WHERE u.id > :despuesDe ORDER BY u.id")
+    List<UsuarioDTO> findDtosSiguientePagina(@Param("despuesDe") Long despuesDe, Limit limit);
 }
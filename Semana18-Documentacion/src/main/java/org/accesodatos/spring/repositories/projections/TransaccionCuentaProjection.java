@@ -0,0 +1,13 @@
+package org.accesodatos.spring.repositories.projections;
+
+import java.time.LocalDateTime;
+
+// Proyección de una transacción junto al ID de su cuenta, para agrupar las transacciones de varias cuentas
+public interface TransaccionCuentaProjection {
+    Long getIdCuenta();
+    Long getId();
+    long getMonto();
+    LocalDateTime getFecha();
+    String getTipoTransaccion();
+    Long getSaldoPosterior();
+}
@@ -2,13 +2,17 @@ package org.accesodatos.spring.services;
 
 import org.accesodatos.spring.dtos.request.create.CuentaCreateDTO;
 import org.accesodatos.spring.dtos.response.CuentaDTO;
+import org.accesodatos.spring.dtos.response.PaginaDTO;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 public interface CuentaService {
-    List<CuentaDTO> obtenerTodasLasCuentas();
+    PaginaDTO<CuentaDTO> obtenerCuentasPaginadas(String cursor, int limite);
     CuentaDTO obtenerCuentaPorId(Long id);
     List<CuentaDTO> obtenerCuentasPorIdUsuario(Long idUsuario);
+    void exportarCuentas(OutputStream salida) throws IOException;
     CuentaDTO crearCuenta(CuentaCreateDTO dto);
     void eliminarCuenta(Long id);
 }
@@ -0,0 +1,9 @@
+package org.accesodatos.spring.services;
+
+import org.accesodatos.spring.dtos.response.EstadisticasCacheDTO;
+
+import java.util.List;
+
+public interface EstadisticasCacheService {
+    List<EstadisticasCacheDTO> obtenerEstadisticas();
+}
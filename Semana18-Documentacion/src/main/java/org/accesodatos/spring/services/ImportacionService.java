@@ -0,0 +1,9 @@
+package org.accesodatos.spring.services;
+
+import org.accesodatos.spring.dtos.response.ResultadoImportacionDTO;
+
+import java.io.InputStream;
+
+public interface ImportacionService {
+    ResultadoImportacionDTO importarTransacciones(InputStream datos, boolean binario);
+}
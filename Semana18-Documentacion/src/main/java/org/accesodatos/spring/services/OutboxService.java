@@ -0,0 +1,7 @@
+package org.accesodatos.spring.services;
+
+import org.accesodatos.spring.dtos.response.EstadisticasOutboxDTO;
+
+public interface OutboxService {
+    EstadisticasOutboxDTO obtenerEstadisticas();
+}
@@ -0,0 +1,12 @@
+package org.accesodatos.spring.services;
+
+import org.accesodatos.spring.dtos.response.ParticionDTO;
+
+import java.time.YearMonth;
+import java.util.List;
+
+public interface ParticionService {
+    List<ParticionDTO> obtenerParticiones();
+    void asegurarParticiones(YearMonth desde, YearMonth hasta);
+    void desacoplarParticion(YearMonth mes);
+}
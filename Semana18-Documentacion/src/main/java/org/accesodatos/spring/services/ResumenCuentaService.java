@@ -0,0 +1,12 @@
+package org.accesodatos.spring.services;
+
+import org.accesodatos.spring.dtos.response.ResumenCuentaDTO;
+import org.accesodatos.spring.models.Transaccion;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ResumenCuentaService {
+    List<ResumenCuentaDTO> obtenerResumen(Long idCuenta, String granularidad, LocalDate desde, LocalDate hasta);
+    void acumular(Long idCuenta, List<Transaccion> transacciones);
+}
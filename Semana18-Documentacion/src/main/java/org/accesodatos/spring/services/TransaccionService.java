@@ -1,11 +1,15 @@
 package org.accesodatos.spring.services;
 
 import org.accesodatos.spring.dtos.request.create.TransaccionCreateDTO;
+import org.accesodatos.spring.dtos.response.PaginaDTO;
+import org.accesodatos.spring.dtos.response.ResultadoTransaccionDTO;
 import org.accesodatos.spring.dtos.response.TransaccionDTO;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface TransaccionService {
-    List<TransaccionDTO> obtenerTransaccionesDeCuenta(Long idCuenta);
+    PaginaDTO<TransaccionDTO> obtenerHistorial(Long idCuenta, LocalDateTime desde, LocalDateTime hasta, String cursor, int limite);
     TransaccionDTO crearTransaccion(Long idCuenta, TransaccionCreateDTO dto);
+    List<ResultadoTransaccionDTO> crearTransaccionesEnLote(Long idCuenta, List<TransaccionCreateDTO> dtos);
 }
@@ -3,15 +3,16 @@ package org.accesodatos.spring.services;
 import com.fasterxml.jackson.databind.JsonNode;
 import org.accesodatos.spring.dtos.request.create.UsuarioCreateDTO;
 import org.accesodatos.spring.dtos.request.update.UsuarioUpdateDTO;
+import org.accesodatos.spring.dtos.response.PaginaDTO;
 import org.accesodatos.spring.dtos.response.UsuarioDTO;
 
-import java.util.List;
 
 public interface UsuarioService {
-    List<UsuarioDTO> obtenerTodosLosUsuarios();
+    PaginaDTO<UsuarioDTO> obtenerUsuariosPaginados(String cursor, int limite);
     UsuarioDTO obtenerUsuarioPorId(Long id);
     UsuarioDTO crearUsuario(UsuarioCreateDTO dto);
-    UsuarioDTO actualizarUsuario(Long id, UsuarioUpdateDTO dto);
-    UsuarioDTO actualizarUsuarioParcial(Long id, JsonNode patch);
+    // versionEsperada procede de If-Match; null si el cliente no impone condición
+    UsuarioDTO actualizarUsuario(Long id, UsuarioUpdateDTO dto, Long versionEsperada);
+    UsuarioDTO actualizarUsuarioParcial(Long id, JsonNode patch, Long versionEsperada);
     void eliminarUsuario(Long id);
 }
@@ -0,0 +1,13 @@
+package org.accesodatos.spring.services;
+
+import org.accesodatos.spring.dtos.response.PaginaDTO;
+import org.accesodatos.spring.dtos.response.VistaUsuarioDTO;
+
+import java.util.Collection;
+
+public interface VistaUsuarioService {
+    VistaUsuarioDTO obtenerVista(Long idUsuario);
+    PaginaDTO<VistaUsuarioDTO> obtenerVistasPaginadas(String cursor, int limite);
+    void actualizar(Collection<Long> idsUsuarios);
+    void registrarMovimientos(Long idCuenta, long importeNeto, int numTransacciones);
+}
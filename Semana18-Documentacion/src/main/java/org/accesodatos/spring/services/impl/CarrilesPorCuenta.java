@@ -0,0 +1,124 @@
+package org.accesodatos.spring.services.impl;
+
+import jakarta.annotation.PreDestroy;
+import org.accesodatos.spring.exceptions.CarrilesSaturadosException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Carril de ejecución por cuenta: las operaciones sobre una misma cuenta se ejecutan una detrás de otra
+ * y las de cuentas distintas en paralelo, sobre un número acotado de hilos.
+ * Cada cuenta con operaciones pendientes tiene en el mapa la última de ellas; la siguiente se encadena detrás
+ * y la entrada se elimina cuando termina la última. Una cuenta muy concurrida solo ocupa un hilo a la vez,
+ * así que no retrasa a las demás.
+ * La espera por una cuenta muy concurrida se hace en su cola, no bloqueada en la base de datos
+ * con una conexión del pool ocupada.
+ * <p>
+ * El total de operaciones pendientes (en ejecución o en espera) está limitado por banco.transacciones.max-pendientes.
+ * Con hilos de plataforma ya lo limita el pool de Tomcat, pero con hilos virtuales cada petición tiene su hilo
+ * y las colas crecerían sin medida; al superar el límite la operación se rechaza con CarrilesSaturadosException (503).
+ */
+@Component
+public class CarrilesPorCuenta {
+    private static final CompletableFuture<Void> SIN_PENDIENTES = CompletableFuture.completedFuture(null);
+
+    private final ExecutorService hilos;
+    private final Semaphore pendientes;
+    private final ConcurrentHashMap<Long, CompletableFuture<?>> ultimas = new ConcurrentHashMap<>();
+
+    public CarrilesPorCuenta(@Value("${banco.transacciones.carriles:16}") int numeroHilos,
+                             @Value("${banco.transacciones.max-pendientes:1000}") int maximoPendientes) {
+        if (numeroHilos < 1) {
+            throw new IllegalArgumentException("El número de hilos de los carriles debe ser al menos 1");
+        }
+        if (maximoPendientes < 1) {
+            throw new IllegalArgumentException("banco.transacciones.max-pendientes debe ser al menos 1");
+        }
+        pendientes = new Semaphore(maximoPendientes);
+        hilos = Executors.newFixedThreadPool(numeroHilos, Thread.ofPlatform().name("carril-cuenta-", 0).daemon().factory());
+    }
+
+    /**
+     * Ejecuta la tarea en el carril de la cuenta y espera su resultado.
+     * Si ya hay banco.transacciones.max-pendientes operaciones pendientes, se rechaza sin esperar: una cola
+     * más larga solo alargaría la respuesta de todas.
+     */
+    public <T> T ejecutar(Long idCuenta, Supplier<T> tarea) {
+        if (!pendientes.tryAcquire()) {
+            throw new CarrilesSaturadosException("Demasiadas operaciones pendientes; vuelva a intentarlo");
+        }
+        CompletableFuture<T> resultado = encolar(idCuenta, tarea);
+        try {
+            return resultado.get();
+        } catch (ExecutionException e) {
+            // Se relanza la excepción original para que el GlobalExceptionHandler la trate igual que antes
+            Throwable causa = e.getCause();
+            if (causa instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (causa instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(causa);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando el carril de la cuenta " + idCuenta, e);
+        }
+    }
+
+    // Número de cuentas con alguna operación en ejecución o en espera
+    public int cuentasConPendientes() {
+        return ultimas.size();
+    }
+
+    // Encadena la tarea detrás de la última pendiente de la cuenta, si la hay
+    private <T> CompletableFuture<T> encolar(Long idCuenta, Supplier<T> tarea) {
+        CompletableFuture<T> resultado = new CompletableFuture<>();
+        // put es atómico: cada operación queda detrás de exactamente una anterior
+        CompletableFuture<?> anterior = ultimas.put(idCuenta, resultado);
+        // Termine bien o mal la anterior, esta se lanza después
+        (anterior != null ? anterior : SIN_PENDIENTES).whenComplete((r, e) -> lanzar(idCuenta, tarea, resultado));
+        return resultado;
+    }
+
+    private <T> void lanzar(Long idCuenta, Supplier<T> tarea, CompletableFuture<T> resultado) {
+        try {
+            hilos.execute(() -> {
+                T valor;
+                try {
+                    valor = tarea.get();
+                } catch (Throwable e) {
+                    terminar(idCuenta, resultado);
+                    resultado.completeExceptionally(e);
+                    return;
+                }
+                terminar(idCuenta, resultado);
+                resultado.complete(valor);
+            });
+        } catch (RejectedExecutionException e) {
+            terminar(idCuenta, resultado);
+            resultado.completeExceptionally(e);
+        }
+    }
+
+    // Si sigue siendo la última de la cuenta, la cola queda vacía. Se hace antes de completar el resultado,
+    // para que quien lo espera ya no encuentre la entrada
+    private void terminar(Long idCuenta, CompletableFuture<?> resultado) {
+        ultimas.remove(idCuenta, resultado);
+        pendientes.release();
+    }
+
+    @PreDestroy
+    public void cerrar() {
+        hilos.shutdown();
+    }
+}
@@ -1,49 +1,124 @@
 package org.accesodatos.spring.services.impl;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import lombok.RequiredArgsConstructor;
+import org.accesodatos.spring.cache.CacheRespuestas;
 import org.accesodatos.spring.dtos.request.create.CuentaCreateDTO;
 import org.accesodatos.spring.dtos.response.CuentaDTO;
+import org.accesodatos.spring.dtos.response.PaginaDTO;
+import org.accesodatos.spring.dtos.response.TransaccionDTO;
 import org.accesodatos.spring.mappers.CuentaMapper;
+import org.accesodatos.spring.mappers.TransaccionMapper;
 import org.accesodatos.spring.models.Cuenta;
 import org.accesodatos.spring.models.Usuario;
 import org.accesodatos.spring.repositories.CuentaRepository;
+import org.accesodatos.spring.repositories.TransaccionRepository;
 import org.accesodatos.spring.repositories.UsuarioRepository;
+import org.accesodatos.spring.repositories.projections.TransaccionCuentaProjection;
 import org.accesodatos.spring.services.CuentaService;
+import org.accesodatos.spring.services.VistaUsuarioService;
+import org.accesodatos.spring.utils.CursorUtils;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.NoSuchElementException;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class CuentaServiceImpl implements CuentaService {
+    // Coincide con el fetch size de CuentaRepository.streamAll() y con el @BatchSize de Cuenta.transacciones
+    private static final int TAMANO_BLOQUE_EXPORTACION = 500;
+
     private final CuentaRepository cuentaRepository;
     private final CuentaMapper cuentaMapper;
     private final UsuarioRepository usuarioRepository;
+    private final TransaccionRepository transaccionRepository;
+    private final TransaccionMapper transaccionMapper;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final CacheRespuestas cacheRespuestas;
+    private final VistaUsuarioService vistaUsuarioService;
 
     @Override
-    public List<CuentaDTO> obtenerTodasLasCuentas() {
-        return cuentaRepository.findAll()
-                .stream()
-                .map(cuentaMapper::toDto)
-                .toList();
+    @Transactional(readOnly = true)
+    public PaginaDTO<CuentaDTO> obtenerCuentasPaginadas(String cursor, int limite) {
+        long despuesDe = CursorUtils.decodificar(cursor);
+        int tamanoPagina = CursorUtils.normalizarLimite(limite);
+
+        // Se lee una fila de más para saber si existe página siguiente
+        List<CuentaDTO> cuentas = cuentaRepository.findDtosSiguientePagina(despuesDe, Limit.of(tamanoPagina + 1));
+        PaginaDTO<CuentaDTO> pagina = CursorUtils.paginar(cuentas, tamanoPagina, CuentaDTO::getId, Function.identity());
+        asignarTransacciones(pagina.getContenido());
+        return pagina;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public CuentaDTO obtenerCuentaPorId(Long id) {
+        // Búsqueda por clave primaria: la cuenta se sirve desde la caché de segundo nivel si está en ella
         Cuenta cuenta = cuentaRepository.findById(id)
                 .orElseThrow(() -> new NoSuchElementException("Cuenta con id " + id + " no encontrada"));
-        return cuentaMapper.toDto(cuenta);
+        CuentaDTO cuentaDTO = new CuentaDTO(cuenta.getId(), cuenta.getSaldo(), cuenta.getFechaCreacion(),
+                cuenta.getTipoCuenta(), cuenta.getUsuario().getId(), cuenta.getVersion());
+        cuentaDTO.setTransacciones(transaccionRepository.findDtosByCuentaId(id));
+        return cuentaDTO;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<CuentaDTO> obtenerCuentasPorIdUsuario(Long idUsuario) {
-        return cuentaRepository.findByUsuarioId(idUsuario)
-                .stream()
-                .map(cuentaMapper::toDto)
-                .toList();
+        List<CuentaDTO> cuentas = cuentaRepository.findDtosByUsuarioIdIn(List.of(idUsuario));
+        asignarTransacciones(cuentas);
+        return cuentas;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportarCuentas(OutputStream salida) throws IOException {
+        // Una línea JSON por cuenta; la salida no se cierra, de eso se encarga el contenedor
+        ObjectWriter escritorNdjson = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n");
+
+        // La exportación recorre toda la tabla: sin CacheMode.IGNORE, las cuentas y sus usuarios (cargados
+        // de forma perezosa al mapear) pasarían por la caché de segundo nivel y expulsarían las entradas más usadas
+        Session sesion = entityManager.unwrap(Session.class);
+        CacheMode modoAnterior = sesion.getCacheMode();
+        sesion.setCacheMode(CacheMode.IGNORE);
+
+        int escritas = 0;
+        try (Stream<Cuenta> cuentas = cuentaRepository.streamAll();
+             SequenceWriter escritor = escritorNdjson.writeValues(salida)) {
+            Iterator<Cuenta> iterador = cuentas.iterator();
+            List<Cuenta> bloque = new ArrayList<>(TAMANO_BLOQUE_EXPORTACION);
+            while (iterador.hasNext()) {
+                bloque.add(iterador.next());
+                // La primera cuenta se envía sola para que el cliente reciba datos cuanto antes
+                if (escritas == 0 || bloque.size() == TAMANO_BLOQUE_EXPORTACION) {
+                    escritas += escribirBloque(escritor, bloque);
+                }
+            }
+            escritas += escribirBloque(escritor, bloque);
+        } finally {
+            sesion.setCacheMode(modoAnterior);
+        }
+        if (escritas > 0) {
+            salida.write('\n');
+        }
     }
 
     @Override
@@ -55,20 +130,55 @@ public class CuentaServiceImpl implements CuentaService {
         Cuenta cuenta = cuentaMapper.toEntity(dto);
         cuenta.setUsuario(usuario);
         cuenta.setFechaCreacion(LocalDateTime.now());
+        cuenta.setSaldoInicial(cuenta.getSaldo());
 
         Cuenta cuentaGuardada = cuentaRepository.save(cuenta);
+        vistaUsuarioService.actualizar(List.of(usuario.getId()));
+        // La respuesta del usuario incluye los IDs de sus cuentas: cambia su versión (ETag) y la respuesta cacheada
+        entityManager.lock(usuario, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+        cacheRespuestas.invalidarTrasCommit(CacheRespuestas.Tipo.USUARIO, usuario.getId());
         return cuentaMapper.toDto(cuentaGuardada);
     }
 
     @Override
     @Transactional
     public void eliminarCuenta(Long id) {
-        Cuenta cuenta = cuentaRepository.findById(id)
+        Cuenta cuenta = cuentaRepository.findConTransaccionesById(id)
                 .orElseThrow(() -> new NoSuchElementException("Cuenta no encontrada con id: " + id));
 
         // Las transacciones asociadas se eliminarán automáticamente
         // debido a CascadeType.ALL y orphanRemoval = true
         cuentaRepository.delete(cuenta);
+        vistaUsuarioService.actualizar(List.of(cuenta.getUsuario().getId()));
+        entityManager.lock(cuenta.getUsuario(), LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+        cacheRespuestas.invalidarTrasCommit(CacheRespuestas.Tipo.CUENTA, id);
+        cacheRespuestas.invalidarTrasCommit(CacheRespuestas.Tipo.USUARIO, cuenta.getUsuario().getId());
+    }
+
+    // Al mapear la primera cuenta del bloque, @BatchSize carga las transacciones de todo el bloque en una consulta.
+    // Después se vacía el contexto de persistencia para que el uso de memoria se mantenga constante.
+    private int escribirBloque(SequenceWriter escritor, List<Cuenta> bloque) throws IOException {
+        for (Cuenta cuenta : bloque) {
+            escritor.write(cuentaMapper.toDto(cuenta));
+        }
+        escritor.flush();
+        int escritas = bloque.size();
+        bloque.clear();
+        entityManager.clear();
+        return escritas;
+    }
+
+    // Carga las transacciones de todas las cuentas con una única consulta y las reparte por cuenta
+    private void asignarTransacciones(List<CuentaDTO> cuentas) {
+        if (cuentas.isEmpty()) return;
+
+        List<Long> idsCuentas = cuentas.stream().map(CuentaDTO::getId).toList();
+        Map<Long, List<TransaccionDTO>> transaccionesPorCuenta = transaccionRepository.findByCuentaIdIn(idsCuentas)
+                .stream()
+                .collect(Collectors.groupingBy(TransaccionCuentaProjection::getIdCuenta,
+                        Collectors.mapping(transaccionMapper::toDto, Collectors.toList())));
 
+        cuentas.forEach(cuenta -> cuenta.setTransacciones(
+                transaccionesPorCuenta.getOrDefault(cuenta.getId(), new ArrayList<>())));
     }
 }
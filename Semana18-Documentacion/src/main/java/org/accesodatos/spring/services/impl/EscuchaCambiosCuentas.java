@@ -0,0 +1,127 @@
+package org.accesodatos.spring.services.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Invalida las cuentas cacheadas cuando otro proceso cambia su saldo en la misma base de datos
+ * (Semana18-Reactivo hace NOTIFY cuentas_modificadas con el ID de la cuenta en la transacción de cada movimiento).
+ * PostgreSQL solo entrega la notificación tras el commit, así que la expulsión nunca se adelanta a los datos.
+ * <p>
+ * Usa su propia conexión, fuera del pool, y un hilo que espera notificaciones. Mientras está desconectada pueden
+ * perderse cambios: al reconectar se expulsan todas las cuentas, y el TTL de CacheRespuestas acota lo que quede.
+ */
+@Component
+public class EscuchaCambiosCuentas implements SmartLifecycle {
+    public static final String CANAL = "cuentas_modificadas";
+    private static final int ESPERA_NOTIFICACIONES_MS = 1000;
+    private static final long ESPERA_RECONEXION_MS = 5000;
+
+    private final DataSourceProperties dataSourceProperties;
+    private final InvalidacionCacheCuentas invalidacionCacheCuentas;
+    private final boolean habilitada;
+    private final Counter invalidaciones;
+    private final Counter reconexiones;
+
+    private volatile boolean activa;
+    private volatile boolean conectada;
+    private Thread hilo;
+
+    public EscuchaCambiosCuentas(DataSourceProperties dataSourceProperties,
+                                 InvalidacionCacheCuentas invalidacionCacheCuentas,
+                                 MeterRegistry registry,
+                                 @Value("${banco.cache.escucha-cambios.enabled:true}") boolean habilitada) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.invalidacionCacheCuentas = invalidacionCacheCuentas;
+        this.habilitada = habilitada;
+        this.invalidaciones = Counter.builder("banco.cache.cambios.externos").register(registry);
+        this.reconexiones = Counter.builder("banco.cache.cambios.reconexiones").register(registry);
+        Gauge.builder("banco.cache.cambios.conectada", this, escucha -> escucha.conectada ? 1 : 0).register(registry);
+    }
+
+    @Override
+    public void start() {
+        if (!habilitada) return;
+        activa = true;
+        hilo = Thread.ofPlatform().name("escucha-cambios-cuentas").daemon().start(this::escuchar);
+    }
+
+    @Override
+    public void stop() {
+        activa = false;
+        if (hilo != null) {
+            hilo.interrupt();
+            try {
+                hilo.join(ESPERA_NOTIFICACIONES_MS * 2L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return activa;
+    }
+
+    private void escuchar() {
+        while (activa) {
+            try (Connection conexion = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement sentencia = conexion.createStatement()) {
+                    sentencia.execute("LISTEN " + CANAL);
+                }
+                conectada = true;
+                // Lo que cambió antes de escuchar no llegará como notificación
+                invalidacionCacheCuentas.invalidarCuentas();
+
+                PGConnection pgConexion = conexion.unwrap(PGConnection.class);
+                while (activa) {
+                    PGNotification[] notificaciones = pgConexion.getNotifications(ESPERA_NOTIFICACIONES_MS);
+                    if (notificaciones == null) continue;
+                    for (PGNotification notificacion : notificaciones) {
+                        invalidar(notificacion.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                conectada = false;
+                if (activa) {
+                    reconexiones.increment();
+                    esperar(ESPERA_RECONEXION_MS);
+                }
+            } finally {
+                conectada = false;
+            }
+        }
+    }
+
+    private void invalidar(String idCuenta) {
+        try {
+            invalidacionCacheCuentas.invalidarCuenta(Long.valueOf(idCuenta));
+            invalidaciones.increment();
+        } catch (NumberFormatException e) {
+            // Carga útil ajena al protocolo: no se sabe qué cuenta cambió, se expulsan todas
+            invalidacionCacheCuentas.invalidarCuentas();
+        }
+    }
+
+    private static void esperar(long milisegundos) {
+        try {
+            Thread.sleep(milisegundos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.accesodatos.spring.services.impl;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.accesodatos.spring.dtos.response.EstadisticasCacheDTO;
+import org.accesodatos.spring.services.EstadisticasCacheService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Estadísticas de la caché de segundo nivel por región.
+ * Aciertos, fallos y escrituras los cuenta Hibernate; las expulsiones por tamaño o TTL solo las conoce
+ * Ehcache, que las publica en el MBean JCache de cada caché (enable-statistics en ehcache.xml).
+ */
+@Service
+@RequiredArgsConstructor
+public class EstadisticasCacheServiceImpl implements EstadisticasCacheService {
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public List<EstadisticasCacheDTO> obtenerEstadisticas() {
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return Arrays.stream(estadisticas.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(region -> aDto(region, estadisticas.getCacheRegionStatistics(region)))
+                .toList();
+    }
+
+    private EstadisticasCacheDTO aDto(String region, CacheRegionStatistics estadisticasRegion) {
+        long aciertos = estadisticasRegion == null ? 0 : estadisticasRegion.getHitCount();
+        long fallos = estadisticasRegion == null ? 0 : estadisticasRegion.getMissCount();
+        long escrituras = estadisticasRegion == null ? 0 : estadisticasRegion.getPutCount();
+        double tasaAciertos = aciertos + fallos == 0 ? 0 : (double) aciertos / (aciertos + fallos);
+        return new EstadisticasCacheDTO(region, aciertos, fallos, escrituras, expulsiones(region), tasaAciertos);
+    }
+
+    // 0 si Ehcache no publica el MBean de la región (estadísticas JCache desactivadas)
+    private long expulsiones(String region) {
+        MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+        try {
+            for (ObjectName nombre : servidor.queryNames(new ObjectName("javax.cache:type=CacheStatistics,*"), null)) {
+                if (region.equals(nombre.getKeyProperty("Cache"))) {
+                    return (Long) servidor.getAttribute(nombre, "CacheEvictions");
+                }
+            }
+        } catch (JMException e) {
+            return 0;
+        }
+        return 0;
+    }
+}
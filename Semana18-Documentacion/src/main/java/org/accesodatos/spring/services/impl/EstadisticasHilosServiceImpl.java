@@ -0,0 +1,41 @@
+package org.accesodatos.spring.services.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.accesodatos.spring.config.DataSourceLimitado;
+import org.accesodatos.spring.config.MonitorAnclajes;
+import org.accesodatos.spring.dtos.response.EstadisticasHilosDTO;
+import org.accesodatos.spring.services.EstadisticasHilosService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+/**
+ * Modo de ejecución de las peticiones y, con hilos virtuales, uso del límite de conexiones y anclajes registrados.
+ */
+@Service
+@RequiredArgsConstructor
+public class EstadisticasHilosServiceImpl implements EstadisticasHilosService {
+    // Solo existen con spring.threads.virtual.enabled=true (HilosVirtualesConfig)
+    private final ObjectProvider<DataSourceLimitado> dataSourceLimitado;
+    private final ObjectProvider<MonitorAnclajes> monitorAnclajes;
+
+    @Override
+    public EstadisticasHilosDTO obtenerEstadisticas() {
+        EstadisticasHilosDTO estadisticas = new EstadisticasHilosDTO("plataforma", 0, 0, 0, 0, 0, Map.of());
+        DataSourceLimitado limite = dataSourceLimitado.getIfAvailable();
+        if (limite != null) {
+            estadisticas.setModo("virtual");
+            estadisticas.setMaximoConexiones(limite.maximoConexiones());
+            estadisticas.setConexionesEnUso(limite.conexionesEnUso());
+            estadisticas.setHilosEsperandoConexion(limite.hilosEsperando());
+            estadisticas.setEsperasAgotadas(limite.esperasAgotadas());
+        }
+        MonitorAnclajes monitor = monitorAnclajes.getIfAvailable();
+        if (monitor != null) {
+            estadisticas.setAnclajes(monitor.anclajes());
+            estadisticas.setAnclajesPorSitio(monitor.anclajesPorSitio());
+        }
+        return estadisticas;
+    }
+}
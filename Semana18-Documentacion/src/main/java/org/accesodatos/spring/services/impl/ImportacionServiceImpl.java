@@ -0,0 +1,191 @@
+package org.accesodatos.spring.services.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.accesodatos.spring.dtos.response.ResultadoImportacionDTO;
+import org.accesodatos.spring.services.ImportacionService;
+import org.accesodatos.spring.services.ParticionService;
+import org.accesodatos.spring.services.VistaUsuarioService;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Importación masiva de transacciones históricas con COPY de PostgreSQL.
+ * Los datos pasan directamente del cuerpo de la petición a la base de datos, sin crear entidades,
+ * por lo que el tamaño del fichero no está limitado por la memoria de la aplicación.
+ * <p>
+ * Se hace en tres transacciones cortas, cada una con una sola conexión del pool: la carga del fichero en una
+ * tabla auxiliar, la creación de las particiones que falten y el paso de las filas a transacciones con el
+ * recálculo de saldos y resúmenes. La tabla auxiliar es UNLOGGED y no temporal, porque tiene que sobrevivir
+ * entre transacciones que pueden usar conexiones distintas; se borra al terminar, vaya bien o mal.
+ */
+@Service
+@RequiredArgsConstructor
+public class ImportacionServiceImpl implements ImportacionService {
+    // Debe coincidir con el allocationSize de la secuencia de Transaccion (pooled-lo)
+    private static final int TAMANO_BLOQUE_IDS = 50;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final InvalidacionCacheCuentas invalidacionCacheCuentas;
+    private final ParticionService particionService;
+    private final VistaUsuarioService vistaUsuarioService;
+
+    @Override
+    public ResultadoImportacionDTO importarTransacciones(InputStream datos, boolean binario) {
+        long inicio = System.nanoTime();
+        // Nombre generado aquí, no por el cliente: una tabla por importación, así que pueden ir en paralelo
+        String tabla = "importacion_" + UUID.randomUUID().toString().replace("-", "");
+        try {
+            // El fichero trae los importes en euros con dos decimales; se pasan a céntimos al insertarlos
+            long filas = transactionTemplate.execute(status -> {
+                jdbcTemplate.execute("""
+                        CREATE UNLOGGED TABLE %s (
+                            id_cuenta INT NOT NULL,
+                            monto DECIMAL(12, 2) NOT NULL,
+                            fecha TIMESTAMP NOT NULL,
+                            tipo_transaccion VARCHAR(20) NOT NULL
+                        )""".formatted(tabla));
+                return copiar(tabla, datos, binario);
+            });
+            if (filas == 0) {
+                return new ResultadoImportacionDTO(0, 0, milisegundosDesde(inicio), 0);
+            }
+
+            // Los datos históricos pueden caer en meses sin partición: se crean antes de insertar y sin ninguna
+            // otra transacción abierta, para no esperar con dos conexiones ni retener los bloqueos del ATTACH
+            Map<String, Object> rango = jdbcTemplate.queryForMap(
+                    "SELECT MIN(fecha) AS desde, MAX(fecha) AS hasta FROM " + tabla);
+            particionService.asegurarParticiones(
+                    YearMonth.from(((Timestamp) rango.get("desde")).toLocalDateTime()),
+                    YearMonth.from(((Timestamp) rango.get("hasta")).toLocalDateTime()));
+
+            int cuentasActualizadas = transactionTemplate.execute(status -> insertar(tabla, filas));
+            long milisegundos = milisegundosDesde(inicio);
+            long filasPorSegundo = filas * 1000 / Math.max(milisegundos, 1);
+            return new ResultadoImportacionDTO(filas, cuentasActualizadas, milisegundos, filasPorSegundo);
+        } finally {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + tabla);
+        }
+    }
+
+    // Pasa las filas de la tabla auxiliar a transacciones y recalcula lo que depende de ellas.
+    // Devuelve el número de cuentas actualizadas
+    private int insertar(String tabla, long filas) {
+        // Cada nextval reserva un bloque de 50 IDs, así que se pide un valor por bloque y no uno por fila
+        jdbcTemplate.update("""
+                INSERT INTO transacciones (id_transaccion, id_cuenta, monto, fecha, tipo_transaccion)
+                SELECT b.base + mod(f.n - 1, ?), f.id_cuenta, (f.monto * 100)::BIGINT, f.fecha, f.tipo_transaccion
+                FROM (SELECT t.*, row_number() OVER () AS n FROM %s t) f
+                JOIN (SELECT g.bloque, nextval('transacciones_id_transaccion_seq') AS base
+                      FROM generate_series(1, ?) AS g(bloque)) b
+                  ON b.bloque = (f.n - 1) / ? + 1""".formatted(tabla),
+                TAMANO_BLOQUE_IDS, (filas + TAMANO_BLOQUE_IDS - 1) / TAMANO_BLOQUE_IDS, TAMANO_BLOQUE_IDS);
+
+        // Un único UPDATE recalcula el saldo de cada cuenta afectada desde su historial completo, ya con lo importado:
+        // saldo de apertura más el importe neto de todas sus transacciones
+        int cuentasActualizadas = jdbcTemplate.update("""
+                UPDATE cuentas c
+                SET saldo = c.saldo_inicial + t.importe, version = c.version + 1
+                FROM (SELECT id_cuenta,
+                             SUM(CASE WHEN tipo_transaccion = 'Deposito' THEN ABS(monto) ELSE -ABS(monto) END) AS importe
+                      FROM transacciones
+                      WHERE id_cuenta IN (SELECT id_cuenta FROM %s)
+                      GROUP BY id_cuenta) t
+                WHERE c.id_cuenta = t.id_cuenta""".formatted(tabla));
+
+        // Las transacciones históricas pueden caer antes de otras ya registradas: se recalcula el saldo
+        // posterior desde la fecha importada más antigua de cada cuenta, partiendo del saldo actual hacia atrás
+        jdbcTemplate.update("""
+                UPDATE transacciones t
+                SET saldo_posterior = s.saldo_posterior
+                FROM (SELECT r.id_transaccion, r.fecha,
+                             c.saldo - COALESCE(SUM(CASE WHEN r.tipo_transaccion = 'Deposito' THEN ABS(r.monto) ELSE -ABS(r.monto) END)
+                                 OVER (PARTITION BY r.id_cuenta ORDER BY r.fecha DESC, r.id_transaccion DESC
+                                       ROWS BETWEEN UNBOUNDED PRECEDING AND 1 PRECEDING), 0) AS saldo_posterior
+                      FROM transacciones r
+                      JOIN cuentas c ON c.id_cuenta = r.id_cuenta
+                      JOIN (SELECT id_cuenta, MIN(fecha) AS desde
+                            FROM %s
+                            GROUP BY id_cuenta) i ON i.id_cuenta = r.id_cuenta AND r.fecha >= i.desde) s
+                WHERE t.id_transaccion = s.id_transaccion AND t.fecha = s.fecha""".formatted(tabla));
+        recalcularResumenes(tabla);
+        vistaUsuarioService.actualizar(jdbcTemplate.queryForList("""
+                SELECT DISTINCT c.id_usuario
+                FROM cuentas c
+                WHERE c.id_cuenta IN (SELECT id_cuenta FROM %s)""".formatted(tabla), Long.class));
+        invalidacionCacheCuentas.invalidarCuentasTrasCommit();
+        return cuentasActualizadas;
+    }
+
+    // Las transacciones importadas caen en días ya resumidos y cambian el saldo de cierre de los siguientes:
+    // se rehacen los resúmenes de cada cuenta desde el día (y el mes) importado más antiguo
+    private void recalcularResumenes(String tabla) {
+        jdbcTemplate.execute("""
+                CREATE TEMP TABLE resumenes_importacion ON COMMIT DROP AS
+                SELECT id_cuenta, MIN(fecha)::DATE AS desde
+                FROM %s
+                GROUP BY id_cuenta""".formatted(tabla));
+        jdbcTemplate.update("""
+                DELETE FROM resumenes_diarios r
+                USING resumenes_importacion i
+                WHERE r.id_cuenta = i.id_cuenta AND r.periodo >= i.desde""");
+        jdbcTemplate.update("""
+                INSERT INTO resumenes_diarios (id_cuenta, periodo, total_depositos, total_retiros, num_transacciones, saldo_cierre)
+                SELECT t.id_cuenta, t.fecha::DATE,
+                       SUM(CASE WHEN t.tipo_transaccion = 'Deposito' THEN ABS(t.monto) ELSE 0 END),
+                       SUM(CASE WHEN t.tipo_transaccion = 'Deposito' THEN 0 ELSE ABS(t.monto) END),
+                       COUNT(*),
+                       (ARRAY_AGG(t.saldo_posterior ORDER BY t.fecha DESC, t.id_transaccion DESC))[1]
+                FROM transacciones t
+                JOIN resumenes_importacion i ON i.id_cuenta = t.id_cuenta AND t.fecha >= i.desde
+                GROUP BY t.id_cuenta, t.fecha::DATE""");
+        jdbcTemplate.update("""
+                DELETE FROM resumenes_mensuales r
+                USING resumenes_importacion i
+                WHERE r.id_cuenta = i.id_cuenta AND r.periodo >= date_trunc('month', i.desde)""");
+        jdbcTemplate.update("""
+                INSERT INTO resumenes_mensuales (id_cuenta, periodo, total_depositos, total_retiros, num_transacciones, saldo_cierre)
+                SELECT d.id_cuenta, date_trunc('month', d.periodo)::DATE,
+                       SUM(d.total_depositos), SUM(d.total_retiros), SUM(d.num_transacciones),
+                       (ARRAY_AGG(d.saldo_cierre ORDER BY d.periodo DESC))[1]
+                FROM resumenes_diarios d
+                JOIN resumenes_importacion i ON i.id_cuenta = d.id_cuenta AND d.periodo >= date_trunc('month', i.desde)
+                GROUP BY d.id_cuenta, date_trunc('month', d.periodo)""");
+    }
+
+    private long copiar(String tabla, InputStream datos, boolean binario) {
+        String sql = binario
+                ? "COPY " + tabla + " FROM STDIN (FORMAT binary)"
+                : "COPY " + tabla + " FROM STDIN (FORMAT csv, HEADER true)";
+
+        // Conexión de la transacción en curso, la misma que ha creado la tabla
+        Connection conexion = DataSourceUtils.getConnection(dataSource);
+        try {
+            return conexion.unwrap(PGConnection.class).getCopyAPI().copyIn(sql, datos);
+        } catch (SQLException e) {
+            throw new IllegalArgumentException("Error al importar las transacciones: " + e.getMessage());
+        } catch (IOException e) {
+            throw new IllegalStateException("Error al leer los datos de la importación: " + e.getMessage());
+        } finally {
+            DataSourceUtils.releaseConnection(conexion, dataSource);
+        }
+    }
+
+    private long milisegundosDesde(long inicio) {
+        return (System.nanoTime() - inicio) / 1_000_000;
+    }
+}
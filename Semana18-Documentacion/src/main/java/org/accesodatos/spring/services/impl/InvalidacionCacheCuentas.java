@@ -0,0 +1,43 @@
+package org.accesodatos.spring.services.impl;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.accesodatos.spring.cache.CacheRespuestas;
+import org.accesodatos.spring.models.Cuenta;
+import org.accesodatos.spring.utils.CommitUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Invalida las cuentas cacheadas cuando cambia su saldo: la región "cuentas" de la caché de segundo nivel
+ * y las respuestas ya serializadas de GET /api/cuentas/{id}.
+ * Los movimientos actualizan el saldo con UPDATE nativos que Hibernate no ve (CuentaRepository.aplicarImporte
+ * y sumarSaldo), así que se expulsa cada cuenta a mano; un UPDATE JPQL vaciaría la región entera.
+ * La expulsión se hace tras el commit: si se hiciera antes, otra lectura podría volver a cachear el saldo antiguo.
+ */
+@Component
+@RequiredArgsConstructor
+public class InvalidacionCacheCuentas {
+    private final EntityManagerFactory entityManagerFactory;
+    private final CacheRespuestas cacheRespuestas;
+
+    public void invalidarCuentaTrasCommit(Long idCuenta) {
+        CommitUtils.trasCommit(() -> entityManagerFactory.getCache().evict(Cuenta.class, idCuenta));
+        cacheRespuestas.invalidarTrasCommit(CacheRespuestas.Tipo.CUENTA, idCuenta);
+    }
+
+    public void invalidarCuentasTrasCommit() {
+        CommitUtils.trasCommit(() -> entityManagerFactory.getCache().evict(Cuenta.class));
+        cacheRespuestas.invalidarTodoTrasCommit(CacheRespuestas.Tipo.CUENTA);
+    }
+
+    // Cambios ya confirmados por otro proceso (EscuchaCambiosCuentas): se expulsan en el momento
+    public void invalidarCuenta(Long idCuenta) {
+        entityManagerFactory.getCache().evict(Cuenta.class, idCuenta);
+        cacheRespuestas.invalidar(CacheRespuestas.Tipo.CUENTA, idCuenta);
+    }
+
+    public void invalidarCuentas() {
+        entityManagerFactory.getCache().evict(Cuenta.class);
+        cacheRespuestas.invalidarTodo(CacheRespuestas.Tipo.CUENTA);
+    }
+}
@@ -0,0 +1,32 @@
+package org.accesodatos.spring.services.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.accesodatos.spring.services.ParticionService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+
+/**
+ * Crea por adelantado las particiones mensuales de transacciones: al arrancar y después cada día.
+ * Así siempre existe la partición del mes en curso y de los siguientes, y las inserciones nunca fallan
+ * por no tener partición de destino.
+ */
+@Component
+@RequiredArgsConstructor
+public class MantenimientoParticiones {
+    private final ParticionService particionService;
+
+    @Value("${banco.particiones.meses-adelantados:3}")
+    private int mesesAdelantados;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${banco.particiones.cron:0 0 3 * * *}")
+    public void crearParticionesFuturas() {
+        YearMonth actual = YearMonth.now();
+        particionService.asegurarParticiones(actual, actual.plusMonths(mesesAdelantados));
+    }
+}
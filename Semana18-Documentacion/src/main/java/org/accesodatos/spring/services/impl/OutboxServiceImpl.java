@@ -0,0 +1,39 @@
+package org.accesodatos.spring.services.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.accesodatos.spring.dtos.response.EstadisticasOutboxDTO;
+import org.accesodatos.spring.outbox.RelayOutbox;
+import org.accesodatos.spring.services.OutboxService;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Estado del outbox: eventos pendientes en la tabla y contadores del relay desde el arranque.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxServiceImpl implements OutboxService {
+    private final JdbcTemplate jdbcTemplate;
+    private final RelayOutbox relayOutbox;
+
+    @Override
+    public EstadisticasOutboxDTO obtenerEstadisticas() {
+        EstadisticasOutboxDTO estadisticas = jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) AS pendientes,
+                       COALESCE(EXTRACT(EPOCH FROM CURRENT_TIMESTAMP - MIN(registrado)) * 1000, 0)::BIGINT AS retraso_ms
+                FROM outbox_transacciones""", (rs, fila) -> {
+            EstadisticasOutboxDTO dto = new EstadisticasOutboxDTO();
+            dto.setPendientes(rs.getLong("pendientes"));
+            dto.setRetrasoMs(rs.getLong("retraso_ms"));
+            return dto;
+        });
+        estadisticas.setSumideros(relayOutbox.nombresSumideros());
+        estadisticas.setPublicados(relayOutbox.eventosPublicados());
+        estadisticas.setLotes(relayOutbox.lotesPublicados());
+        estadisticas.setLotesFallidos(relayOutbox.lotesFallidos());
+        estadisticas.setEventosPorSegundo(relayOutbox.eventosPorSegundo());
+        estadisticas.setTamanoLote(relayOutbox.tamanoLote());
+        estadisticas.setUltimoError(relayOutbox.ultimoError());
+        return estadisticas;
+    }
+}
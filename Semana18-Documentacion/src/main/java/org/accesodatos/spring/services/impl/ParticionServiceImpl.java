@@ -0,0 +1,96 @@
+package org.accesodatos.spring.services.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.accesodatos.spring.dtos.response.ParticionDTO;
+import org.accesodatos.spring.services.ParticionService;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Particiones mensuales de la tabla transacciones (ver migraciones/05_particionado_transacciones.sql).
+ * Cada mes es una tabla transacciones_AAAA_MM con el rango [primer día del mes, primer día del siguiente).
+ */
+@Service
+@RequiredArgsConstructor
+public class ParticionServiceImpl implements ParticionService {
+    private static final String PREFIJO = "transacciones_";
+    private static final DateTimeFormatter FORMATO_SUFIJO = DateTimeFormatter.ofPattern("yyyy_MM");
+    // Serializa la creación de particiones entre instancias de la aplicación
+    private static final long CERROJO_PARTICIONES = 0x7061727469636EL;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Solo las particiones mensuales: otras que se hayan añadido a mano (p. ej. una DEFAULT o de archivo)
+    // no tienen un mes en el nombre y se omiten
+    @Override
+    public List<ParticionDTO> obtenerParticiones() {
+        return jdbcTemplate.query("""
+                        SELECT c.relname, GREATEST(c.reltuples, 0)::BIGINT AS filas
+                        FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+                        WHERE i.inhparent = 'transacciones'::regclass
+                          AND c.relname ~ '^transacciones_[0-9]{4}_(0[1-9]|1[0-2])$'
+                        ORDER BY c.relname""",
+                (rs, fila) -> new ParticionDTO(rs.getString("relname"),
+                        YearMonth.parse(rs.getString("relname").substring(PREFIJO.length()), FORMATO_SUFIJO),
+                        rs.getLong("filas")));
+    }
+
+    /**
+     * Crea las particiones que falten entre los dos meses, ambos incluidos, en una transacción corta.
+     * Se debe llamar sin otra transacción abierta (la importación la llama entre la carga y la inserción):
+     * dentro de otra retendría sus bloqueos hasta que esa terminase.
+     * <p>
+     * CREATE TABLE ... PARTITION OF bloquearía transacciones en modo ACCESS EXCLUSIVE (ni lecturas ni inserciones);
+     * en su lugar se crea una tabla suelta con la misma estructura y se acopla con ATTACH PARTITION, que en la
+     * tabla padre solo toma SHARE UPDATE EXCLUSIVE. Al acoplarla se añade su clave ajena, que bloquea
+     * brevemente las actualizaciones de cuentas hasta el commit.
+     */
+    @Override
+    @Transactional
+    public void asegurarParticiones(YearMonth desde, YearMonth hasta) {
+        jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + CERROJO_PARTICIONES + ")");
+        Set<String> existentes = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT inhrelid::regclass::text FROM pg_inherits WHERE inhparent = 'transacciones'::regclass", String.class));
+
+        for (YearMonth mes = desde; !mes.isAfter(hasta); mes = mes.plusMonths(1)) {
+            String nombre = nombreParticion(mes);
+            if (!existentes.contains(nombre)) {
+                // El nombre y los límites salen de YearMonth, no de datos del cliente
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + nombre + " (LIKE transacciones INCLUDING ALL)");
+                jdbcTemplate.execute("ALTER TABLE transacciones ATTACH PARTITION " + nombre +
+                        " FOR VALUES FROM ('" + mes.atDay(1) + "') TO ('" + mes.plusMonths(1).atDay(1) + "')");
+            }
+        }
+    }
+
+    /**
+     * Saca la partición de la tabla sin mover ni borrar filas: solo cambia el catálogo.
+     * Con CONCURRENTLY no se bloquean las lecturas ni las inserciones en transacciones mientras tanto.
+     * La tabla desacoplada se conserva para archivarla o borrarla.
+     */
+    @Override
+    public void desacoplarParticion(YearMonth mes) {
+        if (!mes.isBefore(YearMonth.now())) {
+            throw new IllegalArgumentException("Solo se pueden desacoplar particiones de meses anteriores al actual");
+        }
+        String nombre = nombreParticion(mes);
+        boolean existe = obtenerParticiones().stream().anyMatch(p -> p.getNombre().equals(nombre));
+        if (!existe) {
+            throw new NoSuchElementException("No existe la partición " + nombre);
+        }
+        // DETACH ... CONCURRENTLY no puede ejecutarse dentro de una transacción: este método no es @Transactional
+        jdbcTemplate.execute("ALTER TABLE transacciones DETACH PARTITION " + nombre + " CONCURRENTLY");
+    }
+
+    private String nombreParticion(YearMonth mes) {
+        return PREFIJO + mes.format(FORMATO_SUFIJO);
+    }
+}
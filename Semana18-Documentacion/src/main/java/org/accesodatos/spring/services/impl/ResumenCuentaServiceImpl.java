@@ -0,0 +1,131 @@
+package org.accesodatos.spring.services.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.accesodatos.spring.dtos.response.ResumenCuentaDTO;
+import org.accesodatos.spring.models.Transaccion;
+import org.accesodatos.spring.repositories.CuentaRepository;
+import org.accesodatos.spring.services.ResumenCuentaService;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Resúmenes diarios y mensuales por cuenta (ver migraciones/07_resumenes_cuentas.sql).
+ * Se actualizan en la misma transacción que cada inserción, así que las consultas de totales
+ * leen una fila por periodo en lugar de sumar todas las transacciones de la cuenta.
+ */
+@Service
+@RequiredArgsConstructor
+public class ResumenCuentaServiceImpl implements ResumenCuentaService {
+    // Límites del resumen cuando el cliente no indica rango (DATE de PostgreSQL los admite)
+    private static final LocalDate FECHA_MINIMA = LocalDate.of(1, 1, 1);
+    private static final LocalDate FECHA_MAXIMA = LocalDate.of(9999, 12, 31);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CuentaRepository cuentaRepository;
+
+    private enum Granularidad {
+        DIA("resumenes_diarios"),
+        MES("resumenes_mensuales");
+
+        private final String tabla;
+
+        Granularidad(String tabla) {
+            this.tabla = tabla;
+        }
+
+        static Granularidad desde(String valor) {
+            try {
+                return valueOf(valor.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Granularidad no válida: " + valor + " (valores admitidos: dia, mes)");
+            }
+        }
+
+        LocalDate periodo(LocalDate dia) {
+            return this == MES ? dia.withDayOfMonth(1) : dia;
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ResumenCuentaDTO> obtenerResumen(Long idCuenta, String granularidad, LocalDate desde, LocalDate hasta) {
+        Granularidad tipo = Granularidad.desde(granularidad);
+        LocalDate inicio = desde != null ? tipo.periodo(desde) : FECHA_MINIMA;
+        LocalDate fin = hasta != null ? hasta : FECHA_MAXIMA;
+        if (inicio.isAfter(fin)) {
+            throw new IllegalArgumentException("La fecha 'from' no puede ser posterior a 'to'");
+        }
+
+        // El nombre de la tabla sale del enum, no de datos del cliente
+        List<ResumenCuentaDTO> resumen = jdbcTemplate.query("SELECT periodo, total_depositos, total_retiros, " +
+                        "num_transacciones, saldo_cierre FROM " + tipo.tabla + " " +
+                        "WHERE id_cuenta = ? AND periodo BETWEEN ? AND ? ORDER BY periodo",
+                (rs, fila) -> new ResumenCuentaDTO(rs.getObject("periodo", LocalDate.class),
+                        rs.getLong("total_depositos"), rs.getLong("total_retiros"),
+                        rs.getLong("num_transacciones"), rs.getLong("saldo_cierre")),
+                idCuenta, inicio, fin);
+
+        // Solo se comprueba la cuenta si no hay resultados, para distinguir una cuenta inexistente de un rango vacío
+        if (resumen.isEmpty() && !cuentaRepository.existsById(idCuenta)) {
+            throw new NoSuchElementException("Cuenta con id " + idCuenta + " no encontrada");
+        }
+        return resumen;
+    }
+
+    /**
+     * Suma las transacciones nuevas de una cuenta a sus periodos con un UPSERT por periodo.
+     * Deben venir en orden cronológico y con el saldo posterior ya asignado: el de la última
+     * de cada periodo pasa a ser su saldo de cierre.
+     * Participa en la transacción en curso, la misma que guarda las transacciones.
+     */
+    @Override
+    public void acumular(Long idCuenta, List<Transaccion> transacciones) {
+        for (Granularidad tipo : Granularidad.values()) {
+            Map<LocalDate, Acumulado> periodos = new LinkedHashMap<>();
+            for (Transaccion transaccion : transacciones) {
+                periodos.computeIfAbsent(tipo.periodo(transaccion.getFecha().toLocalDate()), p -> new Acumulado())
+                        .sumar(transaccion);
+            }
+
+            List<Object[]> filas = new ArrayList<>(periodos.size());
+            periodos.forEach((periodo, a) -> filas.add(new Object[]{
+                    idCuenta, periodo, a.depositos, a.retiros, a.numTransacciones, a.saldoCierre}));
+            jdbcTemplate.batchUpdate("INSERT INTO " + tipo.tabla + " AS r " +
+                    "(id_cuenta, periodo, total_depositos, total_retiros, num_transacciones, saldo_cierre) " +
+                    "VALUES (?, ?, ?, ?, ?, ?) " +
+                    "ON CONFLICT (id_cuenta, periodo) DO UPDATE SET " +
+                    "total_depositos = r.total_depositos + EXCLUDED.total_depositos, " +
+                    "total_retiros = r.total_retiros + EXCLUDED.total_retiros, " +
+                    "num_transacciones = r.num_transacciones + EXCLUDED.num_transacciones, " +
+                    "saldo_cierre = EXCLUDED.saldo_cierre", filas);
+        }
+    }
+
+    // Totales de un periodo entre las transacciones nuevas
+    private static final class Acumulado {
+        private long depositos;
+        private long retiros;
+        private long numTransacciones;
+        private long saldoCierre;
+
+        void sumar(Transaccion transaccion) {
+            long monto = Math.abs(transaccion.getMonto());
+            if ("Deposito".equalsIgnoreCase(transaccion.getTipoTransaccion())) {
+                depositos += monto;
+            } else {
+                retiros += monto;
+            }
+            numTransacciones++;
+            saldoCierre = transaccion.getSaldoPosterior();
+        }
+    }
+}
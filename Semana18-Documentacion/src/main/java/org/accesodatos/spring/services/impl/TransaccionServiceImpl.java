@@ -1,64 +1,217 @@
 package org.accesodatos.spring.services.impl;
 
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import org.accesodatos.spring.dtos.request.create.TransaccionCreateDTO;
+import org.accesodatos.spring.dtos.response.CuentaDTO;
+import org.accesodatos.spring.dtos.response.PaginaDTO;
+import org.accesodatos.spring.dtos.response.ResultadoTransaccionDTO;
 import org.accesodatos.spring.dtos.response.TransaccionDTO;
+import org.accesodatos.spring.exceptions.SaldoInsuficienteException;
 import org.accesodatos.spring.mappers.TransaccionMapper;
 import org.accesodatos.spring.models.Cuenta;
 import org.accesodatos.spring.models.Transaccion;
+import org.accesodatos.spring.outbox.EscritorOutbox;
 import org.accesodatos.spring.repositories.CuentaRepository;
 import org.accesodatos.spring.repositories.TransaccionRepository;
+import org.accesodatos.spring.services.ResumenCuentaService;
 import org.accesodatos.spring.services.TransaccionService;
+import org.accesodatos.spring.services.VistaUsuarioService;
+import org.accesodatos.spring.utils.CursorUtils;
+import org.accesodatos.spring.utils.CursorUtils.PosicionFecha;
+import org.accesodatos.spring.utils.ReintentoUtils;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class TransaccionServiceImpl implements TransaccionService {
+    private static final int TAMANO_MAXIMO_LOTE = 5000;
+    // Límites del historial cuando el cliente no indica rango (TIMESTAMP de PostgreSQL los admite)
+    private static final LocalDateTime FECHA_MINIMA = LocalDateTime.of(1, 1, 1, 0, 0);
+    private static final LocalDateTime FECHA_MAXIMA = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
 
     private final TransaccionRepository transaccionRepository;
     private final CuentaRepository cuentaRepository;
     private final TransaccionMapper transaccionMapper;
+    private final Validator validator;
+    // Las escrituras sobre una cuenta se serializan en su carril y abren la transacción dentro de él
+    private final CarrilesPorCuenta carrilesPorCuenta;
+    private final TransactionTemplate transactionTemplate;
+    private final InvalidacionCacheCuentas invalidacionCacheCuentas;
+    private final ResumenCuentaService resumenCuentaService;
+    private final VistaUsuarioService vistaUsuarioService;
+    private final EscritorOutbox escritorOutbox;
 
     @Override
-    public List<TransaccionDTO> obtenerTransaccionesDeCuenta(Long idCuenta) {
-        Cuenta cuenta = cuentaRepository.findById(idCuenta)
-                .orElseThrow(() -> new NoSuchElementException("Cuenta con id " + idCuenta + " no encontrada"));
+    @Transactional(readOnly = true)
+    public PaginaDTO<TransaccionDTO> obtenerHistorial(Long idCuenta, LocalDateTime desde, LocalDateTime hasta,
+                                                      String cursor, int limite) {
+        PosicionFecha posicion = CursorUtils.decodificarPosicionFecha(cursor);
+        int tamanoPagina = CursorUtils.normalizarLimite(limite);
+        LocalDateTime inicio = desde != null ? desde : FECHA_MINIMA;
+        LocalDateTime fin = hasta != null ? hasta : FECHA_MAXIMA;
+        if (!inicio.isBefore(fin)) {
+            throw new IllegalArgumentException("La fecha 'from' debe ser anterior a 'to'");
+        }
+
+        // Más recientes primero: se leen las anteriores al cursor o, en la primera página, a 'to' (exclusivo)
+        PosicionFecha antesDe = new PosicionFecha(fin, Long.MIN_VALUE);
+        if (posicion != null && posicion.compareTo(antesDe) < 0) {
+            antesDe = posicion;
+        }
+
+        // Se lee una fila de más para saber si existe página siguiente
+        List<TransaccionDTO> transacciones = transaccionRepository.findDtosHistorial(
+                idCuenta, inicio, antesDe.fecha(), antesDe.id(), Limit.of(tamanoPagina + 1));
 
-        return cuenta.getTransacciones().stream()
-                .map(transaccionMapper::toDto)
-                .toList();
+        // Solo se comprueba la cuenta si no hay resultados, para distinguir una cuenta inexistente de un rango vacío
+        if (transacciones.isEmpty() && !cuentaRepository.existsById(idCuenta)) {
+            throw new NoSuchElementException("Cuenta con id " + idCuenta + " no encontrada");
+        }
+        return CursorUtils.paginarConCursor(transacciones, tamanoPagina,
+                t -> CursorUtils.codificar(t.getFecha(), t.getId()), Function.identity());
     }
 
     @Override
-    @Transactional
     public TransaccionDTO crearTransaccion(Long idCuenta, TransaccionCreateDTO dto) {
-        Cuenta cuenta = cuentaRepository.findById(idCuenta)
-                .orElseThrow(() -> new NoSuchElementException("Cuenta con id " + idCuenta + " no encontrada"));
+        return carrilesPorCuenta.ejecutar(idCuenta,
+                () -> transactionTemplate.execute(status -> registrarTransaccion(idCuenta, dto)));
+    }
 
+    @Override
+    public List<ResultadoTransaccionDTO> crearTransaccionesEnLote(Long idCuenta, List<TransaccionCreateDTO> dtos) {
+        if (dtos == null || dtos.isEmpty()) {
+            throw new IllegalArgumentException("El lote de transacciones está vacío");
+        }
+        if (dtos.size() > TAMANO_MAXIMO_LOTE) {
+            throw new IllegalArgumentException("El lote no puede superar las " + TAMANO_MAXIMO_LOTE + " transacciones");
+        }
+        // Los reintentos esperan fuera del carril: cada intento vuelve a ponerse a la cola de la cuenta
+        return ReintentoUtils.conReintentos(() -> carrilesPorCuenta.ejecutar(idCuenta,
+                () -> transactionTemplate.execute(status -> registrarLote(idCuenta, dtos))));
+    }
+
+    private TransaccionDTO registrarTransaccion(Long idCuenta, TransaccionCreateDTO dto) {
         Transaccion transaccion = transaccionMapper.toEntity(dto);
-        transaccion.setCuenta(cuenta);
-        transaccion.setFecha(LocalDateTime.now());
 
-        // Actualizar saldo según tipo de transacción
+        // Importe en céntimos a aplicar al saldo según tipo de transacción
+        long importe;
         if ("Deposito".equalsIgnoreCase(transaccion.getTipoTransaccion())) {
-            cuenta.setSaldo(cuenta.getSaldo() + transaccion.getMonto());
+            importe = transaccion.getMonto();
         } else if ("Retiro".equalsIgnoreCase(transaccion.getTipoTransaccion())) {
-            if (cuenta.getSaldo() < transaccion.getMonto()) {
-                throw new IllegalArgumentException("Saldo insuficiente para el retiro");
-            }
-            cuenta.setSaldo(cuenta.getSaldo() - transaccion.getMonto());
+            importe = -transaccion.getMonto();
         } else {
             throw new IllegalArgumentException("Tipo de transacción no válido");
         }
 
+        // Un único UPDATE condicional: sin cargar la cuenta ni leer el saldo antes de escribirlo.
+        // Devuelve el saldo resultante, que se guarda en la propia transacción
+        Long saldoPosterior = cuentaRepository.aplicarImporte(idCuenta, importe).orElse(null);
+        if (saldoPosterior == null) {
+            if (!cuentaRepository.existsById(idCuenta)) {
+                throw new NoSuchElementException("Cuenta con id " + idCuenta + " no encontrada");
+            }
+            throw new SaldoInsuficienteException("Saldo insuficiente para el retiro");
+        }
+        // El UPDATE nativo no pasa por Hibernate: la cuenta cacheada tendría el saldo anterior
+        invalidacionCacheCuentas.invalidarCuentaTrasCommit(idCuenta);
+
+        transaccion.setCuenta(cuentaRepository.getReferenceById(idCuenta));
+        transaccion.setFecha(LocalDateTime.now());
+        transaccion.setSaldoPosterior(saldoPosterior);
         transaccionRepository.save(transaccion);
-        cuentaRepository.save(cuenta);
+        // Resúmenes diario y mensual, evento del outbox y vista del usuario, en la misma transacción que la inserción.
+        // La vista va la última: su fila es compartida por todas las cuentas del usuario y queda bloqueada hasta el commit
+        resumenCuentaService.acumular(idCuenta, List.of(transaccion));
+        escritorOutbox.registrar(idCuenta, List.of(transaccion));
+        vistaUsuarioService.registrarMovimientos(idCuenta, importe, 1);
 
         return transaccionMapper.toDto(transaccion);
     }
+
+    private List<ResultadoTransaccionDTO> registrarLote(Long idCuenta, List<TransaccionCreateDTO> dtos) {
+        // Sin bloquear la fila: se valida contra el saldo leído y el UPDATE final comprueba que la versión no ha cambiado
+        CuentaDTO cuentaLeida = cuentaRepository.findDtoById(idCuenta)
+                .orElseThrow(() -> new NoSuchElementException("Cuenta con id " + idCuenta + " no encontrada"));
+        long saldo = cuentaLeida.getSaldo();
+        Cuenta cuenta = cuentaRepository.getReferenceById(idCuenta);
+
+        List<ResultadoTransaccionDTO> resultados = new ArrayList<>(dtos.size());
+        List<Transaccion> aceptadas = new ArrayList<>(dtos.size());
+        List<Integer> indicesAceptadas = new ArrayList<>(dtos.size());
+        long importeNeto = 0;
+
+        // Las transacciones se validan en orden contra el saldo acumulado
+        for (int i = 0; i < dtos.size(); i++) {
+            TransaccionCreateDTO dto = dtos.get(i);
+            String error = validar(dto);
+            if (error == null && "Retiro".equalsIgnoreCase(dto.getTipoTransaccion()) && saldo < dto.getMonto()) {
+                error = "Saldo insuficiente para el retiro";
+            }
+            if (error != null) {
+                resultados.add(ResultadoTransaccionDTO.rechazada(i, error));
+                continue;
+            }
+
+            long importe = "Deposito".equalsIgnoreCase(dto.getTipoTransaccion()) ? dto.getMonto() : -dto.getMonto();
+            saldo = Math.addExact(saldo, importe);
+            importeNeto = Math.addExact(importeNeto, importe);
+
+            Transaccion transaccion = transaccionMapper.toEntity(dto);
+            transaccion.setCuenta(cuenta);
+            transaccion.setFecha(LocalDateTime.now());
+            transaccion.setSaldoPosterior(saldo);
+            aceptadas.add(transaccion);
+            indicesAceptadas.add(i);
+            resultados.add(null); // Se completa tras guardar
+        }
+
+        if (!aceptadas.isEmpty()) {
+            // Un único lote de INSERT y un único UPDATE del saldo con el importe neto
+            transaccionRepository.saveAll(aceptadas);
+            if (cuentaRepository.sumarSaldo(idCuenta, importeNeto, cuentaLeida.getVersion()).isEmpty()) {
+                // Se deshace el lote y se reintenta con el saldo actual
+                throw new ObjectOptimisticLockingFailureException(Cuenta.class, idCuenta);
+            }
+            // El UPDATE nativo no pasa por Hibernate: solo se expulsa esta cuenta, no toda la región
+            invalidacionCacheCuentas.invalidarCuentaTrasCommit(idCuenta);
+            resumenCuentaService.acumular(idCuenta, aceptadas);
+            escritorOutbox.registrar(idCuenta, aceptadas);
+            vistaUsuarioService.registrarMovimientos(idCuenta, importeNeto, aceptadas.size());
+        }
+
+        for (int j = 0; j < aceptadas.size(); j++) {
+            int indice = indicesAceptadas.get(j);
+            resultados.set(indice, ResultadoTransaccionDTO.creada(indice, transaccionMapper.toDto(aceptadas.get(j))));
+        }
+        return resultados;
+    }
+
+    // Devuelve los errores de validación del DTO, o null si es válido
+    private String validar(TransaccionCreateDTO dto) {
+        if (dto == null) {
+            return "La transacción no puede ser nula";
+        }
+        Set<ConstraintViolation<TransaccionCreateDTO>> violations = validator.validate(dto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
 }
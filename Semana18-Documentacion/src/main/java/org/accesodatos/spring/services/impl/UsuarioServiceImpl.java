@@ -3,47 +3,74 @@ package org.accesodatos.spring.services.impl;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.ValidationException;
 import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.accesodatos.spring.cache.CacheRespuestas;
 import org.accesodatos.spring.dtos.request.create.UsuarioCreateDTO;
 import org.accesodatos.spring.dtos.request.patch.UsuarioPatchDTO;
 import org.accesodatos.spring.dtos.request.update.UsuarioUpdateDTO;
+import org.accesodatos.spring.dtos.response.CuentaDTO;
+import org.accesodatos.spring.dtos.response.PaginaDTO;
 import org.accesodatos.spring.dtos.response.UsuarioDTO;
+import org.accesodatos.spring.exceptions.VersionNoCoincideException;
 import org.accesodatos.spring.mappers.UsuarioMapper;
 import org.accesodatos.spring.models.Perfil;
 import org.accesodatos.spring.models.Usuario;
+import org.accesodatos.spring.repositories.CuentaRepository;
 import org.accesodatos.spring.repositories.UsuarioRepository;
 import org.accesodatos.spring.services.UsuarioService;
+import org.accesodatos.spring.services.VistaUsuarioService;
+import org.accesodatos.spring.utils.CursorUtils;
+import org.accesodatos.spring.utils.ReintentoUtils;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class UsuarioServiceImpl implements UsuarioService {
     private final UsuarioRepository usuarioRepository;
+    private final CuentaRepository cuentaRepository;
     private final UsuarioMapper usuarioMapper;
     private final ObjectMapper objectMapper;
     private final Validator validator;
+    // Las actualizaciones abren la transacción en cada intento, para poder reintentarlas si hay conflicto de versión
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final CacheRespuestas cacheRespuestas;
+    private final VistaUsuarioService vistaUsuarioService;
 
     @Override
-    public List<UsuarioDTO> obtenerTodosLosUsuarios() {
-        return usuarioRepository.findAll()
-                .stream()
-                .map(usuarioMapper::toDto)
-                .toList();
+    @Transactional(readOnly = true)
+    public PaginaDTO<UsuarioDTO> obtenerUsuariosPaginados(String cursor, int limite) {
+        long despuesDe = CursorUtils.decodificar(cursor);
+        int tamanoPagina = CursorUtils.normalizarLimite(limite);
+
+        // Se lee una fila de más para saber si existe página siguiente
+        List<UsuarioDTO> usuarios = usuarioRepository.findDtosSiguientePagina(despuesDe, Limit.of(tamanoPagina + 1));
+        PaginaDTO<UsuarioDTO> pagina = CursorUtils.paginar(usuarios, tamanoPagina, UsuarioDTO::getId, Function.identity());
+        asignarCuentas(pagina.getContenido());
+        return pagina;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public UsuarioDTO obtenerUsuarioPorId(Long id) {
-        Usuario usuario = usuarioRepository.findById(id)
+        // Usuario, perfil e IDs de sus cuentas se resuelven desde la caché de segundo nivel si están en ella
+        return usuarioRepository.findById(id)
+                .map(usuarioMapper::toDto)
                 .orElseThrow(() -> new NoSuchElementException("Usuario con id " + id + " no encontrado"));
-        return usuarioMapper.toDto(usuario);
     }
 
     @Override
@@ -60,31 +87,31 @@ public class UsuarioServiceImpl implements UsuarioService {
 
         // Persistimos el usuario (automáticamente persistirá el perfil debido a la cascada)
         Usuario usuarioGuardado = usuarioRepository.save(usuario);
+        vistaUsuarioService.actualizar(List.of(usuarioGuardado.getId()));
         return usuarioMapper.toDto(usuarioGuardado);
     }
 
     @Override
-    @Transactional
-    public UsuarioDTO actualizarUsuario(Long id, UsuarioUpdateDTO dto) {
-        Usuario usuarioExistente = usuarioRepository.findById(id)
-                .orElseThrow(() -> new NoSuchElementException("Usuario no encontrado con id: " + id));
+    public UsuarioDTO actualizarUsuario(Long id, UsuarioUpdateDTO dto, Long versionEsperada) {
+        Usuario usuarioActualizado = ReintentoUtils.conReintentos(() -> transactionTemplate.execute(status -> {
+            Usuario usuarioExistente = buscarParaActualizar(id, versionEsperada);
 
-        usuarioMapper.updateEntityFromDto(dto, usuarioExistente);
+            usuarioMapper.updateEntityFromDto(dto, usuarioExistente);
 
-        // Sincronizamos la relación bidireccional
-        usuarioExistente.getPerfil().setUsuario(usuarioExistente);
+            // Sincronizamos la relación bidireccional
+            usuarioExistente.getPerfil().setUsuario(usuarioExistente);
 
-        Usuario usuarioActualizado = usuarioRepository.save(usuarioExistente);
+            Usuario usuarioGuardado = usuarioRepository.save(usuarioExistente);
+            vistaUsuarioService.actualizar(List.of(id));
+            return usuarioGuardado;
+        }));
 
+        // Se convierte tras el commit para que el DTO lleve la versión definitiva
         return usuarioMapper.toDto(usuarioActualizado);
     }
 
     @Override
-    @Transactional
-    public UsuarioDTO actualizarUsuarioParcial(Long id, JsonNode patch) {
-        Usuario usuarioExistente = usuarioRepository.findById(id)
-                .orElseThrow(() -> new NoSuchElementException("Usuario no encontrado con id: " + id));
-
+    public UsuarioDTO actualizarUsuarioParcial(Long id, JsonNode patch, Long versionEsperada) {
         UsuarioPatchDTO usuarioPatchDTO = objectMapper.convertValue(patch, UsuarioPatchDTO.class);
 
         try {
@@ -103,14 +130,20 @@ public class UsuarioServiceImpl implements UsuarioService {
             throw new ConstraintViolationException(errores.toString(), violations);
         }
 
-        // Actualizar la entidad existente con los cambios del DTO PATCH
-        usuarioMapper.updateEntityFromPatchDto(usuarioPatchDTO, usuarioExistente);
+        Usuario usuarioActualizado = ReintentoUtils.conReintentos(() -> transactionTemplate.execute(status -> {
+            Usuario usuarioExistente = buscarParaActualizar(id, versionEsperada);
+
+            // Actualizar la entidad existente con los cambios del DTO PATCH
+            usuarioMapper.updateEntityFromPatchDto(usuarioPatchDTO, usuarioExistente);
 
-        // Sincronizar la relación bidireccional
-        usuarioExistente.getPerfil().setUsuario(usuarioExistente);
+            // Sincronizar la relación bidireccional
+            usuarioExistente.getPerfil().setUsuario(usuarioExistente);
 
-        // Guardar la entidad actualizada
-        Usuario usuarioActualizado = usuarioRepository.save(usuarioExistente);
+            // Guardar la entidad actualizada
+            Usuario usuarioGuardado = usuarioRepository.save(usuarioExistente);
+            vistaUsuarioService.actualizar(List.of(id));
+            return usuarioGuardado;
+        }));
 
         return usuarioMapper.toDto(usuarioActualizado);
     }
@@ -118,7 +151,7 @@ public class UsuarioServiceImpl implements UsuarioService {
     @Override
     @Transactional
     public void eliminarUsuario(Long id) {
-        Usuario usuario = usuarioRepository.findById(id)
+        Usuario usuario = usuarioRepository.findConPerfilYCuentasById(id)
                 .orElseThrow(() -> new IllegalStateException("El usuario con ID " + id + " no existe."));
 
         // Verificamos que NO tiene cuentas asociadas antes de eliminarlo (ON DELETE RESTRICT)
@@ -127,7 +160,36 @@ public class UsuarioServiceImpl implements UsuarioService {
         }
 
         // El perfil asociado se eliminará automáticamente
-        // debido a CascadeType.ALL y orphanRemoval = true
+        // debido a CascadeType.ALL y orphanRemoval = true; su fila de vistas_usuarios, por ON DELETE CASCADE
         usuarioRepository.delete(usuario);
+        cacheRespuestas.invalidarTrasCommit(CacheRespuestas.Tipo.USUARIO, id);
+    }
+
+    // Carga el usuario para modificarlo y comprueba la versión indicada por el cliente
+    private Usuario buscarParaActualizar(Long id, Long versionEsperada) {
+        Usuario usuario = usuarioRepository.findConPerfilYCuentasById(id)
+                .orElseThrow(() -> new NoSuchElementException("Usuario no encontrado con id: " + id));
+        if (versionEsperada != null && !versionEsperada.equals(usuario.getVersion())) {
+            throw new VersionNoCoincideException("El usuario con id " + id + " está en la versión "
+                    + usuario.getVersion() + ", no en la " + versionEsperada);
+        }
+        // La versión se incrementa al confirmar aunque solo cambie el perfil, para que el ETag refleje cualquier cambio
+        entityManager.lock(usuario, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+        cacheRespuestas.invalidarTrasCommit(CacheRespuestas.Tipo.USUARIO, id);
+        return usuario;
+    }
+
+    // Carga los IDs de las cuentas de todos los usuarios con una única consulta
+    private void asignarCuentas(List<UsuarioDTO> usuarios) {
+        if (usuarios.isEmpty()) return;
+
+        List<Long> idsUsuarios = usuarios.stream().map(UsuarioDTO::getId).toList();
+        Map<Long, List<Long>> cuentasPorUsuario = cuentaRepository.findDtosByUsuarioIdIn(idsUsuarios)
+                .stream()
+                .collect(Collectors.groupingBy(CuentaDTO::getIdUsuario,
+                        Collectors.mapping(CuentaDTO::getId, Collectors.toList())));
+
+        usuarios.forEach(usuario -> usuario.setCuentas(
+                cuentasPorUsuario.getOrDefault(usuario.getId(), new ArrayList<>())));
     }
 }
@@ -0,0 +1,149 @@
+package org.accesodatos.spring.services.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.accesodatos.spring.dtos.response.PaginaDTO;
+import org.accesodatos.spring.dtos.response.VistaCuentaDTO;
+import org.accesodatos.spring.dtos.response.VistaUsuarioDTO;
+import org.accesodatos.spring.services.VistaUsuarioService;
+import org.accesodatos.spring.utils.CursorUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * Modelo de lectura de usuarios (ver migraciones/08_vistas_usuarios.sql): una fila por usuario con su perfil
+ * y el resumen de sus cuentas, de modo que la vista general se sirve con una búsqueda por clave primaria.
+ * Los servicios de escritura la recalculan en su misma transacción tras modificar usuarios o cuentas;
+ * las transacciones solo suman su importe y su número a la fila, sin recalcularla.
+ */
+@Service
+@RequiredArgsConstructor
+public class VistaUsuarioServiceImpl implements VistaUsuarioService {
+    private static final TypeReference<List<VistaCuentaDTO>> LISTA_CUENTAS = new TypeReference<>() {
+    };
+    private static final String COLUMNAS = "id_usuario, username, email, fecha_registro, nombre_completo, telefono, " +
+            "direccion, num_cuentas, saldo_total, num_transacciones, cuentas, actualizado";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    @Transactional(readOnly = true)
+    public VistaUsuarioDTO obtenerVista(Long idUsuario) {
+        return jdbcTemplate.query("SELECT " + COLUMNAS + " FROM vistas_usuarios WHERE id_usuario = ?",
+                        this::mapearFila, idUsuario)
+                .stream()
+                .findFirst()
+                .orElseThrow(() -> new NoSuchElementException("Usuario con id " + idUsuario + " no encontrado"));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PaginaDTO<VistaUsuarioDTO> obtenerVistasPaginadas(String cursor, int limite) {
+        long despuesDe = CursorUtils.decodificar(cursor);
+        int tamanoPagina = CursorUtils.normalizarLimite(limite);
+
+        // Se lee una fila de más para saber si existe página siguiente
+        List<VistaUsuarioDTO> vistas = jdbcTemplate.query("SELECT " + COLUMNAS + " FROM vistas_usuarios " +
+                "WHERE id_usuario > ? ORDER BY id_usuario LIMIT ?", this::mapearFila, despuesDe, tamanoPagina + 1);
+        return CursorUtils.paginar(vistas, tamanoPagina, VistaUsuarioDTO::getId, Function.identity());
+    }
+
+    /**
+     * Recalcula la fila de cada usuario a partir de las tablas normalizadas. Participa en la transacción en curso.
+     * Antes se bloquean las filas de los usuarios, para que dos recálculos del mismo usuario se esperen, y sus filas
+     * de la vista: un recálculo espera a que se confirmen los movimientos ya sumados (registrarMovimientos),
+     * y su instantánea los incluye; los movimientos posteriores se suman sobre la fila recalculada.
+     */
+    @Override
+    public void actualizar(Collection<Long> idsUsuarios) {
+        if (idsUsuarios.isEmpty()) return;
+
+        // Los cambios pendientes de Hibernate deben estar en la base de datos antes de leerla con SQL
+        entityManager.flush();
+        Long[] ids = idsUsuarios.toArray(Long[]::new);
+        // Siempre en el mismo orden, para que dos recálculos con varios usuarios no se bloqueen mutuamente
+        jdbcTemplate.queryForList("SELECT id_usuario FROM usuarios WHERE id_usuario = ANY(?) " +
+                "ORDER BY id_usuario FOR NO KEY UPDATE", Long.class, (Object) ids);
+        jdbcTemplate.queryForList("SELECT id_usuario FROM vistas_usuarios WHERE id_usuario = ANY(?) " +
+                "ORDER BY id_usuario FOR UPDATE", Long.class, (Object) ids);
+
+        // El número de transacciones de cada cuenta sale de sus resúmenes mensuales, no de contar transacciones
+        jdbcTemplate.update("""
+                INSERT INTO vistas_usuarios (id_usuario, username, email, fecha_registro, nombre_completo, telefono,
+                                             direccion, num_cuentas, saldo_total, num_transacciones, cuentas, actualizado)
+                SELECT u.id_usuario, u.username, u.email, u.fecha_registro, p.nombre_completo, p.telefono, p.direccion,
+                       COUNT(c.id_cuenta), COALESCE(SUM(c.saldo), 0), COALESCE(SUM(c.num_transacciones), 0),
+                       COALESCE(jsonb_agg(jsonb_build_object('id', c.id_cuenta, 'tipoCuenta', c.tipo_cuenta,
+                                                             'saldo', c.saldo, 'numTransacciones', c.num_transacciones)
+                                          ORDER BY c.id_cuenta) FILTER (WHERE c.id_cuenta IS NOT NULL), '[]'),
+                       now()
+                FROM usuarios u
+                LEFT JOIN perfiles p ON p.id_usuario = u.id_usuario
+                LEFT JOIN LATERAL (
+                    SELECT c.id_cuenta, c.tipo_cuenta, c.saldo,
+                           (SELECT COALESCE(SUM(m.num_transacciones), 0)
+                            FROM resumenes_mensuales m WHERE m.id_cuenta = c.id_cuenta) AS num_transacciones
+                    FROM cuentas c
+                    WHERE c.id_usuario = u.id_usuario) c ON TRUE
+                WHERE u.id_usuario = ANY(?)
+                GROUP BY u.id_usuario, p.id_perfil
+                ON CONFLICT (id_usuario) DO UPDATE SET
+                    username = EXCLUDED.username, email = EXCLUDED.email, fecha_registro = EXCLUDED.fecha_registro,
+                    nombre_completo = EXCLUDED.nombre_completo, telefono = EXCLUDED.telefono,
+                    direccion = EXCLUDED.direccion, num_cuentas = EXCLUDED.num_cuentas,
+                    saldo_total = EXCLUDED.saldo_total, num_transacciones = EXCLUDED.num_transacciones,
+                    cuentas = EXCLUDED.cuentas, actualizado = EXCLUDED.actualizado""", (Object) ids);
+    }
+
+    /**
+     * Suma a la fila del usuario el importe neto y el número de transacciones registradas en una cuenta, en el total
+     * y en la entrada de la cuenta. No bloquea el usuario ni lee los resúmenes: el coste no depende del historial,
+     * y las transacciones sobre otras cuentas del mismo usuario solo se esperan en este UPDATE, hasta el commit.
+     */
+    @Override
+    public void registrarMovimientos(Long idCuenta, long importeNeto, int numTransacciones) {
+        jdbcTemplate.update("""
+                UPDATE vistas_usuarios v
+                SET saldo_total = v.saldo_total + ?,
+                    num_transacciones = v.num_transacciones + ?,
+                    cuentas = COALESCE((SELECT jsonb_agg(CASE WHEN (e ->> 'id')::BIGINT = ?
+                                                              THEN e || jsonb_build_object(
+                                                                  'saldo', (e ->> 'saldo')::BIGINT + ?,
+                                                                  'numTransacciones', (e ->> 'numTransacciones')::BIGINT + ?)
+                                                              ELSE e END ORDER BY a.posicion)
+                                        FROM jsonb_array_elements(v.cuentas) WITH ORDINALITY a(e, posicion)), '[]'),
+                    actualizado = now()
+                WHERE v.id_usuario = (SELECT id_usuario FROM cuentas WHERE id_cuenta = ?)""",
+                importeNeto, numTransacciones, idCuenta, importeNeto, numTransacciones, idCuenta);
+    }
+
+    private VistaUsuarioDTO mapearFila(ResultSet rs, int fila) throws SQLException {
+        List<VistaCuentaDTO> cuentas;
+        try {
+            cuentas = objectMapper.readValue(rs.getString("cuentas"), LISTA_CUENTAS);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cuentas mal formadas en la vista del usuario " + rs.getLong("id_usuario"), e);
+        }
+        return new VistaUsuarioDTO(rs.getLong("id_usuario"), rs.getString("username"), rs.getString("email"),
+                rs.getObject("fecha_registro", LocalDate.class), rs.getString("nombre_completo"),
+                rs.getString("telefono"), rs.getString("direccion"), rs.getInt("num_cuentas"),
+                rs.getLong("saldo_total"), rs.getLong("num_transacciones"), cuentas,
+                rs.getObject("actualizado", LocalDateTime.class));
+    }
+}
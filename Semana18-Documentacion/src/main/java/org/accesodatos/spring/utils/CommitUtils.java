@@ -0,0 +1,27 @@
+package org.accesodatos.spring.utils;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Utilidades para ejecutar acciones cuando la transacción en curso se confirma.
+ */
+public final class CommitUtils {
+
+    private CommitUtils() {
+    }
+
+    // Sin transacción activa la acción se ejecuta en el momento
+    public static void trasCommit(Runnable accion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accion.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accion.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,95 @@
+package org.accesodatos.spring.utils;
+
+import org.accesodatos.spring.dtos.response.PaginaDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Utilidades para la paginación por cursor (keyset).
+ * El cursor es el último ID devuelto codificado en Base64, de modo que el cliente lo trata como un valor opaco.
+ * Los listados ordenados por fecha usan un cursor compuesto (fecha e ID del último elemento).
+ */
+public final class CursorUtils {
+    public static final String CABECERA_SIGUIENTE_CURSOR = "X-Next-Cursor";
+    public static final int LIMITE_POR_DEFECTO = 50;
+    public static final int LIMITE_MAXIMO = 500;
+
+    private CursorUtils() {
+    }
+
+    // Posición de un listado ordenado por fecha; el ID desempata los elementos con la misma fecha
+    public record PosicionFecha(LocalDateTime fecha, long id) implements Comparable<PosicionFecha> {
+        @Override
+        public int compareTo(PosicionFecha otra) {
+            int porFecha = fecha.compareTo(otra.fecha);
+            return porFecha != 0 ? porFecha : Long.compare(id, otra.id);
+        }
+    }
+
+    public static String codificar(Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(id.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static long decodificar(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            return Long.parseLong(valor);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor de paginación no válido: " + cursor);
+        }
+    }
+
+    public static String codificar(LocalDateTime fecha, Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((fecha + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Devuelve null si no hay cursor (primera página)
+    public static PosicionFecha decodificarPosicionFecha(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = valor.indexOf('|');
+            return new PosicionFecha(LocalDateTime.parse(valor.substring(0, separador)),
+                    Long.parseLong(valor.substring(separador + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Cursor de paginación no válido: " + cursor);
+        }
+    }
+
+    public static int normalizarLimite(int limite) {
+        if (limite < 1) {
+            throw new IllegalArgumentException("El límite debe ser mayor que 0");
+        }
+        return Math.min(limite, LIMITE_MAXIMO);
+    }
+
+    /**
+     * Construye la página a partir de las filas leídas. Se espera que el repositorio haya leído limite + 1 filas:
+     * si existe esa fila extra, hay página siguiente y el cursor apunta al último elemento devuelto.
+     */
+    public static <E, T> PaginaDTO<T> paginar(List<E> filas, int limite, Function<E, Long> id, Function<E, T> mapper) {
+        return paginarConCursor(filas, limite, fila -> codificar(id.apply(fila)), mapper);
+    }
+
+    // Igual que paginar, pero con el cursor calculado a partir del último elemento (p. ej. un cursor compuesto)
+    public static <E, T> PaginaDTO<T> paginarConCursor(List<E> filas, int limite, Function<E, String> cursor, Function<E, T> mapper) {
+        boolean hayMas = filas.size() > limite;
+        List<E> pagina = hayMas ? filas.subList(0, limite) : filas;
+
+        List<T> contenido = pagina.stream().map(mapper).toList();
+        String siguienteCursor = hayMas ? cursor.apply(pagina.getLast()) : null;
+        return new PaginaDTO<>(contenido, siguienteCursor);
+    }
+}
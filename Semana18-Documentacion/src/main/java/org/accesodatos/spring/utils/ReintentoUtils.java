@@ -0,0 +1,44 @@
+package org.accesodatos.spring.utils;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Reintentos acotados para conflictos de concurrencia optimista.
+ * La operación debe abrir su propia transacción, para que cada intento vuelva a leer los datos.
+ * La espera entre intentos duerme el hilo que llama: no debe hacerse dentro de un carril de CarrilesPorCuenta,
+ * donde retendría uno de sus hilos y a la cola de la cuenta.
+ */
+public final class ReintentoUtils {
+    public static final int MAXIMO_INTENTOS = 3;
+    private static final long ESPERA_BASE_MS = 10;
+
+    private ReintentoUtils() {
+    }
+
+    public static <T> T conReintentos(Supplier<T> operacion) {
+        for (int intento = 1; ; intento++) {
+            try {
+                return operacion.get();
+            } catch (OptimisticLockingFailureException e) {
+                if (intento >= MAXIMO_INTENTOS) {
+                    throw e;
+                }
+                esperar(intento);
+            }
+        }
+    }
+
+    // Espera aleatoria y creciente (20 ms, 40 ms...) para que los escritores en conflicto no vuelvan a coincidir
+    private static void esperar(int intento) {
+        long maximo = ESPERA_BASE_MS << intento;
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(maximo / 2, maximo + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido mientras se esperaba para reintentar", e);
+        }
+    }
+}
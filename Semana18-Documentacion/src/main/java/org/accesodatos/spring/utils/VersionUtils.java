@@ -0,0 +1,33 @@
+package org.accesodatos.spring.utils;
+
+/**
+ * Utilidades para exponer la versión (@Version) de una entidad como ETag y leerla de la cabecera If-Match.
+ */
+public final class VersionUtils {
+
+    private VersionUtils() {
+    }
+
+    public static String etag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    // Devuelve null si no hay condición (cabecera ausente o "*")
+    public static Long versionDesdeIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String valor = ifMatch.trim();
+        if (valor.startsWith("W/")) {
+            valor = valor.substring(2);
+        }
+        if (valor.length() >= 2 && valor.startsWith("\"") && valor.endsWith("\"")) {
+            valor = valor.substring(1, valor.length() - 1);
+        }
+        try {
+            return Long.parseLong(valor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cabecera If-Match no válida: " + ifMatch);
+        }
+    }
+}
@@ -9,6 +9,10 @@ WHERE NOT EXISTS (SELECT FROM pg_database WHERE datname = 'banco')\gexec
     \c banco;
 
 -- Borrar tablas si existen (en orden de dependencias)
+DROP TABLE IF EXISTS outbox_transacciones;
+DROP TABLE IF EXISTS vistas_usuarios;
+DROP TABLE IF EXISTS resumenes_diarios;
+DROP TABLE IF EXISTS resumenes_mensuales;
 DROP TABLE IF EXISTS transacciones;
 DROP TABLE IF EXISTS cuentas;
 DROP TABLE IF EXISTS perfiles;
@@ -20,7 +24,8 @@ CREATE TABLE IF NOT EXISTS usuarios (
                                         username VARCHAR(50) NOT NULL UNIQUE,
                                         password VARCHAR(50) NOT NULL,
                                         email VARCHAR(100) NOT NULL UNIQUE,
-                                        fecha_registro DATE NOT NULL DEFAULT CURRENT_DATE
+                                        fecha_registro DATE NOT NULL DEFAULT CURRENT_DATE,
+                                        version BIGINT NOT NULL DEFAULT 0
 );
 
 -- Crear tabla perfiles
@@ -40,17 +45,90 @@ CREATE TABLE IF NOT EXISTS cuentas (
                                        saldo DECIMAL(10, 2) DEFAULT 0.00 CHECK (saldo >= 0.00),
                                        fecha_creacion TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
                                        tipo_cuenta VARCHAR(20) NOT NULL CHECK (tipo_cuenta IN ('Ahorros', 'Corriente')),
+                                       version BIGINT NOT NULL DEFAULT 0,
+                                       saldo_inicial BIGINT NOT NULL DEFAULT 0,
                                        FOREIGN KEY (id_usuario) REFERENCES usuarios(id_usuario) ON DELETE RESTRICT
 );
 
--- Crear tabla transacciones
+-- Crear tabla transacciones, particionada por mes (ver migraciones/05_particionado_transacciones.sql)
 CREATE TABLE IF NOT EXISTS transacciones (
-                                             id_transaccion SERIAL PRIMARY KEY,
+                                             id_transaccion SERIAL,
                                              id_cuenta INT NOT NULL,
                                              monto DECIMAL(10, 2) NOT NULL,
                                              fecha TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
                                              tipo_transaccion VARCHAR(20) NOT NULL CHECK (tipo_transaccion IN ('Deposito', 'Retiro')),
+                                             saldo_posterior BIGINT,
+                                             PRIMARY KEY (id_transaccion, fecha),
                                              FOREIGN KEY (id_cuenta) REFERENCES cuentas(id_cuenta) ON DELETE CASCADE
+) PARTITION BY RANGE (fecha);
+
+-- Historial por cuenta y fecha (ver migraciones/04_indice_historial_transacciones.sql y 06_saldo_posterior.sql)
+CREATE INDEX IF NOT EXISTS idx_transacciones_cuenta_fecha ON transacciones (id_cuenta, fecha, id_transaccion)
+    INCLUDE (monto, tipo_transaccion, saldo_posterior);
+
+-- Particiones desde el mes de los datos de ejemplo hasta tres meses después del actual;
+-- las siguientes las crea la aplicación (MantenimientoParticiones)
+DO $$
+DECLARE
+    mes DATE := DATE '2024-01-01';
+BEGIN
+    WHILE mes <= date_trunc('month', now()) + INTERVAL '3 months' LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF transacciones FOR VALUES FROM (%L) TO (%L)',
+                       'transacciones_' || to_char(mes, 'YYYY_MM'), mes, mes + INTERVAL '1 month');
+        mes := mes + INTERVAL '1 month';
+    END LOOP;
+END $$;
+
+-- Resúmenes diarios y mensuales por cuenta, en céntimos (ver migraciones/07_resumenes_cuentas.sql)
+CREATE TABLE IF NOT EXISTS resumenes_diarios (
+                                                 id_cuenta INT NOT NULL REFERENCES cuentas(id_cuenta) ON DELETE CASCADE,
+                                                 periodo DATE NOT NULL,
+                                                 total_depositos BIGINT NOT NULL DEFAULT 0,
+                                                 total_retiros BIGINT NOT NULL DEFAULT 0,
+                                                 num_transacciones INT NOT NULL DEFAULT 0,
+                                                 saldo_cierre BIGINT NOT NULL,
+                                                 PRIMARY KEY (id_cuenta, periodo)
+);
+
+CREATE TABLE IF NOT EXISTS resumenes_mensuales (
+                                                   id_cuenta INT NOT NULL REFERENCES cuentas(id_cuenta) ON DELETE CASCADE,
+                                                   periodo DATE NOT NULL CHECK (EXTRACT(DAY FROM periodo) = 1),
+                                                   total_depositos BIGINT NOT NULL DEFAULT 0,
+                                                   total_retiros BIGINT NOT NULL DEFAULT 0,
+                                                   num_transacciones INT NOT NULL DEFAULT 0,
+                                                   saldo_cierre BIGINT NOT NULL,
+                                                   PRIMARY KEY (id_cuenta, periodo)
+);
+
+-- Cuentas por usuario (ver migraciones/08_vistas_usuarios.sql)
+CREATE INDEX IF NOT EXISTS idx_cuentas_usuario ON cuentas (id_usuario);
+
+-- Modelo de lectura de usuarios; importes en céntimos (ver migraciones/08_vistas_usuarios.sql)
+CREATE TABLE IF NOT EXISTS vistas_usuarios (
+                                               id_usuario INT PRIMARY KEY REFERENCES usuarios(id_usuario) ON DELETE CASCADE,
+                                               username VARCHAR(50) NOT NULL,
+                                               email VARCHAR(100) NOT NULL,
+                                               fecha_registro DATE NOT NULL,
+                                               nombre_completo VARCHAR(100),
+                                               telefono VARCHAR(15),
+                                               direccion TEXT,
+                                               num_cuentas INT NOT NULL DEFAULT 0,
+                                               saldo_total BIGINT NOT NULL DEFAULT 0,
+                                               num_transacciones BIGINT NOT NULL DEFAULT 0,
+                                               cuentas JSONB NOT NULL DEFAULT '[]',
+                                               actualizado TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Eventos de transacciones pendientes de publicar; importes en céntimos (ver migraciones/09_outbox_transacciones.sql)
+CREATE TABLE IF NOT EXISTS outbox_transacciones (
+                                                    id_evento BIGSERIAL PRIMARY KEY,
+                                                    id_transaccion BIGINT NOT NULL,
+                                                    id_cuenta INT NOT NULL,
+                                                    tipo_transaccion VARCHAR(20) NOT NULL,
+                                                    monto BIGINT NOT NULL,
+                                                    saldo_posterior BIGINT NOT NULL,
+                                                    fecha TIMESTAMP NOT NULL,
+                                                    registrado TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
 );
 
 
@@ -112,4 +190,71 @@ INSERT INTO transacciones (id_cuenta, monto, tipo_transaccion, fecha) VALUES
                                                                           (10, 400.00, 'Deposito', '2024-04-03 12:30:00'),
                                                                           (10, -50.00, 'Retiro', '2024-04-04 15:45:00'),
                                                                           (11, 1000.00, 'Deposito', '2024-05-01 10:20:00'),
-                                                                          (11, -200.00, 'Retiro', '2024-05-02 11:35:00');
\ No newline at end of file
+                                                                          (11, -200.00, 'Retiro', '2024-05-02 11:35:00');
+
+-- Secuencias con incremento 50 para el optimizador pooled-lo de Hibernate (ver migraciones/01_secuencias_pooled.sql).
+-- Se aplica después de los datos de ejemplo para que sus IDs sigan siendo consecutivos.
+ALTER SEQUENCE usuarios_id_usuario_seq INCREMENT BY 50;
+ALTER SEQUENCE cuentas_id_cuenta_seq INCREMENT BY 50;
+ALTER SEQUENCE transacciones_id_transaccion_seq INCREMENT BY 50;
+
+-- Importes en céntimos (ver migraciones/03_importes_en_centimos.sql).
+-- Los datos de ejemplo se escriben en euros y se convierten al final.
+ALTER TABLE cuentas ALTER COLUMN saldo DROP DEFAULT;
+ALTER TABLE cuentas ALTER COLUMN saldo TYPE BIGINT USING ROUND(saldo * 100)::BIGINT;
+ALTER TABLE cuentas ALTER COLUMN saldo SET DEFAULT 0;
+ALTER TABLE cuentas ALTER COLUMN saldo SET NOT NULL;
+ALTER TABLE transacciones ALTER COLUMN monto TYPE BIGINT USING ROUND(monto * 100)::BIGINT;
+
+-- Saldo posterior de los datos de ejemplo (ver migraciones/06_saldo_posterior.sql)
+UPDATE transacciones t
+SET saldo_posterior = s.saldo_posterior
+FROM (SELECT r.id_transaccion, r.fecha,
+             c.saldo - COALESCE(SUM(CASE WHEN r.tipo_transaccion = 'Deposito' THEN ABS(r.monto) ELSE -ABS(r.monto) END)
+                 OVER (PARTITION BY r.id_cuenta ORDER BY r.fecha DESC, r.id_transaccion DESC
+                       ROWS BETWEEN UNBOUNDED PRECEDING AND 1 PRECEDING), 0) AS saldo_posterior
+      FROM transacciones r
+      JOIN cuentas c ON c.id_cuenta = r.id_cuenta) s
+WHERE t.id_transaccion = s.id_transaccion AND t.fecha = s.fecha;
+
+-- Saldo de apertura de los datos de ejemplo (ver migraciones/10_saldo_inicial.sql)
+UPDATE cuentas c
+SET saldo_inicial = c.saldo - COALESCE((SELECT SUM(CASE WHEN t.tipo_transaccion = 'Deposito' THEN ABS(t.monto) ELSE -ABS(t.monto) END)
+                                        FROM transacciones t
+                                        WHERE t.id_cuenta = c.id_cuenta), 0);
+
+-- Resúmenes de los datos de ejemplo (ver migraciones/07_resumenes_cuentas.sql)
+INSERT INTO resumenes_diarios (id_cuenta, periodo, total_depositos, total_retiros, num_transacciones, saldo_cierre)
+SELECT id_cuenta, fecha::DATE,
+       SUM(CASE WHEN tipo_transaccion = 'Deposito' THEN ABS(monto) ELSE 0 END),
+       SUM(CASE WHEN tipo_transaccion = 'Deposito' THEN 0 ELSE ABS(monto) END),
+       COUNT(*),
+       (ARRAY_AGG(saldo_posterior ORDER BY fecha DESC, id_transaccion DESC))[1]
+FROM transacciones
+GROUP BY id_cuenta, fecha::DATE;
+
+INSERT INTO resumenes_mensuales (id_cuenta, periodo, total_depositos, total_retiros, num_transacciones, saldo_cierre)
+SELECT id_cuenta, date_trunc('month', periodo)::DATE,
+       SUM(total_depositos), SUM(total_retiros), SUM(num_transacciones),
+       (ARRAY_AGG(saldo_cierre ORDER BY periodo DESC))[1]
+FROM resumenes_diarios
+GROUP BY id_cuenta, date_trunc('month', periodo);
+
+-- Vista general de los usuarios de ejemplo (ver migraciones/08_vistas_usuarios.sql)
+INSERT INTO vistas_usuarios (id_usuario, username, email, fecha_registro, nombre_completo, telefono,
+                             direccion, num_cuentas, saldo_total, num_transacciones, cuentas, actualizado)
+SELECT u.id_usuario, u.username, u.email, u.fecha_registro, p.nombre_completo, p.telefono, p.direccion,
+       COUNT(c.id_cuenta), COALESCE(SUM(c.saldo), 0), COALESCE(SUM(c.num_transacciones), 0),
+       COALESCE(jsonb_agg(jsonb_build_object('id', c.id_cuenta, 'tipoCuenta', c.tipo_cuenta,
+                                             'saldo', c.saldo, 'numTransacciones', c.num_transacciones)
+                          ORDER BY c.id_cuenta) FILTER (WHERE c.id_cuenta IS NOT NULL), '[]'),
+       now()
+FROM usuarios u
+LEFT JOIN perfiles p ON p.id_usuario = u.id_usuario
+LEFT JOIN LATERAL (
+    SELECT c.id_cuenta, c.tipo_cuenta, c.saldo,
+           (SELECT COALESCE(SUM(m.num_transacciones), 0)
+            FROM resumenes_mensuales m WHERE m.id_cuenta = c.id_cuenta) AS num_transacciones
+    FROM cuentas c
+    WHERE c.id_usuario = u.id_usuario) c ON TRUE
+GROUP BY u.id_usuario, p.id_perfil;
@@ -0,0 +1,13 @@
+-- Migración de las columnas SERIAL a secuencias con incremento 50 (optimizador pooled-lo de Hibernate).
+-- Cada nextval reserva un bloque de 50 IDs, por lo que Hibernate solo consulta la secuencia una vez por bloque
+-- y puede agrupar los INSERT en lotes JDBC. Los INSERT hechos desde SQL siguen funcionando con el DEFAULT.
+-- La tabla perfiles no se modifica: su ID en la aplicación es el del usuario (@MapsId).
+
+-- Se ajusta cada secuencia al máximo ID existente para que el siguiente bloque empiece justo después
+SELECT setval('usuarios_id_usuario_seq', (SELECT COALESCE(MAX(id_usuario), 0) + 1 FROM usuarios), false);
+SELECT setval('cuentas_id_cuenta_seq', (SELECT COALESCE(MAX(id_cuenta), 0) + 1 FROM cuentas), false);
+SELECT setval('transacciones_id_transaccion_seq', (SELECT COALESCE(MAX(id_transaccion), 0) + 1 FROM transacciones), false);
+
+ALTER SEQUENCE usuarios_id_usuario_seq INCREMENT BY 50;
+ALTER SEQUENCE cuentas_id_cuenta_seq INCREMENT BY 50;
+ALTER SEQUENCE transacciones_id_transaccion_seq INCREMENT BY 50;
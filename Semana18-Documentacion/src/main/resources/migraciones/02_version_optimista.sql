@@ -0,0 +1,6 @@
+-- Columna de versión para el control de concurrencia optimista (@Version) de usuarios y cuentas.
+-- La API la expone como ETag y la compara con If-Match en PUT/PATCH.
+-- Los UPDATE directos del saldo (movimientos, lotes e importaciones) la incrementan también.
+
+ALTER TABLE usuarios ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE cuentas ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
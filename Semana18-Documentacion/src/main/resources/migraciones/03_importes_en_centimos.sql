@@ -0,0 +1,13 @@
+-- Los importes pasan de DECIMAL(10, 2) en euros a BIGINT en céntimos.
+-- La aplicación trabaja con long: la aritmética es exacta, sin boxing ni conversiones a BigDecimal en el driver,
+-- y las filas y los índices ocupan menos. La API sigue expresando los importes en euros con dos decimales.
+
+ALTER TABLE cuentas ALTER COLUMN saldo DROP DEFAULT;
+ALTER TABLE cuentas ALTER COLUMN saldo TYPE BIGINT USING ROUND(saldo * 100)::BIGINT;
+ALTER TABLE cuentas ALTER COLUMN saldo SET DEFAULT 0;
+ALTER TABLE cuentas ALTER COLUMN saldo SET NOT NULL;
+
+ALTER TABLE transacciones ALTER COLUMN monto TYPE BIGINT USING ROUND(monto * 100)::BIGINT;
+
+COMMENT ON COLUMN cuentas.saldo IS 'Saldo en céntimos';
+COMMENT ON COLUMN transacciones.monto IS 'Importe en céntimos';
@@ -0,0 +1,7 @@
+-- Índice del historial de transacciones por cuenta (GET /api/cuentas/{id}/transacciones).
+-- La consulta filtra por cuenta y rango de fechas y continúa desde el cursor (fecha, id_transaccion):
+-- PostgreSQL recorre el índice hacia atrás desde esa posición y lee solo las filas de la página.
+-- Sirve también para las búsquedas por id_cuenta sola (clave foránea y borrado en cascada), que no tenían índice.
+
+CREATE INDEX IF NOT EXISTS idx_transacciones_cuenta_fecha
+    ON transacciones (id_cuenta, fecha, id_transaccion);
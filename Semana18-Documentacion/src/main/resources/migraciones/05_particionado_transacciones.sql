@@ -0,0 +1,54 @@
+-- La tabla transacciones pasa a estar particionada por rango de fecha, con una partición por mes.
+-- Las consultas con rango de fechas solo leen las particiones afectadas, VACUUM y las reconstrucciones de índices
+-- trabajan partición a partición, y un mes antiguo se retira con DETACH PARTITION (solo cambia el catálogo).
+-- Las inserciones siguen haciéndose sobre transacciones: PostgreSQL envía cada fila a su partición.
+--
+-- En una tabla particionada la clave primaria debe incluir la columna de partición: (id_transaccion, fecha).
+-- Las particiones de los meses siguientes las crea la aplicación (MantenimientoParticiones).
+
+BEGIN;
+
+ALTER TABLE transacciones RENAME TO transacciones_sin_particionar;
+ALTER INDEX IF EXISTS idx_transacciones_cuenta_fecha RENAME TO idx_transacciones_sin_particionar_cuenta_fecha;
+-- La secuencia pertenecía a la columna SERIAL: se desvincula para que no se borre con la tabla antigua
+ALTER SEQUENCE transacciones_id_transaccion_seq OWNED BY NONE;
+
+CREATE TABLE transacciones (
+    id_transaccion INT NOT NULL DEFAULT nextval('transacciones_id_transaccion_seq'),
+    id_cuenta INT NOT NULL,
+    monto BIGINT NOT NULL,
+    fecha TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    tipo_transaccion VARCHAR(20) NOT NULL CHECK (tipo_transaccion IN ('Deposito', 'Retiro')),
+    PRIMARY KEY (id_transaccion, fecha),
+    FOREIGN KEY (id_cuenta) REFERENCES cuentas(id_cuenta) ON DELETE CASCADE
+) PARTITION BY RANGE (fecha);
+
+COMMENT ON COLUMN transacciones.monto IS 'Importe en céntimos';
+
+-- Se crea en cada partición, actual y futura
+CREATE INDEX idx_transacciones_cuenta_fecha ON transacciones (id_cuenta, fecha, id_transaccion);
+
+-- Una partición por cada mes con datos y por los tres siguientes al actual
+DO $$
+DECLARE
+    mes DATE;
+    ultimo DATE := date_trunc('month', now()) + INTERVAL '3 months';
+BEGIN
+    SELECT COALESCE(date_trunc('month', MIN(fecha)), date_trunc('month', now()))
+    INTO mes FROM transacciones_sin_particionar;
+    WHILE mes <= ultimo LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF transacciones FOR VALUES FROM (%L) TO (%L)',
+                       'transacciones_' || to_char(mes, 'YYYY_MM'), mes, mes + INTERVAL '1 month');
+        mes := mes + INTERVAL '1 month';
+    END LOOP;
+END $$;
+
+INSERT INTO transacciones (id_transaccion, id_cuenta, monto, fecha, tipo_transaccion)
+SELECT id_transaccion, id_cuenta, monto, fecha, tipo_transaccion FROM transacciones_sin_particionar;
+
+DROP TABLE transacciones_sin_particionar;
+ALTER SEQUENCE transacciones_id_transaccion_seq OWNED BY transacciones.id_transaccion;
+
+COMMIT;
+
+ANALYZE transacciones;
@@ -0,0 +1,31 @@
+-- Saldo de la cuenta tras cada transacción (saldo_posterior, en céntimos).
+-- La aplicación lo escribe al registrar cada transacción con el saldo que devuelve el UPDATE de la cuenta,
+-- así el historial lo devuelve sin sumar las transacciones anteriores en cada petición.
+--
+-- Para las transacciones existentes se calcula hacia atrás desde el saldo actual de la cuenta:
+-- saldo_posterior = saldo actual - importe neto de las transacciones posteriores (por fecha e id).
+-- El índice del historial se amplía con INCLUDE para que las páginas se lean solo del índice.
+
+BEGIN;
+
+ALTER TABLE transacciones ADD COLUMN IF NOT EXISTS saldo_posterior BIGINT;
+
+UPDATE transacciones t
+SET saldo_posterior = s.saldo_posterior
+FROM (SELECT r.id_transaccion, r.fecha,
+             c.saldo - COALESCE(SUM(CASE WHEN r.tipo_transaccion = 'Deposito' THEN ABS(r.monto) ELSE -ABS(r.monto) END)
+                 OVER (PARTITION BY r.id_cuenta ORDER BY r.fecha DESC, r.id_transaccion DESC
+                       ROWS BETWEEN UNBOUNDED PRECEDING AND 1 PRECEDING), 0) AS saldo_posterior
+      FROM transacciones r
+      JOIN cuentas c ON c.id_cuenta = r.id_cuenta) s
+WHERE t.id_transaccion = s.id_transaccion AND t.fecha = s.fecha;
+
+COMMENT ON COLUMN transacciones.saldo_posterior IS 'Saldo de la cuenta tras la transacción, en céntimos';
+
+DROP INDEX IF EXISTS idx_transacciones_cuenta_fecha;
+CREATE INDEX idx_transacciones_cuenta_fecha
+    ON transacciones (id_cuenta, fecha, id_transaccion) INCLUDE (monto, tipo_transaccion, saldo_posterior);
+
+COMMIT;
+
+VACUUM ANALYZE transacciones;
@@ -0,0 +1,51 @@
+-- Resúmenes por cuenta y periodo: totales de depósitos y retiros, número de transacciones y saldo de cierre.
+-- La aplicación los actualiza en la misma transacción que cada inserción (ResumenCuentaServiceImpl),
+-- y GET /api/cuentas/{id}/resumen lee una fila por día o por mes en lugar de agrupar todas las transacciones.
+-- periodo es el propio día en resumenes_diarios y el primer día del mes en resumenes_mensuales.
+-- Importes en céntimos; los retiros se guardan en positivo.
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS resumenes_diarios (
+    id_cuenta INT NOT NULL REFERENCES cuentas(id_cuenta) ON DELETE CASCADE,
+    periodo DATE NOT NULL,
+    total_depositos BIGINT NOT NULL DEFAULT 0,
+    total_retiros BIGINT NOT NULL DEFAULT 0,
+    num_transacciones INT NOT NULL DEFAULT 0,
+    saldo_cierre BIGINT NOT NULL,
+    PRIMARY KEY (id_cuenta, periodo)
+);
+
+CREATE TABLE IF NOT EXISTS resumenes_mensuales (
+    id_cuenta INT NOT NULL REFERENCES cuentas(id_cuenta) ON DELETE CASCADE,
+    periodo DATE NOT NULL CHECK (EXTRACT(DAY FROM periodo) = 1),
+    total_depositos BIGINT NOT NULL DEFAULT 0,
+    total_retiros BIGINT NOT NULL DEFAULT 0,
+    num_transacciones INT NOT NULL DEFAULT 0,
+    saldo_cierre BIGINT NOT NULL,
+    PRIMARY KEY (id_cuenta, periodo)
+);
+
+-- Carga inicial a partir de las transacciones existentes (requiere saldo_posterior, migración 06)
+TRUNCATE resumenes_diarios, resumenes_mensuales;
+
+INSERT INTO resumenes_diarios (id_cuenta, periodo, total_depositos, total_retiros, num_transacciones, saldo_cierre)
+SELECT id_cuenta, fecha::DATE,
+       SUM(CASE WHEN tipo_transaccion = 'Deposito' THEN ABS(monto) ELSE 0 END),
+       SUM(CASE WHEN tipo_transaccion = 'Deposito' THEN 0 ELSE ABS(monto) END),
+       COUNT(*),
+       (ARRAY_AGG(saldo_posterior ORDER BY fecha DESC, id_transaccion DESC))[1]
+FROM transacciones
+GROUP BY id_cuenta, fecha::DATE;
+
+INSERT INTO resumenes_mensuales (id_cuenta, periodo, total_depositos, total_retiros, num_transacciones, saldo_cierre)
+SELECT id_cuenta, date_trunc('month', periodo)::DATE,
+       SUM(total_depositos), SUM(total_retiros), SUM(num_transacciones),
+       (ARRAY_AGG(saldo_cierre ORDER BY periodo DESC))[1]
+FROM resumenes_diarios
+GROUP BY id_cuenta, date_trunc('month', periodo);
+
+COMMIT;
+
+ANALYZE resumenes_diarios;
+ANALYZE resumenes_mensuales;
@@ -0,0 +1,51 @@
+-- Modelo de lectura de usuarios: una fila por usuario con los campos de su perfil y el resumen de sus cuentas
+-- (IDs, tipo, saldo y número de transacciones de cada una, más los totales). GET /api/vistas/usuarios/{id}
+-- es una búsqueda por clave primaria, sin recorrer usuario.getCuentas() ni cargar transacciones.
+-- Los servicios de escritura recalculan la fila en su misma transacción (VistaUsuarioServiceImpl).
+-- Las cuentas se guardan en JSONB: [{"id": 1, "tipoCuenta": "Corriente", "saldo": 100000, "numTransacciones": 2}]
+-- Importes en céntimos. Requiere resumenes_mensuales (migración 07) para el número de transacciones.
+
+BEGIN;
+
+-- Búsqueda de las cuentas de un usuario, que no tenía índice (también la usa GET /api/cuentas/usuario/{id})
+CREATE INDEX IF NOT EXISTS idx_cuentas_usuario ON cuentas (id_usuario);
+
+CREATE TABLE IF NOT EXISTS vistas_usuarios (
+    id_usuario INT PRIMARY KEY REFERENCES usuarios(id_usuario) ON DELETE CASCADE,
+    username VARCHAR(50) NOT NULL,
+    email VARCHAR(100) NOT NULL,
+    fecha_registro DATE NOT NULL,
+    nombre_completo VARCHAR(100),
+    telefono VARCHAR(15),
+    direccion TEXT,
+    num_cuentas INT NOT NULL DEFAULT 0,
+    saldo_total BIGINT NOT NULL DEFAULT 0,
+    num_transacciones BIGINT NOT NULL DEFAULT 0,
+    cuentas JSONB NOT NULL DEFAULT '[]',
+    actualizado TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Carga inicial; la misma consulta que usa la aplicación, para todos los usuarios
+TRUNCATE vistas_usuarios;
+
+INSERT INTO vistas_usuarios (id_usuario, username, email, fecha_registro, nombre_completo, telefono,
+                             direccion, num_cuentas, saldo_total, num_transacciones, cuentas, actualizado)
+SELECT u.id_usuario, u.username, u.email, u.fecha_registro, p.nombre_completo, p.telefono, p.direccion,
+       COUNT(c.id_cuenta), COALESCE(SUM(c.saldo), 0), COALESCE(SUM(c.num_transacciones), 0),
+       COALESCE(jsonb_agg(jsonb_build_object('id', c.id_cuenta, 'tipoCuenta', c.tipo_cuenta,
+                                             'saldo', c.saldo, 'numTransacciones', c.num_transacciones)
+                          ORDER BY c.id_cuenta) FILTER (WHERE c.id_cuenta IS NOT NULL), '[]'),
+       now()
+FROM usuarios u
+LEFT JOIN perfiles p ON p.id_usuario = u.id_usuario
+LEFT JOIN LATERAL (
+    SELECT c.id_cuenta, c.tipo_cuenta, c.saldo,
+           (SELECT COALESCE(SUM(m.num_transacciones), 0)
+            FROM resumenes_mensuales m WHERE m.id_cuenta = c.id_cuenta) AS num_transacciones
+    FROM cuentas c
+    WHERE c.id_usuario = u.id_usuario) c ON TRUE
+GROUP BY u.id_usuario, p.id_perfil;
+
+COMMIT;
+
+ANALYZE vistas_usuarios;
@@ -0,0 +1,16 @@
+-- Outbox de transacciones: TransaccionServiceImpl inserta una fila por transacción registrada en la misma
+-- transacción que la guarda, y RelayOutbox la saca y la publica en segundo plano (fichero NDJSON, cola en memoria).
+-- Sin clave foránea a cuentas: un evento pendiente debe poder publicarse aunque la cuenta se borre antes.
+-- Las transacciones ya existentes y las importadas (POST /api/admin/transacciones/importar) no generan eventos.
+-- Importes en céntimos.
+
+CREATE TABLE IF NOT EXISTS outbox_transacciones (
+    id_evento BIGSERIAL PRIMARY KEY,
+    id_transaccion BIGINT NOT NULL,
+    id_cuenta INT NOT NULL,
+    tipo_transaccion VARCHAR(20) NOT NULL,
+    monto BIGINT NOT NULL,
+    saldo_posterior BIGINT NOT NULL,
+    fecha TIMESTAMP NOT NULL,
+    registrado TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,24 @@
+-- Saldo de apertura de cada cuenta (saldo_inicial, en céntimos): el saldo con el que se creó, antes de
+-- cualquier transacción. Con él, saldo = saldo_inicial + importe neto de todas sus transacciones, y la
+-- importación (POST /api/admin/transacciones/importar) recalcula el saldo de las cuentas afectadas desde
+-- el historial completo en lugar de sumar el importe del fichero al saldo que hubiera.
+--
+-- Para las cuentas existentes se calcula hacia atrás desde el saldo actual, igual que saldo_posterior
+-- (migración 06): cualquier descuadre previo entre saldo e historial queda en el saldo de apertura.
+
+BEGIN;
+
+ALTER TABLE cuentas ADD COLUMN IF NOT EXISTS saldo_inicial BIGINT;
+
+UPDATE cuentas c
+SET saldo_inicial = c.saldo - COALESCE((SELECT SUM(CASE WHEN t.tipo_transaccion = 'Deposito' THEN ABS(t.monto) ELSE -ABS(t.monto) END)
+                                        FROM transacciones t
+                                        WHERE t.id_cuenta = c.id_cuenta), 0)
+WHERE c.saldo_inicial IS NULL;
+
+ALTER TABLE cuentas ALTER COLUMN saldo_inicial SET DEFAULT 0;
+ALTER TABLE cuentas ALTER COLUMN saldo_inicial SET NOT NULL;
+
+COMMENT ON COLUMN cuentas.saldo_inicial IS 'Saldo de apertura de la cuenta, antes de cualquier transacción, en céntimos';
+
+COMMIT;
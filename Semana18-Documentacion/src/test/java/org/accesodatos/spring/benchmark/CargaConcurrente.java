@@ -0,0 +1,106 @@
+package org.accesodatos.spring.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prueba de carga para comparar el modo de hilos de plataforma con el de hilos virtuales
+ * (spring.threads.virtual.enabled). No es un test: se lanza contra la aplicación arrancada en cada modo.
+ * <p>
+ * Cada cliente repite una mezcla de lecturas de cuentas (caché de respuestas, sin JDBC) y de páginas del
+ * historial de transacciones (JDBC), y al final se imprimen las peticiones por segundo y los percentiles de cada tipo.
+ * <pre>
+ * java -cp target/test-classes org.accesodatos.spring.benchmark.CargaConcurrente \
+ *     http://localhost:8080 1000 30 1,2,3,4,5,6,7,8,9,10
+ * </pre>
+ * Argumentos: URL base, clientes concurrentes, segundos de medida e IDs de cuenta.
+ * Los 15 primeros segundos son de calentamiento (JIT, cachés) y no se cuentan.
+ */
+public class CargaConcurrente {
+    private static final int SEGUNDOS_CALENTAMIENTO = 15;
+    // Porcentaje de peticiones que van al historial (JDBC); el resto lee la cuenta
+    private static final int PORCENTAJE_HISTORIAL = 20;
+
+    private record Medida(String tipo, long nanos, boolean error) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String base = args.length > 0 ? args[0] : "http://localhost:8080";
+        int clientes = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int segundos = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        long[] cuentas = Arrays.stream((args.length > 3 ? args[3] : "1,2,3,4,5,6,7,8,9,10").split(","))
+                .mapToLong(Long::parseLong).toArray();
+
+        HttpClient cliente = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        long inicioMedida = System.nanoTime() + Duration.ofSeconds(SEGUNDOS_CALENTAMIENTO).toNanos();
+        long fin = inicioMedida + Duration.ofSeconds(segundos).toNanos();
+
+        // Cada cliente guarda sus medidas en su propia lista: no hay contención entre ellos
+        List<List<Medida>> medidasPorCliente = new ArrayList<>();
+        AtomicLong clientesActivos = new AtomicLong();
+        try (ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clientes; i++) {
+                List<Medida> medidas = new ArrayList<>();
+                medidasPorCliente.add(medidas);
+                hilos.submit(() -> {
+                    clientesActivos.incrementAndGet();
+                    ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+                    while (System.nanoTime() < fin) {
+                        long idCuenta = cuentas[aleatorio.nextInt(cuentas.length)];
+                        boolean historial = aleatorio.nextInt(100) < PORCENTAJE_HISTORIAL;
+                        String ruta = historial
+                                ? "/api/cuentas/" + idCuenta + "/transacciones?limit=20"
+                                : "/api/cuentas/" + idCuenta;
+                        long inicio = System.nanoTime();
+                        boolean error;
+                        try {
+                            HttpResponse<Void> respuesta = cliente.send(
+                                    HttpRequest.newBuilder(URI.create(base + ruta)).timeout(Duration.ofSeconds(60)).build(),
+                                    HttpResponse.BodyHandlers.discarding());
+                            error = respuesta.statusCode() >= 400;
+                        } catch (Exception e) {
+                            error = true;
+                        }
+                        if (inicio >= inicioMedida) {
+                            medidas.add(new Medida(historial ? "historial" : "cuenta", System.nanoTime() - inicio, error));
+                        }
+                    }
+                    return null;
+                });
+            }
+        }
+
+        List<Medida> todas = medidasPorCliente.stream().flatMap(List::stream).toList();
+        System.out.printf("%d clientes, %d s: %.0f peticiones/s%n", clientes, segundos, todas.size() / (double) segundos);
+        imprimir("cuenta", todas, segundos);
+        imprimir("historial", todas, segundos);
+    }
+
+    private static void imprimir(String tipo, List<Medida> todas, int segundos) {
+        long[] nanos = todas.stream().filter(m -> m.tipo().equals(tipo)).mapToLong(Medida::nanos).sorted().toArray();
+        long errores = todas.stream().filter(m -> m.tipo().equals(tipo) && m.error()).count();
+        if (nanos.length == 0) {
+            return;
+        }
+        System.out.printf("  %-9s %8.0f/s  p50 %7.1f ms  p99 %7.1f ms  max %7.1f ms  errores %d%n",
+                tipo, nanos.length / (double) segundos, percentil(nanos, 50), percentil(nanos, 99),
+                nanos[nanos.length - 1] / 1e6, errores);
+    }
+
+    private static double percentil(long[] ordenados, int percentil) {
+        return ordenados[(int) Math.min(ordenados.length - 1, (long) ordenados.length * percentil / 100)] / 1e6;
+    }
+}
@@ -0,0 +1,84 @@
+package org.accesodatos.spring.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.StringJoiner;
+
+/**
+ * Compara N transacciones enviadas una a una (POST /api/cuentas/{id}/transacciones) con las mismas N en una
+ * sola llamada al endpoint de lotes (POST /api/cuentas/{id}/transacciones/batch). No es un test: se lanza
+ * contra la aplicación arrancada.
+ * <pre>
+ * java -cp target/test-classes org.accesodatos.spring.benchmark.CargaLote http://localhost:8080 1 1000 5
+ * </pre>
+ * Argumentos: URL base, ID de cuenta, transacciones por ronda y rondas de medida. Cada transacción es un
+ * depósito de 0.01, para que ninguna se rechace por saldo. Antes se hace una ronda de calentamiento (JIT,
+ * pool de conexiones) que no se cuenta, y se imprime la mediana de las rondas medidas.
+ */
+public class CargaLote {
+    private static final String TRANSACCION = "{\"monto\":0.01,\"tipoTransaccion\":\"Deposito\"}";
+
+    public static void main(String[] args) throws Exception {
+        String base = args.length > 0 ? args[0] : "http://localhost:8080";
+        long idCuenta = args.length > 1 ? Long.parseLong(args[1]) : 1;
+        int numero = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int rondas = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+
+        HttpClient cliente = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        URI individual = URI.create(base + "/api/cuentas/" + idCuenta + "/transacciones");
+        URI lote = URI.create(base + "/api/cuentas/" + idCuenta + "/transacciones/batch");
+        StringJoiner cuerpoLote = new StringJoiner(",", "[", "]");
+        for (int i = 0; i < numero; i++) {
+            cuerpoLote.add(TRANSACCION);
+        }
+
+        enviarIndividuales(cliente, individual, numero);
+        enviar(cliente, lote, cuerpoLote.toString());
+
+        long[] nanosIndividuales = new long[rondas];
+        long[] nanosLote = new long[rondas];
+        for (int r = 0; r < rondas; r++) {
+            long inicio = System.nanoTime();
+            enviarIndividuales(cliente, individual, numero);
+            nanosIndividuales[r] = System.nanoTime() - inicio;
+
+            inicio = System.nanoTime();
+            enviar(cliente, lote, cuerpoLote.toString());
+            nanosLote[r] = System.nanoTime() - inicio;
+        }
+
+        double individuales = mediana(nanosIndividuales);
+        double enLote = mediana(nanosLote);
+        System.out.printf("%d transacciones, mediana de %d rondas%n", numero, rondas);
+        System.out.printf("  una a una  %9.1f ms%n", individuales);
+        System.out.printf("  en lote    %9.1f ms  (x%.0f)%n", enLote, individuales / enLote);
+    }
+
+    private static void enviarIndividuales(HttpClient cliente, URI uri, int numero) throws Exception {
+        for (int i = 0; i < numero; i++) {
+            enviar(cliente, uri, TRANSACCION);
+        }
+    }
+
+    private static void enviar(HttpClient cliente, URI uri, String cuerpo) throws Exception {
+        HttpResponse<Void> respuesta = cliente.send(HttpRequest.newBuilder(uri)
+                        .timeout(Duration.ofSeconds(60))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(cuerpo))
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+        if (respuesta.statusCode() >= 400) {
+            throw new IllegalStateException("HTTP " + respuesta.statusCode() + " en " + uri);
+        }
+    }
+
+    private static double mediana(long[] nanos) {
+        long[] ordenados = nanos.clone();
+        Arrays.sort(ordenados);
+        return ordenados[ordenados.length / 2] / 1e6;
+    }
+}
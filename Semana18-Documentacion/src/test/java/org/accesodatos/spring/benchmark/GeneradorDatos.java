@@ -0,0 +1,646 @@
+package org.accesodatos.spring.benchmark;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generador de datos sintéticos a gran escala para el esquema de banco.sql (usuarios, perfiles, cuentas,
+ * transacciones y sus resúmenes). No es un test: se lanza contra una base de datos creada con banco.sql.
+ * <p>
+ * La actividad de las cuentas sigue una distribución de Zipf: unas pocas cuentas concentran gran parte de las
+ * transacciones. Las de mayor actividad son cuentas de comercio (Corriente, casi todo cobros), y el resto mezcla
+ * ingresos y gastos. Cada cuenta recorre su historial en orden de fecha y nunca retira más de lo que tiene,
+ * así que saldo_posterior, los resúmenes diarios y mensuales y el saldo final de la cuenta cuadran entre sí.
+ * <p>
+ * Con la misma semilla los datos son idénticos, con cualquier número de hilos: cada usuario y cada cuenta tiene
+ * su propio generador aleatorio derivado de la semilla y de su ID, y los IDs se reparten antes de cargar.
+ * La carga es con COPY en paralelo, por trozos de usuarios y de cuentas.
+ * <pre>
+ * ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.accesodatos.spring.benchmark.GeneradorDatos \
+ *     -Dexec.args="url=jdbc:postgresql://localhost:5432/banco?user=postgres&amp;password=postgres \
+ *                  usuarios=1000000 transacciones=200000000 semilla=42 hilos=8 vaciar=true"
+ * </pre>
+ * Argumentos (clave=valor, todos opcionales): url, usuarios (10000), transacciones (1000000), semilla (42),
+ * hilos (núcleos disponibles), zipf (exponente, 1.0), comercios (fracción de cuentas, 0.001),
+ * meses de historial desde enero de 2024 (24) y vaciar (false). Sin vaciar=true la base de datos debe
+ * estar vacía; con vaciar=true se borran antes todos los datos, incluidos los de ejemplo de banco.sql.
+ */
+public class GeneradorDatos {
+    private static final LocalDate INICIO_REGISTROS = LocalDate.of(2020, 1, 1);
+    private static final LocalDateTime INICIO_HISTORIAL = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final DateTimeFormatter FORMATO_PARTICION = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    // Trozos de trabajo que se reparten los hilos; cada trozo es un COPY
+    private static final int USUARIOS_POR_TROZO = 10_000;
+    private static final int CUENTAS_POR_TROZO = 1_000;
+    // Texto acumulado antes de enviarlo al COPY
+    private static final int TAMANO_ENVIO = 64 * 1024;
+
+    // Reparto de cuentas por usuario: 60 % una, 30 % dos, 10 % tres
+    private static final int[] PORCENTAJE_CUENTAS = {60, 90, 100};
+    // Probabilidad de depósito y mediana en céntimos de cada importe (log-normal), por tipo de cuenta
+    private static final int PORCENTAJE_DEPOSITO_PARTICULAR = 40;
+    private static final int PORCENTAJE_DEPOSITO_COMERCIO = 90;
+    private static final double MEDIANA_DEPOSITO_PARTICULAR = 12_000;
+    private static final double MEDIANA_RETIRO_PARTICULAR = 5_000;
+    private static final double MEDIANA_DEPOSITO_COMERCIO = 2_500;
+    private static final double MEDIANA_RETIRO_COMERCIO = 50_000;
+    private static final double DISPERSION_IMPORTES = 1.0;
+
+    private static final String[] NOMBRES = {"Lucía", "Hugo", "María", "Martín", "Paula", "Daniel", "Carmen",
+            "Pablo", "Laura", "Alejandro", "Sara", "Javier", "Elena", "Adrián", "Marta", "David", "Irene", "Diego",
+            "Alba", "Sergio", "Julia", "Álvaro", "Claudia", "Mario"};
+    private static final String[] APELLIDOS = {"García", "Rodríguez", "González", "Fernández", "López", "Martínez",
+            "Sánchez", "Pérez", "Gómez", "Martín", "Jiménez", "Ruiz", "Hernández", "Díaz", "Moreno", "Muñoz",
+            "Álvarez", "Romero", "Alonso", "Gutiérrez", "Navarro", "Torres", "Domínguez", "Vázquez", "Ramos", "Gil"};
+    private static final String[] CALLES = {"Calle Mayor", "Avenida de la Constitución", "Calle Real",
+            "Plaza de España", "Calle del Sol", "Avenida de Andalucía", "Calle Nueva", "Paseo de la Estación",
+            "Calle de la Iglesia", "Avenida del Mar"};
+    private static final String ALFANUMERICOS = "abcdefghijkmnpqrstuvwxyz23456789";
+
+    private final String url;
+    private final int numUsuarios;
+    private final long numTransacciones;
+    private final long semilla;
+    private final int hilos;
+    private final double zipf;
+    private final double fraccionComercios;
+    private final int meses;
+    private final boolean vaciar;
+
+    // Plan de la carga, calculado antes de escribir nada: la cuenta i (ID i + 1) pertenece al usuario cuyo
+    // rango [primeraCuenta[u], primeraCuenta[u + 1]) la contiene, tiene posicion[i] en el ranking de actividad
+    // y sus transacciones ocupan los IDs desde primeraTransaccion[i] + 1
+    private int[] primeraCuenta;
+    private int[] posicion;
+    private int[] transaccionesPorCuenta;
+    private long[] primeraTransaccion;
+    private int numComercios;
+    // Saldo final de cada cuenta, que se conoce al generar su historial
+    private long[] saldoFinal;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opciones = new HashMap<>();
+        for (String arg : args) {
+            int igual = arg.indexOf('=');
+            if (igual < 0) {
+                throw new IllegalArgumentException("Argumento sin formato clave=valor: " + arg);
+            }
+            opciones.put(arg.substring(0, igual), arg.substring(igual + 1));
+        }
+        new GeneradorDatos(opciones).generar();
+    }
+
+    private GeneradorDatos(Map<String, String> opciones) {
+        url = opciones.getOrDefault("url", "jdbc:postgresql://localhost:5432/banco?user=postgres&password=postgres");
+        numUsuarios = Integer.parseInt(opciones.getOrDefault("usuarios", "10000"));
+        numTransacciones = Long.parseLong(opciones.getOrDefault("transacciones", "1000000"));
+        semilla = Long.parseLong(opciones.getOrDefault("semilla", "42"));
+        hilos = Integer.parseInt(opciones.getOrDefault("hilos",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        zipf = Double.parseDouble(opciones.getOrDefault("zipf", "1.0"));
+        fraccionComercios = Double.parseDouble(opciones.getOrDefault("comercios", "0.001"));
+        meses = Integer.parseInt(opciones.getOrDefault("meses", "24"));
+        vaciar = Boolean.parseBoolean(opciones.getOrDefault("vaciar", "false"));
+        if (numUsuarios < 1 || numTransacciones < 0 || hilos < 1 || meses < 1 || zipf < 0
+                || fraccionComercios < 0 || fraccionComercios > 1) {
+            throw new IllegalArgumentException("Opciones fuera de rango: " + opciones);
+        }
+    }
+
+    private void generar() throws Exception {
+        long inicio = System.nanoTime();
+        preparar();
+        planificar();
+        System.out.printf("Plan: %d usuarios, %d cuentas (%d de comercio), %d transacciones; la más activa tiene %d%n",
+                numUsuarios, primeraCuenta[numUsuarios], numComercios, numTransacciones, maximoTransacciones());
+
+        medir("usuarios, perfiles y cuentas", numUsuarios,
+                () -> enParalelo(trozos(numUsuarios, USUARIOS_POR_TROZO),
+                        (conexion, auxiliar, desde, hasta) -> cargarUsuarios(conexion, desde, hasta)));
+        int numCuentas = primeraCuenta[numUsuarios];
+        // El índice del historial se crea de una vez al final: mantenerlo fila a fila durante el COPY
+        // cuesta bastante más que construirlo ordenando todas las filas. Se vuelve a crear aunque la carga falle
+        ejecutar("DROP INDEX IF EXISTS idx_transacciones_cuenta_fecha");
+        try {
+            medir("transacciones y resúmenes diarios", numTransacciones,
+                    () -> enParalelo(trozos(numCuentas, CUENTAS_POR_TROZO), this::cargarTransacciones));
+        } finally {
+            medir("índice del historial", numTransacciones, () -> ejecutar("""
+                    CREATE INDEX idx_transacciones_cuenta_fecha ON transacciones (id_cuenta, fecha, id_transaccion)
+                        INCLUDE (monto, tipo_transaccion, saldo_posterior)"""));
+        }
+        medir("saldos, resúmenes mensuales y vistas", numCuentas, this::derivar);
+        System.out.printf("Total: %.1f s%n", (System.nanoTime() - inicio) / 1e9);
+    }
+
+    // ---------------------------------------------------------------------------------------------------------
+    // Preparación y plan
+    // ---------------------------------------------------------------------------------------------------------
+
+    private void preparar() throws SQLException {
+        try (Connection conexion = conectar(); Statement sentencia = conexion.createStatement()) {
+            if (vaciar) {
+                sentencia.execute("""
+                        TRUNCATE outbox_transacciones, vistas_usuarios, resumenes_mensuales, resumenes_diarios,
+                                 transacciones, cuentas, perfiles, usuarios""");
+            } else {
+                try (ResultSet resultado = sentencia.executeQuery(
+                        "SELECT EXISTS (SELECT 1 FROM usuarios) OR EXISTS (SELECT 1 FROM cuentas)")) {
+                    resultado.next();
+                    if (resultado.getBoolean(1)) {
+                        throw new IllegalStateException(
+                                "La base de datos ya tiene usuarios o cuentas: vacíala o usa vaciar=true");
+                    }
+                }
+            }
+            // Mismas particiones mensuales que crean banco.sql y ParticionService
+            for (int mes = 0; mes < meses; mes++) {
+                YearMonth particion = YearMonth.from(INICIO_HISTORIAL).plusMonths(mes);
+                sentencia.execute("CREATE TABLE IF NOT EXISTS transacciones_" + particion.format(FORMATO_PARTICION)
+                        + " PARTITION OF transacciones FOR VALUES FROM ('" + particion.atDay(1)
+                        + "') TO ('" + particion.plusMonths(1).atDay(1) + "')");
+            }
+        }
+    }
+
+    private void planificar() {
+        primeraCuenta = new int[numUsuarios + 1];
+        for (int u = 0; u < numUsuarios; u++) {
+            primeraCuenta[u + 1] = primeraCuenta[u] + cuentasDeUsuario(aleatorio("usuario", u + 1));
+        }
+        int numCuentas = primeraCuenta[numUsuarios];
+
+        // Ranking de actividad: una permutación aleatoria de las cuentas, para que las más activas
+        // no sean siempre las de los primeros usuarios
+        posicion = new int[numCuentas];
+        for (int i = 0; i < numCuentas; i++) {
+            posicion[i] = i;
+        }
+        SplittableRandom barajado = aleatorio("ranking", 0);
+        for (int i = numCuentas - 1; i > 0; i--) {
+            int j = barajado.nextInt(i + 1);
+            int intercambio = posicion[i];
+            posicion[i] = posicion[j];
+            posicion[j] = intercambio;
+        }
+        numComercios = (int) Math.min(numCuentas, Math.max(1, Math.round(numCuentas * fraccionComercios)));
+
+        // Zipf: la cuenta en la posición k recibe una parte proporcional a 1 / (k + 1)^s; lo que se pierde
+        // al redondear hacia abajo se reparte, de una en una, entre las primeras posiciones
+        double[] pesos = new double[numCuentas];
+        double total = 0;
+        for (int k = 0; k < numCuentas; k++) {
+            pesos[k] = 1.0 / Math.pow(k + 1, zipf);
+            total += pesos[k];
+        }
+        long[] porPosicion = new long[numCuentas];
+        long asignadas = 0;
+        for (int k = 0; k < numCuentas; k++) {
+            porPosicion[k] = (long) (numTransacciones * (pesos[k] / total));
+            asignadas += porPosicion[k];
+        }
+        for (long k = 0; asignadas < numTransacciones; k = (k + 1) % numCuentas, asignadas++) {
+            porPosicion[(int) k]++;
+        }
+
+        transaccionesPorCuenta = new int[numCuentas];
+        primeraTransaccion = new long[numCuentas + 1];
+        for (int i = 0; i < numCuentas; i++) {
+            transaccionesPorCuenta[i] = Math.toIntExact(porPosicion[posicion[i]]);
+            primeraTransaccion[i + 1] = primeraTransaccion[i] + transaccionesPorCuenta[i];
+        }
+        saldoFinal = new long[numCuentas];
+    }
+
+    private static int cuentasDeUsuario(SplittableRandom aleatorio) {
+        int tirada = aleatorio.nextInt(100);
+        int cuentas = 1;
+        while (tirada >= PORCENTAJE_CUENTAS[cuentas - 1]) {
+            cuentas++;
+        }
+        return cuentas;
+    }
+
+    private long maximoTransacciones() {
+        long maximo = 0;
+        for (int transacciones : transaccionesPorCuenta) {
+            maximo = Math.max(maximo, transacciones);
+        }
+        return maximo;
+    }
+
+    // ---------------------------------------------------------------------------------------------------------
+    // Usuarios, perfiles y cuentas
+    // ---------------------------------------------------------------------------------------------------------
+
+    private void cargarUsuarios(Connection conexion, int desde, int hasta) throws SQLException {
+        // Se vuelven a sacar los datos de cada usuario de su propio generador, así que los tres COPY coinciden
+        try (Copia usuarios = new Copia(conexion,
+                "COPY usuarios (id_usuario, username, password, email, fecha_registro, version) FROM STDIN")) {
+            for (int u = desde; u < hasta; u++) {
+                Usuario usuario = usuario(u);
+                usuarios.campo(u + 1).campo(usuario.username()).campo(usuario.password()).campo(usuario.email())
+                        .campo(usuario.fechaRegistro().toString()).campo(0).fila();
+            }
+            usuarios.terminar();
+        }
+        try (Copia perfiles = new Copia(conexion,
+                "COPY perfiles (id_perfil, id_usuario, nombre_completo, telefono, direccion) FROM STDIN")) {
+            for (int u = desde; u < hasta; u++) {
+                Usuario usuario = usuario(u);
+                perfiles.campo(u + 1).campo(u + 1).campo(usuario.nombreCompleto()).campo(usuario.telefono())
+                        .campo(usuario.direccion()).fila();
+            }
+            perfiles.terminar();
+        }
+        // El saldo se escribe al final, cuando se conoce el historial de cada cuenta
+        try (Copia cuentas = new Copia(conexion,
+                "COPY cuentas (id_cuenta, id_usuario, saldo, fecha_creacion, tipo_cuenta, version) FROM STDIN")) {
+            for (int u = desde; u < hasta; u++) {
+                Usuario usuario = usuario(u);
+                for (int i = primeraCuenta[u]; i < primeraCuenta[u + 1]; i++) {
+                    SplittableRandom aleatorio = aleatorio("cuenta", i + 1);
+                    long segundosPrevios = INICIO_HISTORIAL.toEpochSecond(ZoneOffset.UTC)
+                            - usuario.fechaRegistro().atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+                    LocalDateTime creacion = usuario.fechaRegistro().atStartOfDay()
+                            .plusSeconds(aleatorio.nextLong(segundosPrevios));
+                    String tipo = esComercio(i) || aleatorio.nextBoolean() ? "Corriente" : "Ahorros";
+                    cuentas.campo(i + 1).campo(u + 1).campo(0).fecha(creacion).campo(tipo).campo(0).fila();
+                }
+            }
+            cuentas.terminar();
+        }
+    }
+
+    private record Usuario(String username, String password, String email, LocalDate fechaRegistro,
+                           String nombreCompleto, String telefono, String direccion) {
+    }
+
+    private Usuario usuario(int u) {
+        SplittableRandom aleatorio = aleatorio("usuario", u + 1);
+        // La primera tirada ya se usó en el plan para el número de cuentas
+        cuentasDeUsuario(aleatorio);
+        String nombre = NOMBRES[aleatorio.nextInt(NOMBRES.length)];
+        String apellido1 = APELLIDOS[aleatorio.nextInt(APELLIDOS.length)];
+        String apellido2 = APELLIDOS[aleatorio.nextInt(APELLIDOS.length)];
+        StringBuilder password = new StringBuilder(12);
+        for (int i = 0; i < 12; i++) {
+            password.append(ALFANUMERICOS.charAt(aleatorio.nextInt(ALFANUMERICOS.length())));
+        }
+        LocalDate fechaRegistro = INICIO_REGISTROS.plusDays(
+                aleatorio.nextLong(ChronoUnit.DAYS.between(INICIO_REGISTROS, INICIO_HISTORIAL.toLocalDate())));
+        // username, email y teléfono llevan el ID, así que son únicos
+        String username = sinTildes(nombre + "." + apellido1).toLowerCase() + (u + 1);
+        return new Usuario(username, password.toString(), username + "@example.com", fechaRegistro,
+                nombre + " " + apellido1 + " " + apellido2, String.valueOf(600_000_000L + u + 1),
+                CALLES[aleatorio.nextInt(CALLES.length)] + ", " + (1 + aleatorio.nextInt(200)));
+    }
+
+    private static String sinTildes(String texto) {
+        return Normalizer.normalize(texto, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+    }
+
+    // ---------------------------------------------------------------------------------------------------------
+    // Transacciones y resúmenes diarios
+    // ---------------------------------------------------------------------------------------------------------
+
+    private void cargarTransacciones(Connection conexion, Connection conexionResumenes, int desde, int hasta)
+            throws SQLException {
+        long inicio = INICIO_HISTORIAL.toEpochSecond(ZoneOffset.UTC);
+        long duracion = INICIO_HISTORIAL.plusMonths(meses).toEpochSecond(ZoneOffset.UTC) - inicio;
+
+        // Dos COPY a la vez, uno por conexión: las transacciones y sus resúmenes diarios se escriben al generarlas
+        try (Copia transacciones = new Copia(conexion, "COPY transacciones (id_transaccion, id_cuenta, monto, fecha, "
+                + "tipo_transaccion, saldo_posterior) FROM STDIN");
+             Copia resumenes = new Copia(conexionResumenes, "COPY resumenes_diarios (id_cuenta, periodo, "
+                     + "total_depositos, total_retiros, num_transacciones, saldo_cierre) FROM STDIN")) {
+            for (int i = desde; i < hasta; i++) {
+                int n = transaccionesPorCuenta[i];
+                boolean comercio = esComercio(i);
+                int porcentajeDeposito = comercio ? PORCENTAJE_DEPOSITO_COMERCIO : PORCENTAJE_DEPOSITO_PARTICULAR;
+                double medianaDeposito = comercio ? MEDIANA_DEPOSITO_COMERCIO : MEDIANA_DEPOSITO_PARTICULAR;
+                double medianaRetiro = comercio ? MEDIANA_RETIRO_COMERCIO : MEDIANA_RETIRO_PARTICULAR;
+                SplittableRandom aleatorio = aleatorio("transacciones", i + 1);
+
+                long saldo = 0;
+                long dia = Long.MIN_VALUE;
+                long depositosDia = 0;
+                long retirosDia = 0;
+                int transaccionesDia = 0;
+                // Las fechas son n instantes uniformes en el periodo, ya ordenados: el máximo de k uniformes
+                // se obtiene como U^(1/k), así que se generan de mayor a menor sin guardarlos y se recorren
+                // como 1 - máximo, que va de menor a mayor
+                double maximo = 1.0;
+                for (int k = n; k >= 1; k--) {
+                    maximo *= Math.pow(aleatorio.nextDouble(), 1.0 / k);
+                    long segundo = inicio + Math.min(duracion - 1, (long) ((1.0 - maximo) * duracion));
+
+                    long diaTransaccion = Math.floorDiv(segundo, 86_400);
+                    if (diaTransaccion != dia) {
+                        if (transaccionesDia > 0) {
+                            resumenes.campo(i + 1).fecha(LocalDate.ofEpochDay(dia)).campo(depositosDia)
+                                    .campo(retirosDia).campo(transaccionesDia).campo(saldo).fila();
+                        }
+                        dia = diaTransaccion;
+                        depositosDia = 0;
+                        retirosDia = 0;
+                        transaccionesDia = 0;
+                    }
+
+                    boolean deposito = aleatorio.nextInt(100) < porcentajeDeposito;
+                    long monto = importe(aleatorio, deposito ? medianaDeposito : medianaRetiro);
+                    if (!deposito && monto > saldo) {
+                        // Sin saldo suficiente se retira lo que queda; con la cuenta a cero, se ingresa
+                        monto = saldo > 0 ? saldo : monto;
+                        deposito = saldo == 0;
+                    }
+                    if (deposito) {
+                        saldo += monto;
+                        depositosDia += monto;
+                    } else {
+                        saldo -= monto;
+                        retirosDia += monto;
+                    }
+                    transaccionesDia++;
+
+                    transacciones.campo(primeraTransaccion[i] + n - k + 1).campo(i + 1).campo(monto)
+                            .fecha(LocalDateTime.ofEpochSecond(segundo, 0, ZoneOffset.UTC))
+                            .campo(deposito ? "Deposito" : "Retiro").campo(saldo).fila();
+                }
+                if (transaccionesDia > 0) {
+                    resumenes.campo(i + 1).fecha(LocalDate.ofEpochDay(dia)).campo(depositosDia).campo(retirosDia)
+                            .campo(transaccionesDia).campo(saldo).fila();
+                }
+                saldoFinal[i] = saldo;
+            }
+            transacciones.terminar();
+            resumenes.terminar();
+        }
+    }
+
+    // Importe log-normal en céntimos, de al menos 1 céntimo
+    private static long importe(SplittableRandom aleatorio, double mediana) {
+        return Math.max(1, Math.round(mediana * Math.exp(DISPERSION_IMPORTES * aleatorio.nextGaussian())));
+    }
+
+    private boolean esComercio(int cuenta) {
+        return posicion[cuenta] < numComercios;
+    }
+
+    // ---------------------------------------------------------------------------------------------------------
+    // Saldos, resúmenes mensuales, vistas y secuencias
+    // ---------------------------------------------------------------------------------------------------------
+
+    private void derivar() throws Exception {
+        int numCuentas = primeraCuenta[numUsuarios];
+        try (Connection conexion = conectar(); Statement sentencia = conexion.createStatement()) {
+            sentencia.execute("CREATE TEMP TABLE saldos_generados (id_cuenta INT PRIMARY KEY, saldo BIGINT NOT NULL)");
+            try (Copia saldos = new Copia(conexion, "COPY saldos_generados (id_cuenta, saldo) FROM STDIN")) {
+                for (int i = 0; i < numCuentas; i++) {
+                    if (saldoFinal[i] != 0) {
+                        saldos.campo(i + 1).campo(saldoFinal[i]).fila();
+                    }
+                }
+                saldos.terminar();
+            }
+            sentencia.executeUpdate("""
+                    UPDATE cuentas c SET saldo = s.saldo
+                    FROM saldos_generados s
+                    WHERE c.id_cuenta = s.id_cuenta""");
+        }
+
+        // Mismas consultas que al final de banco.sql, por rangos de cuentas y de usuarios en paralelo
+        enParalelo(trozos(numCuentas, CUENTAS_POR_TROZO * 10), (conexion, auxiliar, desde, hasta) ->
+                actualizar(conexion, """
+                        INSERT INTO resumenes_mensuales (id_cuenta, periodo, total_depositos, total_retiros,
+                                                         num_transacciones, saldo_cierre)
+                        SELECT id_cuenta, date_trunc('month', periodo)::DATE,
+                               SUM(total_depositos), SUM(total_retiros), SUM(num_transacciones),
+                               (ARRAY_AGG(saldo_cierre ORDER BY periodo DESC))[1]
+                        FROM resumenes_diarios
+                        WHERE id_cuenta BETWEEN ? AND ?
+                        GROUP BY id_cuenta, date_trunc('month', periodo)""", desde + 1, hasta));
+        enParalelo(trozos(numUsuarios, USUARIOS_POR_TROZO), (conexion, auxiliar, desde, hasta) ->
+                actualizar(conexion, """
+                        INSERT INTO vistas_usuarios (id_usuario, username, email, fecha_registro, nombre_completo,
+                                                     telefono, direccion, num_cuentas, saldo_total, num_transacciones,
+                                                     cuentas, actualizado)
+                        SELECT u.id_usuario, u.username, u.email, u.fecha_registro, p.nombre_completo, p.telefono,
+                               p.direccion,
+                               COUNT(c.id_cuenta), COALESCE(SUM(c.saldo), 0), COALESCE(SUM(c.num_transacciones), 0),
+                               COALESCE(jsonb_agg(jsonb_build_object('id', c.id_cuenta, 'tipoCuenta', c.tipo_cuenta,
+                                                                     'saldo', c.saldo,
+                                                                     'numTransacciones', c.num_transacciones)
+                                                  ORDER BY c.id_cuenta) FILTER (WHERE c.id_cuenta IS NOT NULL), '[]'),
+                               now()
+                        FROM usuarios u
+                        LEFT JOIN perfiles p ON p.id_usuario = u.id_usuario
+                        LEFT JOIN LATERAL (
+                            SELECT c.id_cuenta, c.tipo_cuenta, c.saldo,
+                                   (SELECT COALESCE(SUM(m.num_transacciones), 0)
+                                    FROM resumenes_mensuales m WHERE m.id_cuenta = c.id_cuenta) AS num_transacciones
+                            FROM cuentas c
+                            WHERE c.id_usuario = u.id_usuario) c ON TRUE
+                        WHERE u.id_usuario BETWEEN ? AND ?
+                        GROUP BY u.id_usuario, p.id_perfil""", desde + 1, hasta));
+
+        // Las secuencias reservan bloques de 50 (pooled-lo): con setval al último ID, el siguiente bloque
+        // que pida la aplicación empieza después de los datos generados
+        try (Connection conexion = conectar(); Statement sentencia = conexion.createStatement()) {
+            sentencia.execute("SELECT setval(pg_get_serial_sequence('usuarios', 'id_usuario'), " + numUsuarios + ")");
+            sentencia.execute("SELECT setval(pg_get_serial_sequence('perfiles', 'id_perfil'), " + numUsuarios + ")");
+            sentencia.execute("SELECT setval(pg_get_serial_sequence('cuentas', 'id_cuenta'), " + numCuentas + ")");
+            sentencia.execute("SELECT setval(pg_get_serial_sequence('transacciones', 'id_transaccion'), "
+                    + Math.max(1, numTransacciones) + ", " + (numTransacciones > 0) + ")");
+            sentencia.execute("ANALYZE");
+        }
+    }
+
+    private static void actualizar(Connection conexion, String sql, int desde, int hasta) throws SQLException {
+        try (PreparedStatement sentencia = conexion.prepareStatement(sql)) {
+            sentencia.setInt(1, desde);
+            sentencia.setInt(2, hasta);
+            sentencia.executeUpdate();
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------------------
+    // Utilidades
+    // ---------------------------------------------------------------------------------------------------------
+
+    // Generador propio de cada entidad: depende solo de la semilla, del tipo de dato y del ID
+    private SplittableRandom aleatorio(String tipo, long id) {
+        return new SplittableRandom(semilla * 0x9E3779B97F4A7C15L + tipo.hashCode() * 0xC2B2AE3D27D4EB4FL + id);
+    }
+
+    @FunctionalInterface
+    private interface Tarea {
+        void ejecutar(Connection conexion, Connection conexionAuxiliar, int desde, int hasta) throws Exception;
+    }
+
+    private interface Fase {
+        void ejecutar() throws Exception;
+    }
+
+    private static int[][] trozos(int total, int tamano) {
+        List<int[]> trozos = new ArrayList<>();
+        for (int desde = 0; desde < total; desde += tamano) {
+            trozos.add(new int[]{desde, Math.min(total, desde + tamano)});
+        }
+        return trozos.toArray(int[][]::new);
+    }
+
+    // Cada hilo abre sus dos conexiones y va tomando el siguiente trozo libre: los trozos con cuentas muy
+    // activas no retrasan a los demás hilos
+    private void enParalelo(int[][] trozos, Tarea tarea) throws Exception {
+        AtomicInteger siguiente = new AtomicInteger();
+        List<Future<Void>> hilosCarga = new ArrayList<>();
+        try (ExecutorService ejecutor = Executors.newFixedThreadPool(hilos)) {
+            for (int h = 0; h < Math.min(hilos, trozos.length); h++) {
+                hilosCarga.add(ejecutor.submit(() -> {
+                    try (Connection conexion = conectar(); Connection auxiliar = conectar()) {
+                        for (int t = siguiente.getAndIncrement(); t < trozos.length; t = siguiente.getAndIncrement()) {
+                            tarea.ejecutar(conexion, auxiliar, trozos[t][0], trozos[t][1]);
+                        }
+                    } catch (Exception e) {
+                        // Los demás hilos dejan de tomar trozos
+                        siguiente.set(trozos.length);
+                        throw e;
+                    }
+                    return null;
+                }));
+            }
+            for (Future<Void> hilo : hilosCarga) {
+                hilo.get();
+            }
+        }
+    }
+
+    private static void medir(String fase, long filas, Fase trabajo) throws Exception {
+        long inicio = System.nanoTime();
+        trabajo.ejecutar();
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        System.out.printf("%-36s %12d filas  %8.1f s  %12.0f filas/s%n", fase, filas, segundos, filas / segundos);
+    }
+
+    private void ejecutar(String sql) throws SQLException {
+        try (Connection conexion = conectar(); Statement sentencia = conexion.createStatement()) {
+            sentencia.execute(sql);
+        }
+    }
+
+    private Connection conectar() throws SQLException {
+        return DriverManager.getConnection(url);
+    }
+
+    /**
+     * COPY en formato texto (campos separados por tabulador) que se envía a trozos de 64 KB y se confirma con terminar().
+     * Los textos generados no contienen tabuladores, saltos de línea ni barras invertidas, así que no se escapan.
+     */
+    private static final class Copia implements AutoCloseable {
+        private final CopyIn copia;
+        private final StringBuilder buffer = new StringBuilder(TAMANO_ENVIO + 1024);
+        private boolean primerCampo = true;
+
+        private Copia(Connection conexion, String sql) throws SQLException {
+            this.copia = conexion.unwrap(PGConnection.class).getCopyAPI().copyIn(sql);
+        }
+
+        private Copia campo(String valor) {
+            if (!primerCampo) {
+                buffer.append('\t');
+            }
+            primerCampo = false;
+            buffer.append(valor);
+            return this;
+        }
+
+        private Copia campo(long valor) {
+            if (!primerCampo) {
+                buffer.append('\t');
+            }
+            primerCampo = false;
+            buffer.append(valor);
+            return this;
+        }
+
+        // yyyy-MM-dd y yyyy-MM-dd HH:mm:ss escritos a mano: con cientos de millones de filas,
+        // un DateTimeFormatter por fecha se nota
+        private Copia fecha(LocalDate fecha) {
+            campo(fecha.getYear());
+            buffer.append('-');
+            dosCifras(fecha.getMonthValue());
+            buffer.append('-');
+            dosCifras(fecha.getDayOfMonth());
+            return this;
+        }
+
+        private Copia fecha(LocalDateTime fecha) {
+            fecha(fecha.toLocalDate());
+            buffer.append(' ');
+            dosCifras(fecha.getHour());
+            buffer.append(':');
+            dosCifras(fecha.getMinute());
+            buffer.append(':');
+            dosCifras(fecha.getSecond());
+            return this;
+        }
+
+        private void dosCifras(int valor) {
+            buffer.append((char) ('0' + valor / 10)).append((char) ('0' + valor % 10));
+        }
+
+        private void fila() throws SQLException {
+            buffer.append('\n');
+            primerCampo = true;
+            if (buffer.length() >= TAMANO_ENVIO) {
+                enviar();
+            }
+        }
+
+        private void enviar() throws SQLException {
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            copia.writeToCopy(bytes, 0, bytes.length);
+            buffer.setLength(0);
+        }
+
+        private void terminar() throws SQLException {
+            enviar();
+            copia.endCopy();
+        }
+
+        // Si no se llegó a terminar (error a medias), se cancela en vez de confirmar un trozo incompleto
+        @Override
+        public void close() throws SQLException {
+            if (copia.isActive()) {
+                copia.cancelCopy();
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.accesodatos.spring.integration.controllers;
+
+import org.accesodatos.spring.controllers.CacheRestController;
+import org.accesodatos.spring.dtos.response.EstadisticasCacheDTO;
+import org.accesodatos.spring.services.EstadisticasCacheService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(CacheRestController.class)
+@ExtendWith(SpringExtension.class) // Para integración con JUnit 5
+public class CacheRestControllerTest {
+    @Autowired
+    private MockMvc mockMvc; // Para realizar peticiones HTTP
+
+    @MockitoBean
+    private EstadisticasCacheService estadisticasCacheService;
+
+    @Test
+    void obtenerEstadisticas_Exito() throws Exception {
+        // GIVEN
+        when(estadisticasCacheService.obtenerEstadisticas()).thenReturn(List.of(
+                new EstadisticasCacheDTO("cuentas", 8, 2, 2, 0, 0.8),
+                new EstadisticasCacheDTO("usuarios", 0, 1, 1, 0, 0)));
+
+        // WHEN & THEN
+        mockMvc.perform(get("/api/admin/cache"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].region").value("cuentas"))
+                .andExpect(jsonPath("$[0].aciertos").value(8))
+                .andExpect(jsonPath("$[0].tasaAciertos").value(0.8));
+
+        verify(estadisticasCacheService, times(1)).obtenerEstadisticas();
+    }
+}
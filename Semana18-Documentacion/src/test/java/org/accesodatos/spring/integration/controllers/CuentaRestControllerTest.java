@@ -1,29 +1,53 @@
 package org.accesodatos.spring.integration.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.accesodatos.spring.cache.CacheRespuestas;
 import org.accesodatos.spring.controllers.CuentaRestController;
 import org.accesodatos.spring.dtos.request.create.TransaccionCreateDTO;
+import org.accesodatos.spring.dtos.response.CuentaDTO;
+import org.accesodatos.spring.dtos.response.PaginaDTO;
+import org.accesodatos.spring.dtos.response.ResumenCuentaDTO;
 import org.accesodatos.spring.dtos.response.TransaccionDTO;
 import org.accesodatos.spring.services.CuentaService;
+import org.accesodatos.spring.services.ResumenCuentaService;
 import org.accesodatos.spring.services.TransaccionService;
+import org.accesodatos.spring.utils.CursorUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(CuentaRestController.class)
+@Import(CacheRespuestas.class) // Caché real: el servicio está simulado
 @ExtendWith(SpringExtension.class) // Para integración con JUnit 5
 public class CuentaRestControllerTest {
     @Autowired
@@ -35,6 +59,9 @@ public class CuentaRestControllerTest {
     @MockitoBean
     private TransaccionService transaccionService;
 
+    @MockitoBean
+    private ResumenCuentaService resumenCuentaService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -45,14 +72,15 @@ public class CuentaRestControllerTest {
     void setUp() {
         // TransaccionCreateDTO para el request
         transaccionCreateDTO = new TransaccionCreateDTO();
-        transaccionCreateDTO.setMonto(250.0);
+        transaccionCreateDTO.setMonto(25000L);
         transaccionCreateDTO.setTipoTransaccion("Deposito");
 
         // Respuesta simulada
         transaccionDTO = new TransaccionDTO();
         transaccionDTO.setId(100L);
-        transaccionDTO.setMonto(250.0);
+        transaccionDTO.setMonto(25000L);
         transaccionDTO.setTipoTransaccion("Deposito");
+        transaccionDTO.setSaldoPosterior(125000L);
     }
 
     @Test
@@ -69,16 +97,17 @@ public class CuentaRestControllerTest {
                         .content(jsonBody))
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.id").value(100L))
-                .andExpect(jsonPath("$.monto").value(250.0))
+                .andExpect(jsonPath("$.monto").value(250.0)) // En JSON el importe va en euros
                 .andExpect(jsonPath("$.tipoTransaccion").value("Deposito"));
 
-        verify(transaccionService).crearTransaccion(eq(1L), any(TransaccionCreateDTO.class));
+        // 250.00 euros en el JSON llegan al servicio como 25000 céntimos
+        verify(transaccionService).crearTransaccion(eq(1L), argThat(dto -> dto.getMonto() == 25000L));
     }
 
     @Test
     void crearTransaccion_MontoNegativoInvalido() throws Exception {
         // GIVEN: Monto negativo (invalido)
-        transaccionCreateDTO.setMonto(-50.0);
+        transaccionCreateDTO.setMonto(-5000L);
         String jsonBody = objectMapper.writeValueAsString(transaccionCreateDTO);
 
         // WHEN & THEN: Se espera 400 Bad Request
@@ -104,4 +133,154 @@ public class CuentaRestControllerTest {
 
         verify(transaccionService, never()).crearTransaccion(anyLong(), any(TransaccionCreateDTO.class));
     }
+
+    @Test
+    void crearTransaccion_ImporteConMasDeDosDecimales() throws Exception {
+        // GIVEN: 10.005 euros no se puede expresar en céntimos sin redondear
+        String jsonBody = "{\"monto\": 10.005, \"tipoTransaccion\": \"Deposito\"}";
+
+        // WHEN & THEN
+        mockMvc.perform(post("/api/cuentas/{id}/transacciones", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonBody))
+                .andExpect(status().isBadRequest());
+
+        verify(transaccionService, never()).crearTransaccion(anyLong(), any(TransaccionCreateDTO.class));
+    }
+
+    @Test
+    void obtenerCuentaPorId_DevuelveETagConLaVersion() throws Exception {
+        // GIVEN
+        CuentaDTO cuentaDTO = new CuentaDTO(7L, 10000L, null, "Ahorros", 1L, 4L);
+        when(cuentaService.obtenerCuentaPorId(7L)).thenReturn(cuentaDTO);
+
+        // WHEN & THEN: La versión va en la cabecera, no en el cuerpo
+        mockMvc.perform(get("/api/cuentas/{id}", 7L))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""))
+                .andExpect(jsonPath("$.version").doesNotExist());
+
+        // Con If-None-Match de la misma versión no se reenvía el cuerpo
+        mockMvc.perform(get("/api/cuentas/{id}", 7L).header("If-None-Match", "\"4\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void obtenerCuentaPorId_SegundaPeticionSeSirveDesdeCache() throws Exception {
+        // GIVEN: Una cuenta con suficientes transacciones para que compense comprimir el cuerpo
+        CuentaDTO cuentaDTO = new CuentaDTO(8L, 10000L, null, "Ahorros", 1L, 2L);
+        cuentaDTO.setTransacciones(LongStream.rangeClosed(1, 50)
+                .mapToObj(i -> new TransaccionDTO(i, 1000L, null, "Deposito", 1000L * i))
+                .toList());
+        when(cuentaService.obtenerCuentaPorId(8L)).thenReturn(cuentaDTO);
+
+        // WHEN: Primera petición sin gzip y segunda con gzip
+        mockMvc.perform(get("/api/cuentas/{id}", 8L))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(jsonPath("$.transacciones.length()").value(50));
+
+        byte[] comprimido = mockMvc.perform(get("/api/cuentas/{id}", 8L).header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("ETag", "\"2\""))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // THEN: El cuerpo comprimido es el mismo JSON y el servicio solo se ha consultado una vez
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(comprimido))) {
+            assertEquals(50, objectMapper.readTree(gzip).get("transacciones").size());
+        }
+        verify(cuentaService, times(1)).obtenerCuentaPorId(8L);
+    }
+
+    @Test
+    void obtenerCuentasPaginadas_DevuelveCabeceraConSiguienteCursor() throws Exception {
+        // GIVEN: El servicio devuelve una página con cursor siguiente
+        CuentaDTO cuentaDTO = new CuentaDTO();
+        cuentaDTO.setId(7L);
+        String cursor = CursorUtils.codificar(7L);
+        when(cuentaService.obtenerCuentasPaginadas(null, 1))
+                .thenReturn(new PaginaDTO<>(List.of(cuentaDTO), cursor));
+
+        // WHEN & THEN
+        mockMvc.perform(get("/api/cuentas").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CursorUtils.CABECERA_SIGUIENTE_CURSOR, cursor))
+                .andExpect(jsonPath("$[0].id").value(7L));
+    }
+
+    @Test
+    void obtenerHistorialTransacciones_ConRangoYCursor() throws Exception {
+        // GIVEN
+        LocalDateTime desde = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime hasta = LocalDateTime.of(2024, 2, 1, 0, 0);
+        String cursor = CursorUtils.codificar(LocalDateTime.of(2024, 1, 10, 10, 0), 2L);
+        when(transaccionService.obtenerHistorial(1L, desde, hasta, null, 1))
+                .thenReturn(new PaginaDTO<>(List.of(transaccionDTO), cursor));
+
+        // WHEN & THEN
+        mockMvc.perform(get("/api/cuentas/{id}/transacciones", 1L)
+                        .param("from", "2024-01-01T00:00:00")
+                        .param("to", "2024-02-01T00:00:00")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CursorUtils.CABECERA_SIGUIENTE_CURSOR, cursor))
+                .andExpect(jsonPath("$[0].id").value(transaccionDTO.getId()))
+                .andExpect(jsonPath("$[0].saldoPosterior").value(1250.00));
+    }
+
+    @Test
+    void obtenerResumen_PorDia() throws Exception {
+        // GIVEN
+        when(resumenCuentaService.obtenerResumen(1L, "dia", LocalDate.of(2024, 1, 1), null))
+                .thenReturn(List.of(new ResumenCuentaDTO(LocalDate.of(2024, 1, 1), 50000L, 0L, 1L, 120000L),
+                        new ResumenCuentaDTO(LocalDate.of(2024, 1, 2), 0L, 20000L, 1L, 100000L)));
+
+        // WHEN & THEN: Importes en euros
+        mockMvc.perform(get("/api/cuentas/{id}/resumen", 1L)
+                        .param("granularidad", "dia")
+                        .param("from", "2024-01-01"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].periodo").value("2024-01-01"))
+                .andExpect(jsonPath("$[0].totalDepositos").value(500.00))
+                .andExpect(jsonPath("$[1].totalRetiros").value(200.00))
+                .andExpect(jsonPath("$[1].saldoCierre").value(1000.00));
+    }
+
+    @Test
+    void obtenerCuentasPaginadas_UltimaPaginaSinCabecera() throws Exception {
+        // GIVEN: Se pide la página siguiente a la última cuenta
+        String cursor = CursorUtils.codificar(7L);
+        when(cuentaService.obtenerCuentasPaginadas(cursor, CursorUtils.LIMITE_POR_DEFECTO))
+                .thenReturn(new PaginaDTO<>(List.of(), null));
+
+        // WHEN & THEN: No hay más cuentas
+        mockMvc.perform(get("/api/cuentas").param("after", cursor))
+                .andExpect(status().isNoContent())
+                .andExpect(header().doesNotExist(CursorUtils.CABECERA_SIGUIENTE_CURSOR));
+    }
+
+    @Test
+    void exportarCuentas_NdjsonEnStreaming() throws Exception {
+        // GIVEN: El servicio escribe dos cuentas, una por línea
+        doAnswer(invocation -> {
+            OutputStream salida = invocation.getArgument(0);
+            salida.write("{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(cuentaService).exportarCuentas(any(OutputStream.class));
+
+        // WHEN: Se pide el listado con Accept: application/x-ndjson
+        MvcResult resultado = mockMvc.perform(get("/api/cuentas").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // THEN: La respuesta es el flujo NDJSON y no se usa la paginación
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":1}\n{\"id\":2}\n"));
+
+        verify(cuentaService, never()).obtenerCuentasPaginadas(any(), anyInt());
+    }
 }
@@ -0,0 +1,46 @@
+package org.accesodatos.spring.integration.controllers;
+
+import org.accesodatos.spring.controllers.HilosRestController;
+import org.accesodatos.spring.dtos.response.EstadisticasHilosDTO;
+import org.accesodatos.spring.services.EstadisticasHilosService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(HilosRestController.class)
+@ExtendWith(SpringExtension.class) // Para integración con JUnit 5
+public class HilosRestControllerTest {
+    @Autowired
+    private MockMvc mockMvc; // Para realizar peticiones HTTP
+
+    @MockitoBean
+    private EstadisticasHilosService estadisticasHilosService;
+
+    @Test
+    void obtenerEstadisticas_Exito() throws Exception {
+        // GIVEN
+        when(estadisticasHilosService.obtenerEstadisticas()).thenReturn(new EstadisticasHilosDTO(
+                "virtual", 10, 10, 240, 0, 1, Map.of("org.accesodatos.spring.Ejemplo.metodo:12", 1L)));
+
+        // WHEN & THEN
+        mockMvc.perform(get("/api/admin/hilos"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.modo").value("virtual"))
+                .andExpect(jsonPath("$.maximoConexiones").value(10))
+                .andExpect(jsonPath("$.hilosEsperandoConexion").value(240))
+                .andExpect(jsonPath("$.anclajes").value(1));
+
+        verify(estadisticasHilosService, times(1)).obtenerEstadisticas();
+    }
+}
@@ -0,0 +1,70 @@
+package org.accesodatos.spring.integration.controllers;
+
+import org.accesodatos.spring.controllers.ImportacionRestController;
+import org.accesodatos.spring.dtos.response.ResultadoImportacionDTO;
+import org.accesodatos.spring.services.ImportacionService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.InputStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ImportacionRestController.class)
+@ExtendWith(SpringExtension.class) // Para integración con JUnit 5
+public class ImportacionRestControllerTest {
+    @Autowired
+    private MockMvc mockMvc; // Para realizar peticiones HTTP
+
+    @MockitoBean
+    private ImportacionService importacionService;
+
+    @Test
+    void importarCsv_Exito() throws Exception {
+        // GIVEN
+        when(importacionService.importarTransacciones(any(InputStream.class), eq(false)))
+                .thenReturn(new ResultadoImportacionDTO(2, 1, 10, 200));
+
+        String csv = """
+                id_cuenta,monto,fecha,tipo_transaccion
+                1,100.00,2024-01-01 10:00:00,Deposito
+                1,50.00,2024-01-02 10:00:00,Retiro
+                """;
+
+        // WHEN & THEN
+        mockMvc.perform(post("/api/admin/transacciones/importar")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.filas").value(2))
+                .andExpect(jsonPath("$.cuentasActualizadas").value(1));
+
+        verify(importacionService, times(1)).importarTransacciones(any(InputStream.class), eq(false));
+    }
+
+    @Test
+    void importarBinario_Exito() throws Exception {
+        // GIVEN
+        when(importacionService.importarTransacciones(any(InputStream.class), eq(true)))
+                .thenReturn(new ResultadoImportacionDTO(0, 0, 1, 0));
+
+        // WHEN & THEN
+        mockMvc.perform(post("/api/admin/transacciones/importar")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(new byte[0]))
+                .andExpect(status().isOk());
+
+        verify(importacionService, times(1)).importarTransacciones(any(InputStream.class), eq(true));
+    }
+}
@@ -0,0 +1,46 @@
+package org.accesodatos.spring.integration.controllers;
+
+import org.accesodatos.spring.controllers.OutboxRestController;
+import org.accesodatos.spring.dtos.response.EstadisticasOutboxDTO;
+import org.accesodatos.spring.services.OutboxService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(OutboxRestController.class)
+@ExtendWith(SpringExtension.class) // Para integración con JUnit 5
+public class OutboxRestControllerTest {
+    @Autowired
+    private MockMvc mockMvc; // Para realizar peticiones HTTP
+
+    @MockitoBean
+    private OutboxService outboxService;
+
+    @Test
+    void obtenerEstadisticas_Exito() throws Exception {
+        // GIVEN
+        when(outboxService.obtenerEstadisticas()).thenReturn(new EstadisticasOutboxDTO(
+                List.of("fichero"), 12, 340, 5000, 10, 0, 25000.0, 500, null));
+
+        // WHEN & THEN
+        mockMvc.perform(get("/api/admin/outbox"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sumideros[0]").value("fichero"))
+                .andExpect(jsonPath("$.pendientes").value(12))
+                .andExpect(jsonPath("$.retrasoMs").value(340))
+                .andExpect(jsonPath("$.publicados").value(5000));
+
+        verify(outboxService, times(1)).obtenerEstadisticas();
+    }
+}
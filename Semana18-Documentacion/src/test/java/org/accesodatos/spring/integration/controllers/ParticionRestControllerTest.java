@@ -0,0 +1,53 @@
+package org.accesodatos.spring.integration.controllers;
+
+import org.accesodatos.spring.controllers.ParticionRestController;
+import org.accesodatos.spring.dtos.response.ParticionDTO;
+import org.accesodatos.spring.services.ParticionService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ParticionRestController.class)
+@ExtendWith(SpringExtension.class) // Para integración con JUnit 5
+public class ParticionRestControllerTest {
+    @Autowired
+    private MockMvc mockMvc; // Para realizar peticiones HTTP
+
+    @MockitoBean
+    private ParticionService particionService;
+
+    @Test
+    void obtenerParticiones_Exito() throws Exception {
+        // GIVEN
+        when(particionService.obtenerParticiones())
+                .thenReturn(List.of(new ParticionDTO("transacciones_2024_01", YearMonth.of(2024, 1), 120)));
+
+        // WHEN & THEN
+        mockMvc.perform(get("/api/admin/particiones"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].nombre").value("transacciones_2024_01"))
+                .andExpect(jsonPath("$[0].mes").value("2024-01"));
+    }
+
+    @Test
+    void desacoplarParticion_Exito() throws Exception {
+        // WHEN & THEN
+        mockMvc.perform(post("/api/admin/particiones/{mes}/desacoplar", "2024-01"))
+                .andExpect(status().isNoContent());
+
+        verify(particionService, times(1)).desacoplarParticion(YearMonth.of(2024, 1));
+    }
+}
@@ -0,0 +1,80 @@
+package org.accesodatos.spring.integration.controllers;
+
+import org.accesodatos.spring.controllers.VistaUsuarioRestController;
+import org.accesodatos.spring.dtos.response.PaginaDTO;
+import org.accesodatos.spring.dtos.response.VistaCuentaDTO;
+import org.accesodatos.spring.dtos.response.VistaUsuarioDTO;
+import org.accesodatos.spring.services.VistaUsuarioService;
+import org.accesodatos.spring.utils.CursorUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(VistaUsuarioRestController.class)
+@ExtendWith(SpringExtension.class) // Para integración con JUnit 5
+public class VistaUsuarioRestControllerTest {
+    @Autowired
+    private MockMvc mockMvc; // Para realizar peticiones HTTP
+
+    @MockitoBean
+    private VistaUsuarioService vistaUsuarioService;
+
+    @Test
+    void obtenerVista_Exito() throws Exception {
+        // GIVEN: Usuario con dos cuentas
+        VistaUsuarioDTO vista = new VistaUsuarioDTO(1L, "usuarioTest", "usuario@test.com", LocalDate.of(2024, 1, 1),
+                "Nombre Completo", "123456789", "Direccion Test", 2, 150000L, 3L,
+                List.of(new VistaCuentaDTO(1L, "Corriente", 100000L, 2L), new VistaCuentaDTO(4L, "Ahorros", 50000L, 1L)),
+                LocalDateTime.of(2024, 1, 2, 10, 0));
+        when(vistaUsuarioService.obtenerVista(1L)).thenReturn(vista);
+
+        // WHEN & THEN: Importes en euros
+        mockMvc.perform(get("/api/vistas/usuarios/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nombreCompleto").value("Nombre Completo"))
+                .andExpect(jsonPath("$.saldoTotal").value(1500.00))
+                .andExpect(jsonPath("$.cuentas.length()").value(2))
+                .andExpect(jsonPath("$.cuentas[1].id").value(4))
+                .andExpect(jsonPath("$.cuentas[1].saldo").value(500.00));
+    }
+
+    @Test
+    void obtenerVista_NoExiste() throws Exception {
+        // GIVEN
+        when(vistaUsuarioService.obtenerVista(99L)).thenThrow(new NoSuchElementException("Usuario con id 99 no encontrado"));
+
+        // WHEN & THEN
+        mockMvc.perform(get("/api/vistas/usuarios/{id}", 99L))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void obtenerVistas_DevuelveCabeceraConSiguienteCursor() throws Exception {
+        // GIVEN
+        VistaUsuarioDTO vista = new VistaUsuarioDTO();
+        vista.setId(1L);
+        String cursor = CursorUtils.codificar(1L);
+        when(vistaUsuarioService.obtenerVistasPaginadas(null, 1)).thenReturn(new PaginaDTO<>(List.of(vista), cursor));
+
+        // WHEN & THEN
+        mockMvc.perform(get("/api/vistas/usuarios").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CursorUtils.CABECERA_SIGUIENTE_CURSOR, cursor))
+                .andExpect(jsonPath("$[0].id").value(1));
+    }
+}
@@ -80,7 +80,7 @@ public class TransaccionRepositoryTest {
 
         // Creamos una cuenta para dicho usuario
         cuenta = new Cuenta();
-        cuenta.setSaldo(1000.0);
+        cuenta.setSaldo(100000L);
         cuenta.setFechaCreacion(LocalDateTime.now());
         cuenta.setTipoCuenta("Ahorros");
         cuenta.setUsuario(usuario);
@@ -89,7 +89,7 @@ public class TransaccionRepositoryTest {
 
         // Creamos una transacción para esa cuenta
         transaccion = new Transaccion();
-        transaccion.setMonto(200.0);
+        transaccion.setMonto(20000L);
         transaccion.setFecha(LocalDateTime.now());
         transaccion.setTipoTransaccion("Deposito");
         transaccion.setCuenta(cuenta);
@@ -130,7 +130,7 @@ public class TransaccionRepositoryTest {
         // THEN: Verificamos que la transacción se recupera correctamente
         assertTrue(transaccionRecuperada.isPresent(), "La transacción debe existir");
         assertEquals("Deposito", transaccionRecuperada.get().getTipoTransaccion());
-        assertEquals(200.0, transaccionRecuperada.get().getMonto());
+        assertEquals(20000L, transaccionRecuperada.get().getMonto());
     }
 
     @Test
@@ -140,13 +140,13 @@ public class TransaccionRepositoryTest {
         Long transaccionId = transaccionGuardada.getId();
 
         // WHEN: Actualizamos el monto a 300 y guardamos nuevamente
-        transaccionGuardada.setMonto(300.0);
+        transaccionGuardada.setMonto(30000L);
         transaccionRepository.save(transaccionGuardada);
 
         // THEN: Recuperamos la transacción y verificamos la actualización
         Optional<Transaccion> transaccionActualizada = transaccionRepository.findById(transaccionId);
         assertTrue(transaccionActualizada.isPresent(), "La transacción actualizada debe existir");
-        assertEquals(300.0, transaccionActualizada.get().getMonto(), "El monto actualizado debe ser 300");
+        assertEquals(30000L, transaccionActualizada.get().getMonto(), "El monto actualizado debe ser 300");
     }
 
     @Test
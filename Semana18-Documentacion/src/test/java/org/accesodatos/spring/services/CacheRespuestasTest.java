@@ -0,0 +1,205 @@
+package org.accesodatos.spring.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.accesodatos.spring.cache.CacheRespuestas;
+import org.accesodatos.spring.cache.CacheRespuestas.Tipo;
+import org.accesodatos.spring.cache.RespuestaSerializada;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CacheRespuestasTest {
+
+    private static final Duration TTL = Duration.ofMinutes(1);
+
+    private final AtomicInteger cargas = new AtomicInteger();
+
+    private RespuestaSerializada obtener(CacheRespuestas cache, Tipo tipo, long id, long version) {
+        return cache.obtener(tipo, id, () -> {
+            cargas.incrementAndGet();
+            return Map.of("id", id, "texto", "x".repeat(100));
+        }, dto -> version);
+    }
+
+    @Test
+    void obtener_AciertoDevuelveLosMismosBytesSinCargar() {
+        // GIVEN
+        CacheRespuestas cache = new CacheRespuestas(new ObjectMapper(), 1_000_000, TTL);
+        RespuestaSerializada primera = obtener(cache, Tipo.USUARIO, 1L, 3L);
+
+        // WHEN
+        RespuestaSerializada segunda = obtener(cache, Tipo.USUARIO, 1L, 3L);
+
+        // THEN: Misma entrada, ETag a partir de la versión y una sola carga
+        assertSame(primera, segunda);
+        assertEquals("\"3\"", segunda.etag());
+        assertEquals(1, cargas.get());
+    }
+
+    @Test
+    void invalidarTrasCommit_SinTransaccionSeInvalidaEnElMomento() {
+        // GIVEN
+        CacheRespuestas cache = new CacheRespuestas(new ObjectMapper(), 1_000_000, TTL);
+        obtener(cache, Tipo.CUENTA, 1L, 1L);
+        obtener(cache, Tipo.USUARIO, 1L, 1L);
+
+        // WHEN: Se invalida la cuenta 1, pero no el usuario con el mismo ID
+        cache.invalidarTrasCommit(Tipo.CUENTA, 1L);
+
+        // THEN
+        assertEquals(2L, obtener(cache, Tipo.CUENTA, 1L, 2L).version());
+        assertEquals(1L, obtener(cache, Tipo.USUARIO, 1L, 2L).version());
+        assertEquals(3, cargas.get());
+    }
+
+    @Test
+    void obtener_EntradaCaducadaSeVuelveACargar() throws InterruptedException {
+        // GIVEN: Entradas que caducan a los 20 ms, como red de seguridad frente a escrituras de otros procesos
+        CacheRespuestas cache = new CacheRespuestas(new ObjectMapper(), 1_000_000, Duration.ofMillis(20));
+        obtener(cache, Tipo.CUENTA, 1L, 1L);
+
+        // WHEN: Nadie la invalida, pero pasa su TTL
+        Thread.sleep(50);
+        RespuestaSerializada recargada = obtener(cache, Tipo.CUENTA, 1L, 2L);
+
+        // THEN: Se vuelve a cargar con la versión actual
+        assertEquals(2L, recargada.version());
+        assertEquals(2, cargas.get());
+    }
+
+    @Test
+    void obtener_SeExpulsanLasMenosUsadasAlSuperarElLimiteDeBytes() {
+        // GIVEN: Espacio para unas dos respuestas
+        CacheRespuestas cache = new CacheRespuestas(new ObjectMapper(), 2 * obtener(
+                new CacheRespuestas(new ObjectMapper(), 1_000_000, TTL), Tipo.CUENTA, 0L, 0L).bytes() + 10, TTL);
+        cargas.set(0);
+        obtener(cache, Tipo.CUENTA, 1L, 0L);
+        obtener(cache, Tipo.CUENTA, 2L, 0L);
+        obtener(cache, Tipo.CUENTA, 1L, 0L); // La 1 pasa a ser la más reciente
+
+        // WHEN
+        obtener(cache, Tipo.CUENTA, 3L, 0L);
+
+        // THEN: Se ha expulsado la 2 y la ocupación no supera el límite
+        obtener(cache, Tipo.CUENTA, 1L, 0L);
+        assertEquals(3, cargas.get());
+        obtener(cache, Tipo.CUENTA, 2L, 0L);
+        assertEquals(4, cargas.get());
+        assertTrue(cache.bytesOcupados() <= 2 * obtener(cache, Tipo.CUENTA, 2L, 0L).bytes() + 10);
+    }
+
+    @Test
+    void obtener_NoGuardaUnaLecturaQueCoincideConUnaInvalidacion() {
+        // GIVEN
+        CacheRespuestas cache = new CacheRespuestas(new ObjectMapper(), 1_000_000, TTL);
+
+        // WHEN: Una escritura invalida la cuenta mientras se está cargando
+        cache.obtener(Tipo.CUENTA, 1L, () -> {
+            cargas.incrementAndGet();
+            cache.invalidarTrasCommit(Tipo.CUENTA, 1L);
+            return Map.of("id", 1L);
+        }, dto -> 1L);
+
+        // THEN: La lectura posiblemente obsoleta no queda en caché
+        obtener(cache, Tipo.CUENTA, 1L, 2L);
+        assertEquals(2, cargas.get());
+    }
+
+    @Test
+    void obtener_InvalidarOtraClaveNoDescartaLaCargaEnCurso() {
+        // GIVEN
+        CacheRespuestas cache = new CacheRespuestas(new ObjectMapper(), 1_000_000, TTL);
+
+        // WHEN: Mientras se carga la cuenta 1 se invalidan la cuenta 2 y el usuario 1
+        cache.obtener(Tipo.CUENTA, 1L, () -> {
+            cargas.incrementAndGet();
+            cache.invalidarTrasCommit(Tipo.CUENTA, 2L);
+            cache.invalidarTrasCommit(Tipo.USUARIO, 1L);
+            return Map.of("id", 1L);
+        }, dto -> 1L);
+
+        // THEN: La cuenta 1 sí queda en caché
+        obtener(cache, Tipo.CUENTA, 1L, 2L);
+        assertEquals(1, cargas.get());
+    }
+
+    @Test
+    void obtener_FallosSimultaneosDeLaMismaClaveCarganUnaVez() throws Exception {
+        // GIVEN: La primera carga no termina hasta que las demás peticiones están esperando
+        CacheRespuestas cache = new CacheRespuestas(new ObjectMapper(), 1_000_000, TTL);
+        CountDownLatch cargaIniciada = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService hilos = Executors.newFixedThreadPool(8);
+
+        // WHEN
+        List<Future<RespuestaSerializada>> respuestas = new ArrayList<>();
+        respuestas.add(hilos.submit(() -> cache.obtener(Tipo.USUARIO, 1L, () -> {
+            cargas.incrementAndGet();
+            cargaIniciada.countDown();
+            try {
+                liberar.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return Map.of("id", 1L);
+        }, dto -> 1L)));
+        assertTrue(cargaIniciada.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 7; i++) {
+            respuestas.add(hilos.submit(() -> obtener(cache, Tipo.USUARIO, 1L, 1L)));
+        }
+        Thread.sleep(50);
+        liberar.countDown();
+
+        // THEN: Todas reciben la misma respuesta y solo se ha cargado una vez
+        RespuestaSerializada primera = respuestas.getFirst().get(5, TimeUnit.SECONDS);
+        for (Future<RespuestaSerializada> respuesta : respuestas) {
+            assertSame(primera, respuesta.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, cargas.get());
+        hilos.shutdown();
+    }
+
+    @Test
+    void obtener_LasPeticionesQueEsperanRecibenLaExcepcionDeLaCarga() throws Exception {
+        // GIVEN: La carga falla después de que otra petición se ponga a esperarla
+        CacheRespuestas cache = new CacheRespuestas(new ObjectMapper(), 1_000_000, TTL);
+        CountDownLatch cargaIniciada = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService hilos = Executors.newFixedThreadPool(2);
+        Future<RespuestaSerializada> primera = hilos.submit(() -> cache.obtener(Tipo.CUENTA, 9L, () -> {
+            cargaIniciada.countDown();
+            try {
+                liberar.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            throw new NoSuchElementException("Cuenta con id 9 no encontrada");
+        }, dto -> 1L));
+        assertTrue(cargaIniciada.await(5, TimeUnit.SECONDS));
+        Future<RespuestaSerializada> segunda = hilos.submit(() -> obtener(cache, Tipo.CUENTA, 9L, 1L));
+        Thread.sleep(50);
+
+        // WHEN
+        liberar.countDown();
+
+        // THEN
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> segunda.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(NoSuchElementException.class, ex.getCause());
+        assertThrows(ExecutionException.class, () -> primera.get(5, TimeUnit.SECONDS));
+        assertEquals(0, cargas.get());
+        hilos.shutdown();
+    }
+}
@@ -0,0 +1,126 @@
+package org.accesodatos.spring.services;
+
+import org.accesodatos.spring.exceptions.CarrilesSaturadosException;
+import org.accesodatos.spring.services.impl.CarrilesPorCuenta;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CarrilesPorCuentaTest {
+
+    private final CarrilesPorCuenta carrilesPorCuenta = new CarrilesPorCuenta(4, 100);
+
+    @AfterEach
+    void tearDown() {
+        carrilesPorCuenta.cerrar();
+    }
+
+    @Test
+    void ejecutar_MismaCuentaNuncaEnParalelo() {
+        // GIVEN
+        AtomicInteger enEjecucion = new AtomicInteger();
+        AtomicInteger maximo = new AtomicInteger();
+        var hilosPeticiones = Executors.newFixedThreadPool(8);
+
+        // WHEN: 8 hilos lanzan 200 tareas sobre la misma cuenta
+        List<CompletableFuture<Integer>> futuros = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            futuros.add(CompletableFuture.supplyAsync(() -> carrilesPorCuenta.ejecutar(7L, () -> {
+                maximo.accumulateAndGet(enEjecucion.incrementAndGet(), Math::max);
+                Thread.onSpinWait();
+                return enEjecucion.decrementAndGet();
+            }), hilosPeticiones));
+        }
+        futuros.forEach(CompletableFuture::join);
+        hilosPeticiones.shutdown();
+
+        // THEN
+        assertEquals(1, maximo.get(), "Las tareas de una misma cuenta deben ejecutarse de una en una");
+    }
+
+    @Test
+    void ejecutar_CuentasDistintasEnParalelo() throws Exception {
+        // GIVEN: cada tarea espera a la otra; 1 y 5 compartían carril cuando se repartían por hash entre 4
+        CountDownLatch ambasIniciadas = new CountDownLatch(2);
+        var hilosPeticiones = Executors.newFixedThreadPool(2);
+        var hilos = ConcurrentHashMap.<String>newKeySet();
+
+        // WHEN
+        List<CompletableFuture<Boolean>> futuros = List.of(1L, 5L).stream()
+                .map(id -> CompletableFuture.supplyAsync(() -> carrilesPorCuenta.ejecutar(id, () -> {
+                    hilos.add(Thread.currentThread().getName());
+                    ambasIniciadas.countDown();
+                    try {
+                        return ambasIniciadas.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }), hilosPeticiones))
+                .toList();
+
+        // THEN
+        for (CompletableFuture<Boolean> futuro : futuros) {
+            assertTrue(futuro.get(10, TimeUnit.SECONDS), "Las cuentas distintas no deben esperar entre sí");
+        }
+        assertEquals(2, hilos.size());
+        hilosPeticiones.shutdown();
+    }
+
+    @Test
+    void ejecutar_EliminaLaColaDeLaCuentaAlVaciarse() {
+        // WHEN
+        carrilesPorCuenta.ejecutar(3L, () -> 1);
+        carrilesPorCuenta.ejecutar(4L, () -> 2);
+
+        // THEN
+        assertEquals(0, carrilesPorCuenta.cuentasConPendientes());
+    }
+
+    @Test
+    void ejecutar_RechazaSiHayDemasiadasPendientes() throws Exception {
+        // GIVEN: límite de 1 operación pendiente, ocupado por una tarea bloqueada
+        CarrilesPorCuenta saturados = new CarrilesPorCuenta(2, 1);
+        CountDownLatch iniciada = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        CompletableFuture<Integer> bloqueada = CompletableFuture.supplyAsync(() -> saturados.ejecutar(1L, () -> {
+            iniciada.countDown();
+            try {
+                liberar.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return 1;
+        }));
+        assertTrue(iniciada.await(5, TimeUnit.SECONDS));
+
+        // WHEN / THEN: otra cuenta se rechaza mientras tanto y se admite cuando la primera termina
+        assertThrows(CarrilesSaturadosException.class, () -> saturados.ejecutar(2L, () -> 2));
+        liberar.countDown();
+        assertEquals(1, bloqueada.get(5, TimeUnit.SECONDS));
+        assertEquals(2, saturados.ejecutar(2L, () -> 2));
+        saturados.cerrar();
+    }
+
+    @Test
+    void ejecutar_PropagaLaExcepcionOriginal() {
+        // WHEN
+        NoSuchElementException ex = assertThrows(NoSuchElementException.class,
+                () -> carrilesPorCuenta.ejecutar(1L, () -> {
+                    throw new NoSuchElementException("Cuenta con id 1 no encontrada");
+                }));
+
+        // THEN
+        assertEquals("Cuenta con id 1 no encontrada", ex.getMessage());
+    }
+}
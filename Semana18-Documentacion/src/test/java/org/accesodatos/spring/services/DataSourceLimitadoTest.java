@@ -0,0 +1,75 @@
+package org.accesodatos.spring.services;
+
+import org.accesodatos.spring.config.DataSourceLimitado;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DataSourceLimitadoTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection conexion;
+
+    private DataSourceLimitado dataSourceLimitado;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        // Dos conexiones como máximo y 50 ms de espera
+        dataSourceLimitado = new DataSourceLimitado(dataSource, 2, 50);
+        lenient().when(dataSource.getConnection()).thenReturn(conexion);
+    }
+
+    @Test
+    void getConnection_SinPermisosAgotaLaEspera() throws SQLException {
+        // GIVEN
+        dataSourceLimitado.getConnection();
+        dataSourceLimitado.getConnection();
+
+        // WHEN & THEN: La tercera no llega a pedirse al pool
+        assertThrows(SQLTransientConnectionException.class, () -> dataSourceLimitado.getConnection());
+        verify(dataSource, times(2)).getConnection();
+        assertEquals(2, dataSourceLimitado.conexionesEnUso());
+        assertEquals(1, dataSourceLimitado.esperasAgotadas());
+    }
+
+    @Test
+    void close_DevuelveElPermisoUnaSolaVez() throws SQLException {
+        // GIVEN
+        Connection primera = dataSourceLimitado.getConnection();
+        dataSourceLimitado.getConnection();
+
+        // WHEN: Cerrar dos veces la misma conexión no libera dos permisos
+        primera.close();
+        primera.close();
+
+        // THEN
+        assertEquals(1, dataSourceLimitado.conexionesEnUso());
+        assertNotNull(dataSourceLimitado.getConnection());
+        assertThrows(SQLTransientConnectionException.class, () -> dataSourceLimitado.getConnection());
+        verify(conexion, times(2)).close();
+    }
+
+    @Test
+    void getConnection_ErrorDelPoolDevuelveElPermiso() throws SQLException {
+        // GIVEN
+        when(dataSource.getConnection()).thenThrow(new SQLException("Conexión rechazada"));
+
+        // WHEN & THEN
+        assertThrows(SQLException.class, () -> dataSourceLimitado.getConnection());
+        assertEquals(0, dataSourceLimitado.conexionesEnUso());
+    }
+}
@@ -0,0 +1,68 @@
+package org.accesodatos.spring.services;
+
+import org.accesodatos.spring.dtos.response.ParticionDTO;
+import org.accesodatos.spring.services.impl.ParticionServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ParticionServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private ParticionServiceImpl particionService;
+
+    @Test
+    void asegurarParticiones_SoloCreaLasQueFaltan() {
+        // GIVEN: Ya existe la partición de enero
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of("transacciones_2025_01"));
+
+        // WHEN: Se piden enero, febrero y marzo
+        particionService.asegurarParticiones(YearMonth.of(2025, 1), YearMonth.of(2025, 3));
+
+        // THEN: Cada partición que falta se crea suelta y se acopla con ATTACH PARTITION
+        verify(jdbcTemplate).execute(startsWith("SELECT pg_advisory_xact_lock("));
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS transacciones_2025_02 (LIKE transacciones INCLUDING ALL)");
+        verify(jdbcTemplate).execute("ALTER TABLE transacciones ATTACH PARTITION transacciones_2025_02 " +
+                "FOR VALUES FROM ('2025-02-01') TO ('2025-03-01')");
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS transacciones_2025_03 (LIKE transacciones INCLUDING ALL)");
+        verify(jdbcTemplate).execute("ALTER TABLE transacciones ATTACH PARTITION transacciones_2025_03 " +
+                "FOR VALUES FROM ('2025-03-01') TO ('2025-04-01')");
+        verify(jdbcTemplate, times(5)).execute(anyString());
+    }
+
+    @Test
+    void desacoplarParticion_MesActualNoPermitido() {
+        // WHEN & THEN: Las inserciones del mes en curso se quedarían sin partición
+        assertThrows(IllegalArgumentException.class, () -> particionService.desacoplarParticion(YearMonth.now()));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void desacoplarParticion_NoExiste() {
+        // GIVEN: No hay particiones
+        when(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<ParticionDTO>>any())).thenReturn(List.of());
+
+        // WHEN & THEN
+        assertThrows(NoSuchElementException.class, () -> particionService.desacoplarParticion(YearMonth.of(2020, 1)));
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+}
@@ -0,0 +1,104 @@
+package org.accesodatos.spring.services;
+
+import org.accesodatos.spring.outbox.EventoTransaccion;
+import org.accesodatos.spring.outbox.RelayOutbox;
+import org.accesodatos.spring.outbox.SumideroEventos;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RelayOutboxTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ObjectProvider<SumideroEventos> proveedorSumideros;
+
+    @Mock
+    private SumideroEventos sumidero;
+
+    @BeforeEach
+    void setUp() {
+        // La plantilla de transacciones ejecuta directamente la acción (no hay base de datos)
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(inv -> ((TransactionCallback<?>) inv.getArgument(0)).doInTransaction(null));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void publicarPendientes_PublicaLotesEnOrdenHastaVaciarElOutbox() {
+        // GIVEN: Lotes de 2; el primero llega desordenado y el segundo incompleto
+        when(proveedorSumideros.orderedStream()).thenReturn(Stream.of(sumidero));
+        RelayOutbox relay = new RelayOutbox(jdbcTemplate, transactionTemplate, proveedorSumideros, 2);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any()))
+                .thenReturn(List.of(evento(2), evento(1)))
+                .thenReturn(List.of(evento(3)));
+
+        // WHEN
+        relay.publicarPendientes();
+
+        // THEN: Dos lotes, cada uno ordenado por ID de evento, y no se consulta un tercero
+        verify(sumidero).publicar(List.of(evento(1), evento(2)));
+        verify(sumidero).publicar(List.of(evento(3)));
+        verify(jdbcTemplate, times(2)).query(anyString(), any(RowMapper.class), any());
+        assertEquals(3, relay.eventosPublicados());
+        assertEquals(2, relay.lotesPublicados());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void publicarPendientes_FalloDelSumideroDevuelveElLote() {
+        // GIVEN
+        when(proveedorSumideros.orderedStream()).thenReturn(Stream.of(sumidero));
+        RelayOutbox relay = new RelayOutbox(jdbcTemplate, transactionTemplate, proveedorSumideros, 2);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any())).thenReturn(List.of(evento(1), evento(2)));
+        doThrow(new IllegalStateException("Cola llena")).when(sumidero).publicar(anyList());
+
+        // WHEN
+        relay.publicarPendientes();
+
+        // THEN: La excepción deshace la transacción (los eventos siguen en la tabla) y se cuenta el fallo
+        assertEquals(0, relay.eventosPublicados());
+        assertEquals(1, relay.lotesFallidos());
+        assertEquals("Cola llena", relay.ultimoError());
+    }
+
+    @Test
+    void publicarPendientes_SinSumiderosNoSacaEventos() {
+        // GIVEN
+        when(proveedorSumideros.orderedStream()).thenReturn(Stream.empty());
+        RelayOutbox relay = new RelayOutbox(jdbcTemplate, transactionTemplate, proveedorSumideros, 2);
+
+        // WHEN
+        relay.publicarPendientes();
+
+        // THEN
+        verifyNoInteractions(jdbcTemplate, transactionTemplate);
+    }
+
+    private EventoTransaccion evento(long id) {
+        LocalDateTime fecha = LocalDateTime.of(2025, 3, 1, 10, 0);
+        return new EventoTransaccion(id, 100 + id, 1, "Deposito", 10000, 10000 * id, fecha, fecha);
+    }
+}
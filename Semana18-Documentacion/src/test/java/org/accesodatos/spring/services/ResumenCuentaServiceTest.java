@@ -0,0 +1,98 @@
+package org.accesodatos.spring.services;
+
+import org.accesodatos.spring.models.Transaccion;
+import org.accesodatos.spring.repositories.CuentaRepository;
+import org.accesodatos.spring.services.impl.ResumenCuentaServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ResumenCuentaServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private CuentaRepository cuentaRepository;
+
+    @InjectMocks
+    private ResumenCuentaServiceImpl resumenCuentaService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void acumular_AgrupaPorDiaYPorMes() {
+        // GIVEN: Saldo 1000 -> depósito 200 el 30/01 -> retiro 50 y depósito 10 el 01/02
+        List<Transaccion> transacciones = List.of(
+                nuevaTransaccion(LocalDateTime.of(2025, 1, 30, 10, 0), 20000L, "Deposito", 120000L),
+                nuevaTransaccion(LocalDateTime.of(2025, 2, 1, 9, 0), 5000L, "Retiro", 115000L),
+                nuevaTransaccion(LocalDateTime.of(2025, 2, 1, 18, 0), 1000L, "Deposito", 116000L));
+
+        // WHEN
+        resumenCuentaService.acumular(1L, transacciones);
+
+        // THEN: Un lote de UPSERT por tabla con una fila por periodo y el saldo de su última transacción
+        ArgumentCaptor<List<Object[]>> diarios = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<Object[]>> mensuales = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO resumenes_diarios"), diarios.capture());
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO resumenes_mensuales"), mensuales.capture());
+
+        assertEquals(2, diarios.getValue().size());
+        assertArrayEquals(new Object[]{1L, LocalDate.of(2025, 1, 30), 20000L, 0L, 1L, 120000L}, diarios.getValue().get(0));
+        assertArrayEquals(new Object[]{1L, LocalDate.of(2025, 2, 1), 1000L, 5000L, 2L, 116000L}, diarios.getValue().get(1));
+
+        assertEquals(2, mensuales.getValue().size());
+        assertArrayEquals(new Object[]{1L, LocalDate.of(2025, 1, 1), 20000L, 0L, 1L, 120000L}, mensuales.getValue().get(0));
+        assertArrayEquals(new Object[]{1L, LocalDate.of(2025, 2, 1), 1000L, 5000L, 2L, 116000L}, mensuales.getValue().get(1));
+    }
+
+    @Test
+    void obtenerResumen_GranularidadNoValida() {
+        // WHEN & THEN
+        assertThrows(IllegalArgumentException.class,
+                () -> resumenCuentaService.obtenerResumen(1L, "semana", null, null));
+        verifyNoInteractions(jdbcTemplate, cuentaRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void obtenerResumen_MensualAjustaInicioAlPrimerDiaDelMes() {
+        // GIVEN: Se pide desde el 15 de enero; la fila de enero tiene periodo 1 de enero
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(1L), any(), any())).thenReturn(List.of());
+        when(cuentaRepository.existsById(1L)).thenReturn(false);
+
+        // WHEN & THEN: Sin resultados y sin cuenta -> 404
+        assertThrows(NoSuchElementException.class, () -> resumenCuentaService.obtenerResumen(
+                1L, "MES", LocalDate.of(2025, 1, 15), LocalDate.of(2025, 3, 31)));
+        verify(jdbcTemplate).query(contains("FROM resumenes_mensuales"), any(RowMapper.class),
+                eq(1L), eq(LocalDate.of(2025, 1, 1)), eq(LocalDate.of(2025, 3, 31)));
+    }
+
+    private Transaccion nuevaTransaccion(LocalDateTime fecha, long monto, String tipo, long saldoPosterior) {
+        Transaccion transaccion = new Transaccion();
+        transaccion.setFecha(fecha);
+        transaccion.setMonto(monto);
+        transaccion.setTipoTransaccion(tipo);
+        transaccion.setSaldoPosterior(saldoPosterior);
+        return transaccion;
+    }
+}
@@ -0,0 +1,90 @@
+package org.accesodatos.spring.services;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.accesodatos.spring.dtos.request.create.TransaccionCreateDTO;
+import org.accesodatos.spring.exceptions.SaldoInsuficienteException;
+import org.accesodatos.spring.metricas.TemporizadorMetodos;
+import org.accesodatos.spring.repositories.CuentaRepository;
+import org.accesodatos.spring.services.impl.TransaccionServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+public class TemporizadorMetodosTest {
+
+    private SimpleMeterRegistry registry;
+    private TemporizadorMetodos temporizador;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        temporizador = new TemporizadorMetodos(registry);
+    }
+
+    // Proxy con el aspecto, como el que crea Spring alrededor de cada bean
+    @SuppressWarnings("unchecked")
+    private <T> T conAspecto(T objetivo, Class<T> interfaz) {
+        AspectJProxyFactory factoria = new AspectJProxyFactory(objetivo);
+        factoria.addInterface(interfaz);
+        factoria.addAspect(temporizador);
+        return (T) factoria.getProxy();
+    }
+
+    private Timer temporizador(String metrica, String clase, String metodo, String resultado) {
+        return registry.find(metrica).tags("clase", clase, "metodo", metodo, "resultado", resultado).timer();
+    }
+
+    @Test
+    void servicio_EtiquetaElResultadoDeNegocio() {
+        // GIVEN
+        TransaccionServiceImpl objetivo = mock(TransaccionServiceImpl.class);
+        when(objetivo.crearTransaccion(eq(1L), any(TransaccionCreateDTO.class)))
+                .thenThrow(new SaldoInsuficienteException("Saldo insuficiente para el retiro"));
+        when(objetivo.crearTransaccion(eq(99L), any(TransaccionCreateDTO.class)))
+                .thenThrow(new NoSuchElementException("Cuenta con id 99 no encontrada"));
+        TransaccionService servicio = conAspecto(objetivo, TransaccionService.class);
+
+        // WHEN
+        TransaccionCreateDTO dto = new TransaccionCreateDTO();
+        assertThrows(SaldoInsuficienteException.class, () -> servicio.crearTransaccion(1L, dto));
+        assertThrows(SaldoInsuficienteException.class, () -> servicio.crearTransaccion(1L, dto));
+        assertThrows(NoSuchElementException.class, () -> servicio.crearTransaccion(99L, dto));
+
+        // THEN: una serie por resultado
+        Timer saldoInsuficiente = temporizador(TemporizadorMetodos.METRICA_SERVICIOS,
+                "TransaccionServiceImpl", "crearTransaccion", "saldo_insuficiente");
+        Timer noEncontrada = temporizador(TemporizadorMetodos.METRICA_SERVICIOS,
+                "TransaccionServiceImpl", "crearTransaccion", "no_encontrado");
+        assertNotNull(saldoInsuficiente);
+        assertEquals(2, saldoInsuficiente.count());
+        assertNotNull(noEncontrada);
+        assertEquals(1, noEncontrada.count());
+    }
+
+    @Test
+    void repositorio_OptionalVacioSeEtiquetaComoVacio() {
+        // GIVEN
+        CuentaRepository objetivo = mock(CuentaRepository.class);
+        when(objetivo.aplicarImporte(anyLong(), anyLong())).thenReturn(Optional.of(1000L)).thenReturn(Optional.empty());
+        CuentaRepository repositorio = conAspecto(objetivo, CuentaRepository.class);
+
+        // WHEN
+        repositorio.aplicarImporte(1L, 500L);
+        repositorio.aplicarImporte(1L, -5000L);
+
+        // THEN: la clase es la interfaz del repositorio, no la del proxy
+        assertEquals(1, temporizador(TemporizadorMetodos.METRICA_REPOSITORIOS,
+                "CuentaRepository", "aplicarImporte", "ok").count());
+        assertEquals(1, temporizador(TemporizadorMetodos.METRICA_REPOSITORIOS,
+                "CuentaRepository", "aplicarImporte", "vacio").count());
+    }
+}
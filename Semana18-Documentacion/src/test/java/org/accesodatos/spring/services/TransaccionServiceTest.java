@@ -1,26 +1,41 @@
 package org.accesodatos.spring.services;
 
+import jakarta.validation.Validator;
 import org.accesodatos.spring.dtos.request.create.TransaccionCreateDTO;
+import org.accesodatos.spring.dtos.response.CuentaDTO;
+import org.accesodatos.spring.dtos.response.PaginaDTO;
+import org.accesodatos.spring.dtos.response.ResultadoTransaccionDTO;
 import org.accesodatos.spring.dtos.response.TransaccionDTO;
 import org.accesodatos.spring.mappers.TransaccionMapper;
 import org.accesodatos.spring.models.Cuenta;
 import org.accesodatos.spring.models.Transaccion;
+import org.accesodatos.spring.outbox.EscritorOutbox;
 import org.accesodatos.spring.repositories.CuentaRepository;
 import org.accesodatos.spring.repositories.TransaccionRepository;
+import org.accesodatos.spring.services.impl.CarrilesPorCuenta;
+import org.accesodatos.spring.services.impl.InvalidacionCacheCuentas;
 import org.accesodatos.spring.services.impl.TransaccionServiceImpl;
+import org.accesodatos.spring.utils.CursorUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,6 +50,27 @@ public class TransaccionServiceTest {
     @Mock
     private TransaccionMapper transaccionMapper;
 
+    @Mock
+    private Validator validator;
+
+    @Spy
+    private CarrilesPorCuenta carrilesPorCuenta = new CarrilesPorCuenta(2, 100);
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private InvalidacionCacheCuentas invalidacionCacheCuentas;
+
+    @Mock
+    private ResumenCuentaService resumenCuentaService;
+
+    @Mock
+    private VistaUsuarioService vistaUsuarioService;
+
+    @Mock
+    private EscritorOutbox escritorOutbox;
+
     @InjectMocks
     private TransaccionServiceImpl transaccionService;
 
@@ -45,24 +81,28 @@ public class TransaccionServiceTest {
 
     @BeforeEach
     void setUp() {
+        // La plantilla de transacciones ejecuta directamente la acción (no hay base de datos)
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
         // DATOS DE EJEMPLO
 
         // 1) Configurar una cuenta con saldo inicial
         cuenta = new Cuenta();
         cuenta.setId(1L);
-        cuenta.setSaldo(1000.0);
+        cuenta.setSaldo(100000L);
         cuenta.setTipoCuenta("Ahorros");
         cuenta.setFechaCreacion(LocalDateTime.now());
 
         // 2) DTO para crear una Transaccion (Deposito de 200)
         transaccionCreateDTO = new TransaccionCreateDTO();
-        transaccionCreateDTO.setMonto(200.0);
+        transaccionCreateDTO.setMonto(20000L);
         transaccionCreateDTO.setTipoTransaccion("Deposito");
 
         // 3) Instancia de Transaccion simulada para la llamada a toEntity(...) del mapper
         transaccion = new Transaccion();
         transaccion.setId(5L);
-        transaccion.setMonto(200.0);
+        transaccion.setMonto(20000L);
         transaccion.setTipoTransaccion("Deposito");
         transaccion.setFecha(LocalDateTime.now());
         transaccion.setCuenta(cuenta);
@@ -70,7 +110,7 @@ public class TransaccionServiceTest {
         // 4) Instancia de TransaccionDTO simulada para la llamada a toDto(...) del mapper
         transaccionDTO = new TransaccionDTO();
         transaccionDTO.setId(5L);
-        transaccionDTO.setMonto(200.0);
+        transaccionDTO.setMonto(20000L);
         transaccionDTO.setTipoTransaccion("Deposito");
         transaccionDTO.setFecha(transaccion.getFecha());
     }
@@ -78,8 +118,9 @@ public class TransaccionServiceTest {
     @Test
     void crearTransaccionConDeposito_Exito() {
         // GIVEN (contexto o precondiciones)
-        when(cuentaRepository.findById(1L)).thenReturn(Optional.of(cuenta));
         when(transaccionMapper.toEntity(any(TransaccionCreateDTO.class))).thenReturn(transaccion);
+        when(cuentaRepository.aplicarImporte(1L, 20000L)).thenReturn(Optional.of(120000L));
+        when(cuentaRepository.getReferenceById(1L)).thenReturn(cuenta);
         when(transaccionRepository.save(any(Transaccion.class))).thenReturn(transaccion);
         when(transaccionMapper.toDto(any(Transaccion.class))).thenReturn(transaccionDTO);
 
@@ -90,13 +131,23 @@ public class TransaccionServiceTest {
         assertNotNull(result, "El resultado no debería ser null");
         assertEquals(5L, result.getId(), "El ID de la transacción DTO debería ser 5");
         assertEquals("Deposito", result.getTipoTransaccion(), "El tipo de transacción debería ser 'Deposito'");
-        assertEquals(1200.0, cuenta.getSaldo(), 0.0001, "El saldo de la cuenta debería aumentar en 200");
 
-        verify(cuentaRepository).findById(1L);
+        // El saldo se actualiza en la base de datos con el importe positivo, sin cargar la cuenta
+        verify(cuentaRepository).aplicarImporte(1L, 20000L);
+        verify(cuentaRepository).getReferenceById(1L);
+        // La transacción guarda el saldo que devuelve el UPDATE de la cuenta
+        assertEquals(120000L, transaccion.getSaldoPosterior(), "El saldo posterior debería ser el devuelto por el UPDATE");
+        // La cuenta cacheada tiene el saldo anterior: se expulsa de la caché de segundo nivel
+        verify(invalidacionCacheCuentas).invalidarCuentaTrasCommit(1L);
+        // Los resúmenes se actualizan en la misma transacción
+        verify(resumenCuentaService).acumular(1L, List.of(transaccion));
+        // La vista del usuario suma el importe y la transacción, sin recalcularse
+        verify(vistaUsuarioService).registrarMovimientos(1L, 20000L, 1);
+        // El evento se escribe en el outbox en la misma transacción; se publica después
+        verify(escritorOutbox).registrar(1L, List.of(transaccion));
         verify(transaccionMapper).toEntity(any(TransaccionCreateDTO.class));
         verify(transaccionRepository).save(any(Transaccion.class));
         verify(transaccionMapper).toDto(any(Transaccion.class));
-        verify(cuentaRepository).save(cuenta);
         verifyNoMoreInteractions(cuentaRepository, transaccionRepository, transaccionMapper);
     }
 
@@ -108,8 +159,10 @@ public class TransaccionServiceTest {
         transaccion.setTipoTransaccion("Retiro");
         transaccionDTO.setTipoTransaccion("Retiro");
 
-        when(cuentaRepository.findById(1L)).thenReturn(Optional.of(cuenta));
         when(transaccionMapper.toEntity(any(TransaccionCreateDTO.class))).thenReturn(transaccion);
+        // Con retiro de 200, el saldo final = 1000 - 200 = 800
+        when(cuentaRepository.aplicarImporte(1L, -20000L)).thenReturn(Optional.of(80000L));
+        when(cuentaRepository.getReferenceById(1L)).thenReturn(cuenta);
         when(transaccionRepository.save(any(Transaccion.class))).thenReturn(transaccion);
         when(transaccionMapper.toDto(any(Transaccion.class))).thenReturn(transaccionDTO);
 
@@ -120,27 +173,25 @@ public class TransaccionServiceTest {
         assertNotNull(result);
         assertEquals(5L, result.getId());
         assertEquals("Retiro", result.getTipoTransaccion());
-        // Con retiro de 200, el saldo final = 1000 - 200 = 800
-        assertEquals(800.0, cuenta.getSaldo(), 0.0001);
 
-        verify(cuentaRepository).findById(1L);
+        verify(cuentaRepository).aplicarImporte(1L, -20000L);
+        verify(cuentaRepository).getReferenceById(1L);
         verify(transaccionMapper).toEntity(any(TransaccionCreateDTO.class));
         verify(transaccionRepository).save(any(Transaccion.class));
         verify(transaccionMapper).toDto(any(Transaccion.class));
-        verify(cuentaRepository).save(cuenta);
         verifyNoMoreInteractions(cuentaRepository, transaccionRepository, transaccionMapper);
     }
 
     @Test
     void crearTransaccion_RetiroSaldoInsuficiente() {
         // GIVEN
-        // Bajamos el saldo de la cuenta a 100 -> 100 - 200 = Saldo Insuficiente
-        cuenta.setSaldo(100.0);
+        // El UPDATE condicional no modifica ninguna fila -> Saldo Insuficiente
         transaccionCreateDTO.setTipoTransaccion("Retiro");
         transaccion.setTipoTransaccion("Retiro");
 
-        when(cuentaRepository.findById(1L)).thenReturn(Optional.of(cuenta));
         when(transaccionMapper.toEntity(any(TransaccionCreateDTO.class))).thenReturn(transaccion);
+        when(cuentaRepository.aplicarImporte(1L, -20000L)).thenReturn(Optional.empty());
+        when(cuentaRepository.existsById(1L)).thenReturn(true);
 
         // WHEN
         IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> {
@@ -150,18 +201,21 @@ public class TransaccionServiceTest {
         // THEN
         assertEquals("Saldo insuficiente para el retiro", ex.getMessage());
 
-        verify(cuentaRepository).findById(1L);
         verify(transaccionMapper).toEntity(any(TransaccionCreateDTO.class));
-        // No se llama a transaccionRepository.save ni a cuentaRepository.save
+        verify(cuentaRepository).aplicarImporte(1L, -20000L);
+        verify(cuentaRepository).existsById(1L);
+        // No se guarda la transacción ni se toca el resumen
         verify(transaccionRepository, never()).save(any(Transaccion.class));
-        verify(cuentaRepository, never()).save(any(Cuenta.class));
+        verifyNoInteractions(resumenCuentaService, vistaUsuarioService, escritorOutbox);
         verifyNoMoreInteractions(cuentaRepository, transaccionRepository, transaccionMapper);
     }
 
     @Test
     void crearTransaccion_CuentaNoEncontrada() {
         // GIVEN
-        when(cuentaRepository.findById(1L)).thenReturn(Optional.empty());
+        when(transaccionMapper.toEntity(any(TransaccionCreateDTO.class))).thenReturn(transaccion);
+        when(cuentaRepository.aplicarImporte(1L, 20000L)).thenReturn(Optional.empty());
+        when(cuentaRepository.existsById(1L)).thenReturn(false);
 
         // WHEN
         NoSuchElementException ex = assertThrows(NoSuchElementException.class,
@@ -172,9 +226,10 @@ public class TransaccionServiceTest {
         // THEN
         assertEquals("Cuenta con id 1 no encontrada", ex.getMessage());
 
-        verify(cuentaRepository).findById(1L);
+        verify(transaccionMapper).toEntity(any(TransaccionCreateDTO.class));
+        verify(cuentaRepository).aplicarImporte(1L, 20000L);
+        verify(cuentaRepository).existsById(1L);
         verify(transaccionRepository, never()).save(any(Transaccion.class));
-        verify(cuentaRepository, never()).save(any(Cuenta.class));
         verifyNoMoreInteractions(cuentaRepository, transaccionRepository, transaccionMapper);
     }
 
@@ -184,7 +239,6 @@ public class TransaccionServiceTest {
         transaccionCreateDTO.setTipoTransaccion("Transferencia");
         transaccion.setTipoTransaccion("Transferencia");
 
-        when(cuentaRepository.findById(1L)).thenReturn(Optional.of(cuenta));
         when(transaccionMapper.toEntity(any(TransaccionCreateDTO.class))).thenReturn(transaccion);
 
         // WHEN
@@ -196,10 +250,175 @@ public class TransaccionServiceTest {
         // THEN
         assertEquals("Tipo de transacción no válido", ex.getMessage());
 
-        verify(cuentaRepository).findById(1L);
         verify(transaccionMapper).toEntity(any(TransaccionCreateDTO.class));
+        // No se toca el saldo ni se guarda la transacción
+        verify(cuentaRepository, never()).aplicarImporte(anyLong(), anyLong());
         verify(transaccionRepository, never()).save(any(Transaccion.class));
-        verify(cuentaRepository, never()).save(any(Cuenta.class));
         verifyNoMoreInteractions(cuentaRepository, transaccionRepository, transaccionMapper);
     }
-}
\ No newline at end of file
+
+    @Test
+    void crearTransaccionesEnLote_ValidaContraSaldoAcumulado() {
+        // GIVEN: Saldo 1000 -> deposito 200 (1200) -> retiro 1500 (rechazado) -> retiro 1200 (0)
+        TransaccionCreateDTO deposito = nuevaTransaccionCreateDTO(20000L, "Deposito");
+        TransaccionCreateDTO retiroExcesivo = nuevaTransaccionCreateDTO(150000L, "Retiro");
+        TransaccionCreateDTO retiroTotal = nuevaTransaccionCreateDTO(120000L, "Retiro");
+
+        when(cuentaRepository.findDtoById(1L)).thenReturn(Optional.of(nuevaCuentaDTO(100000L, 3L)));
+        when(cuentaRepository.getReferenceById(1L)).thenReturn(cuenta);
+        when(validator.validate(any(TransaccionCreateDTO.class))).thenReturn(Set.of());
+        when(transaccionMapper.toEntity(any(TransaccionCreateDTO.class))).thenAnswer(inv -> new Transaccion());
+        when(transaccionMapper.toDto(any(Transaccion.class))).thenReturn(transaccionDTO);
+        when(cuentaRepository.sumarSaldo(1L, -100000L, 3L)).thenReturn(Optional.of(4L));
+
+        // WHEN
+        List<ResultadoTransaccionDTO> resultados = transaccionService.crearTransaccionesEnLote(1L,
+                List.of(deposito, retiroExcesivo, retiroTotal));
+
+        // THEN: Se respeta el orden y el retiro excesivo se rechaza
+        assertEquals(3, resultados.size());
+        assertEquals(ResultadoTransaccionDTO.CREADA, resultados.get(0).getEstado());
+        assertEquals(ResultadoTransaccionDTO.RECHAZADA, resultados.get(1).getEstado());
+        assertEquals("Saldo insuficiente para el retiro", resultados.get(1).getError());
+        assertEquals(ResultadoTransaccionDTO.CREADA, resultados.get(2).getEstado());
+        assertEquals(2, resultados.get(2).getIndice());
+
+        // Un solo guardado en lote y una sola actualización con el importe neto (200 - 1200) condicionada a la versión leída
+        // Cada transacción guarda el saldo acumulado tras aplicarla (1200 y 0)
+        verify(transaccionRepository).saveAll(argThat(lote -> ((List<Transaccion>) lote).stream()
+                .map(Transaccion::getSaldoPosterior).toList().equals(List.of(120000L, 0L))));
+        verify(cuentaRepository).sumarSaldo(1L, -100000L, 3L);
+        // Solo se expulsa de la caché la cuenta modificada
+        verify(invalidacionCacheCuentas).invalidarCuentaTrasCommit(1L);
+        verify(cuentaRepository, never()).save(any(Cuenta.class));
+        verify(resumenCuentaService).acumular(eq(1L), argThat(lote -> lote.size() == 2));
+        verify(escritorOutbox).registrar(eq(1L), argThat(lote -> lote.size() == 2));
+        verify(vistaUsuarioService).registrarMovimientos(1L, -100000L, 2);
+    }
+
+    @Test
+    void crearTransaccionesEnLote_ConflictoDeVersionSeReintenta() {
+        // GIVEN: Entre la lectura y el UPDATE otra operación modifica la cuenta (versión 3 -> 4)
+        when(cuentaRepository.findDtoById(1L))
+                .thenReturn(Optional.of(nuevaCuentaDTO(100000L, 3L)))
+                .thenReturn(Optional.of(nuevaCuentaDTO(150000L, 4L)));
+        when(cuentaRepository.getReferenceById(1L)).thenReturn(cuenta);
+        when(validator.validate(any(TransaccionCreateDTO.class))).thenReturn(Set.of());
+        when(transaccionMapper.toEntity(any(TransaccionCreateDTO.class))).thenAnswer(inv -> new Transaccion());
+        when(transaccionMapper.toDto(any(Transaccion.class))).thenReturn(transaccionDTO);
+        when(cuentaRepository.sumarSaldo(1L, 20000L, 3L)).thenReturn(Optional.empty());
+        when(cuentaRepository.sumarSaldo(1L, 20000L, 4L)).thenReturn(Optional.of(5L));
+
+        // WHEN
+        List<ResultadoTransaccionDTO> resultados = transaccionService.crearTransaccionesEnLote(1L,
+                List.of(nuevaTransaccionCreateDTO(20000L, "Deposito")));
+
+        // THEN: El segundo intento lee la versión nueva y se aplica
+        assertEquals(ResultadoTransaccionDTO.CREADA, resultados.getFirst().getEstado());
+        verify(cuentaRepository, times(2)).findDtoById(1L);
+        verify(cuentaRepository).sumarSaldo(1L, 20000L, 4L);
+        // Cada intento pasa por el carril por separado: la espera entre ellos no lo ocupa
+        verify(carrilesPorCuenta, times(2)).ejecutar(eq(1L), any());
+        // El intento fallido no llega a escribir en el outbox
+        verify(escritorOutbox, times(1)).registrar(eq(1L), anyList());
+    }
+
+    @Test
+    void crearTransaccionesEnLote_TodasRechazadasNoModificaLaCuenta() {
+        // GIVEN: Un único retiro mayor que el saldo
+        when(cuentaRepository.findDtoById(1L)).thenReturn(Optional.of(nuevaCuentaDTO(10000L, 0L)));
+        when(cuentaRepository.getReferenceById(1L)).thenReturn(cuenta);
+        when(validator.validate(any(TransaccionCreateDTO.class))).thenReturn(Set.of());
+
+        // WHEN
+        List<ResultadoTransaccionDTO> resultados = transaccionService.crearTransaccionesEnLote(1L,
+                List.of(nuevaTransaccionCreateDTO(20000L, "Retiro")));
+
+        // THEN
+        assertEquals(ResultadoTransaccionDTO.RECHAZADA, resultados.getFirst().getEstado());
+        verify(transaccionRepository, never()).saveAll(anyList());
+        verify(cuentaRepository, never()).sumarSaldo(anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void crearTransaccionesEnLote_CuentaNoEncontrada() {
+        // GIVEN
+        when(cuentaRepository.findDtoById(1L)).thenReturn(Optional.empty());
+
+        // WHEN & THEN
+        assertThrows(NoSuchElementException.class,
+                () -> transaccionService.crearTransaccionesEnLote(1L, List.of(transaccionCreateDTO)));
+        verifyNoInteractions(transaccionRepository);
+    }
+
+    @Test
+    void obtenerHistorial_PrimeraPaginaDevuelveCursorDelUltimoElemento() {
+        // GIVEN: Se piden 2 transacciones de enero y el repositorio devuelve 3 (hay página siguiente)
+        LocalDateTime desde = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime hasta = LocalDateTime.of(2024, 2, 1, 0, 0);
+        TransaccionDTO t3 = new TransaccionDTO(3L, 100L, LocalDateTime.of(2024, 1, 20, 10, 0), "Deposito", 100L);
+        TransaccionDTO t2 = new TransaccionDTO(2L, 100L, LocalDateTime.of(2024, 1, 10, 10, 0), "Deposito", 100L);
+        TransaccionDTO t1 = new TransaccionDTO(1L, 100L, LocalDateTime.of(2024, 1, 5, 10, 0), "Deposito", 100L);
+        when(transaccionRepository.findDtosHistorial(1L, desde, hasta, Long.MIN_VALUE, Limit.of(3)))
+                .thenReturn(List.of(t3, t2, t1));
+
+        // WHEN
+        PaginaDTO<TransaccionDTO> pagina = transaccionService.obtenerHistorial(1L, desde, hasta, null, 2);
+
+        // THEN: La página acaba en t2 y el cursor apunta a su posición; no hace falta comprobar la cuenta
+        assertEquals(List.of(t3, t2), pagina.getContenido());
+        assertEquals(new CursorUtils.PosicionFecha(t2.getFecha(), 2L),
+                CursorUtils.decodificarPosicionFecha(pagina.getSiguienteCursor()));
+        verifyNoInteractions(cuentaRepository);
+    }
+
+    @Test
+    void obtenerHistorial_ContinuaDesdeElCursor() {
+        // GIVEN: Cursor de la página anterior, sin rango de fechas
+        LocalDateTime fechaCursor = LocalDateTime.of(2024, 1, 10, 10, 0);
+        String cursor = CursorUtils.codificar(fechaCursor, 2L);
+        when(transaccionRepository.findDtosHistorial(eq(1L), any(LocalDateTime.class), eq(fechaCursor), eq(2L), eq(Limit.of(51))))
+                .thenReturn(List.of(new TransaccionDTO(1L, 100L, LocalDateTime.of(2024, 1, 5, 10, 0), "Deposito", 100L)));
+
+        // WHEN
+        PaginaDTO<TransaccionDTO> pagina = transaccionService.obtenerHistorial(1L, null, null, cursor, 50);
+
+        // THEN: Última página
+        assertEquals(1, pagina.getContenido().size());
+        assertNull(pagina.getSiguienteCursor());
+    }
+
+    @Test
+    void obtenerHistorial_CuentaNoEncontrada() {
+        // GIVEN: Sin resultados y la cuenta no existe
+        when(transaccionRepository.findDtosHistorial(eq(99L), any(), any(), anyLong(), any())).thenReturn(List.of());
+        when(cuentaRepository.existsById(99L)).thenReturn(false);
+
+        // WHEN & THEN
+        assertThrows(NoSuchElementException.class,
+                () -> transaccionService.obtenerHistorial(99L, null, null, null, 50));
+    }
+
+    @Test
+    void obtenerHistorial_RangoNoValido() {
+        // GIVEN: 'from' posterior a 'to'
+        LocalDateTime desde = LocalDateTime.of(2024, 2, 1, 0, 0);
+        LocalDateTime hasta = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+        // WHEN & THEN: Se rechaza sin consultar la base de datos
+        assertThrows(IllegalArgumentException.class,
+                () -> transaccionService.obtenerHistorial(1L, desde, hasta, null, 50));
+        verifyNoInteractions(transaccionRepository);
+    }
+
+    private CuentaDTO nuevaCuentaDTO(long saldo, Long version) {
+        return new CuentaDTO(1L, saldo, null, "Ahorros", 1L, version);
+    }
+
+    private TransaccionCreateDTO nuevaTransaccionCreateDTO(Long monto, String tipo) {
+        TransaccionCreateDTO dto = new TransaccionCreateDTO();
+        dto.setMonto(monto);
+        dto.setTipoTransaccion(tipo);
+        return dto;
+    }
+}
@@ -3,17 +3,24 @@ package org.accesodatos.spring.services;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import jakarta.validation.Validator;
+import org.accesodatos.spring.cache.CacheRespuestas;
 import org.accesodatos.spring.dtos.request.create.UsuarioCreateDTO;
 import org.accesodatos.spring.dtos.request.patch.UsuarioPatchDTO;
 import org.accesodatos.spring.dtos.request.update.UsuarioUpdateDTO;
+import org.accesodatos.spring.dtos.response.CuentaDTO;
+import org.accesodatos.spring.dtos.response.PaginaDTO;
 import org.accesodatos.spring.dtos.response.PerfilDTO;
 import org.accesodatos.spring.dtos.response.UsuarioDTO;
+import org.accesodatos.spring.exceptions.VersionNoCoincideException;
 import org.accesodatos.spring.mappers.UsuarioMapper;
 import org.accesodatos.spring.models.Perfil;
 import org.accesodatos.spring.models.Usuario;
+import org.accesodatos.spring.repositories.CuentaRepository;
 import org.accesodatos.spring.repositories.UsuarioRepository;
 import org.accesodatos.spring.services.impl.UsuarioServiceImpl;
+import org.accesodatos.spring.utils.CursorUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -21,6 +28,9 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.util.*;
@@ -35,6 +45,9 @@ public class UsuarioServiceTest {
     @Mock
     private UsuarioRepository usuarioRepository;
 
+    @Mock
+    private CuentaRepository cuentaRepository;
+
     @Mock
     private UsuarioMapper usuarioMapper;
 
@@ -44,6 +57,18 @@ public class UsuarioServiceTest {
     @Mock
     private Validator validator;
 
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private CacheRespuestas cacheRespuestas;
+
+    @Mock
+    private VistaUsuarioService vistaUsuarioService;
+
     @InjectMocks
     private UsuarioServiceImpl usuarioService; // La implementación del servicio
 
@@ -56,6 +81,10 @@ public class UsuarioServiceTest {
 
     @BeforeEach
     void setUp() {
+        // La plantilla de transacciones ejecuta directamente la acción (no hay base de datos)
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
         // Configurar un usuario completo con su perfil
         usuario = new Usuario();
         usuario.setId(1L);
@@ -63,6 +92,7 @@ public class UsuarioServiceTest {
         usuario.setPassword("passwordTest");
         usuario.setEmail("usuario@test.com");
         usuario.setFechaRegistro(LocalDate.now());
+        usuario.setVersion(2L);
         usuario.setCuentas(new ArrayList<>());
 
         Perfil perfil = new Perfil();
@@ -103,25 +133,54 @@ public class UsuarioServiceTest {
     }
 
     @Test
-    void obtenerTodosLosUsuarios_Exito() {
-        // GIVEN: El repositorio devuelve una lista con el usuario
-        when(usuarioRepository.findAll()).thenReturn(Collections.singletonList(usuario));
-        when(usuarioMapper.toDto(any(Usuario.class))).thenReturn(usuarioDTO);
+    void obtenerUsuariosPaginados_Exito() {
+        // GIVEN: El repositorio devuelve una página con el usuario (sin fila extra) y sus cuentas
+        CuentaDTO cuentaDTO = new CuentaDTO(10L, 10000L, null, "Ahorros", 1L, 0L);
+        when(usuarioRepository.findDtosSiguientePagina(0L, Limit.of(11))).thenReturn(Collections.singletonList(usuarioDTO));
+        when(cuentaRepository.findDtosByUsuarioIdIn(List.of(1L))).thenReturn(List.of(cuentaDTO));
 
         // WHEN
-        List<UsuarioDTO> resultado = usuarioService.obtenerTodosLosUsuarios();
+        PaginaDTO<UsuarioDTO> resultado = usuarioService.obtenerUsuariosPaginados(null, 10);
 
         // THEN
         assertNotNull(resultado);
-        assertEquals(1, resultado.size());
-        assertEquals(usuarioDTO.getUsername(), resultado.getFirst().getUsername());
+        assertEquals(1, resultado.getContenido().size());
+        assertEquals(usuarioDTO.getUsername(), resultado.getContenido().getFirst().getUsername());
+        assertEquals(List.of(10L), resultado.getContenido().getFirst().getCuentas());
+        assertNull(resultado.getSiguienteCursor(), "No debe haber página siguiente");
+        verifyNoInteractions(usuarioMapper);
+    }
+
+    @Test
+    void obtenerUsuariosPaginados_ConPaginaSiguiente() {
+        // GIVEN: Se pide una página de 1 y el repositorio devuelve la fila extra
+        UsuarioDTO otroUsuarioDTO = new UsuarioDTO();
+        otroUsuarioDTO.setId(2L);
+        when(usuarioRepository.findDtosSiguientePagina(0L, Limit.of(2))).thenReturn(List.of(usuarioDTO, otroUsuarioDTO));
+        when(cuentaRepository.findDtosByUsuarioIdIn(List.of(1L))).thenReturn(List.of());
+
+        // WHEN
+        PaginaDTO<UsuarioDTO> resultado = usuarioService.obtenerUsuariosPaginados(null, 1);
+
+        // THEN: Solo se devuelve el primer usuario y el cursor apunta a su ID
+        assertEquals(1, resultado.getContenido().size());
+        assertEquals(1L, CursorUtils.decodificar(resultado.getSiguienteCursor()));
+        assertTrue(resultado.getContenido().getFirst().getCuentas().isEmpty());
+    }
+
+    @Test
+    void obtenerUsuariosPaginados_CursorInvalido() {
+        // WHEN & THEN: Un cursor mal formado se rechaza sin consultar la base de datos
+        assertThrows(IllegalArgumentException.class, () -> usuarioService.obtenerUsuariosPaginados("no-es-un-cursor", 10));
+        verifyNoInteractions(usuarioRepository);
     }
 
     @Test
     void obtenerUsuarioPorId_Existe() {
-        // GIVEN
+        // GIVEN: Búsqueda por clave primaria, que puede resolverse desde la caché de segundo nivel
+        usuarioDTO.setCuentas(List.of(3L, 4L));
         when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
-        when(usuarioMapper.toDto(any(Usuario.class))).thenReturn(usuarioDTO);
+        when(usuarioMapper.toDto(usuario)).thenReturn(usuarioDTO);
 
         // WHEN
         UsuarioDTO resultado = usuarioService.obtenerUsuarioPorId(1L);
@@ -130,6 +189,8 @@ public class UsuarioServiceTest {
         assertNotNull(resultado);
         assertEquals("usuarioTest", resultado.getUsername());
         assertEquals("usuario@test.com", resultado.getEmail());
+        assertEquals(List.of(3L, 4L), resultado.getCuentas());
+        verifyNoInteractions(cuentaRepository);
     }
 
     @Test
@@ -155,12 +216,14 @@ public class UsuarioServiceTest {
         assertNotNull(resultado);
         assertEquals(1L, resultado.getId());
         assertEquals("usuarioTest", resultado.getUsername());
+        // La vista del usuario se crea en la misma transacción
+        verify(vistaUsuarioService).actualizar(List.of(1L));
     }
 
     @Test
     void actualizarUsuario_Exito() {
         // GIVEN: El repositorio encuentra el usuario y se guarda la entidad actualizada
-        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
+        when(usuarioRepository.findConPerfilYCuentasById(1L)).thenReturn(Optional.of(usuario));
         when(usuarioRepository.save(any(Usuario.class))).thenReturn(usuario);
         when(usuarioMapper.toDto(any(Usuario.class))).thenReturn(usuarioDTO);
 
@@ -169,16 +232,46 @@ public class UsuarioServiceTest {
         usuarioUpdateDTO.setEmail("nuevo@test.com");
 
         // WHEN
-        UsuarioDTO resultado = usuarioService.actualizarUsuario(1L, usuarioUpdateDTO);
+        UsuarioDTO resultado = usuarioService.actualizarUsuario(1L, usuarioUpdateDTO, null);
 
         // THEN: Verificar que el usuario se actualice (según la lógica de tu mapper)
         assertNotNull(resultado);
+        // La respuesta serializada del usuario deja de ser válida al confirmar
+        verify(cacheRespuestas).invalidarTrasCommit(CacheRespuestas.Tipo.USUARIO, 1L);
+        verify(vistaUsuarioService).actualizar(List.of(1L));
+    }
+
+    @Test
+    void actualizarUsuario_ConIfMatchDeLaVersionActual() {
+        // GIVEN: El cliente envía la versión que tiene el usuario (2)
+        when(usuarioRepository.findConPerfilYCuentasById(1L)).thenReturn(Optional.of(usuario));
+        when(usuarioRepository.save(any(Usuario.class))).thenReturn(usuario);
+        when(usuarioMapper.toDto(any(Usuario.class))).thenReturn(usuarioDTO);
+
+        // WHEN
+        UsuarioDTO resultado = usuarioService.actualizarUsuario(1L, usuarioUpdateDTO, 2L);
+
+        // THEN
+        assertNotNull(resultado);
+        verify(usuarioRepository).save(usuario);
+    }
+
+    @Test
+    void actualizarUsuario_ConIfMatchDeOtraVersion() {
+        // GIVEN: El cliente leyó la versión 1, pero el usuario ya está en la 2
+        when(usuarioRepository.findConPerfilYCuentasById(1L)).thenReturn(Optional.of(usuario));
+
+        // WHEN & THEN: Se rechaza sin modificar el usuario
+        assertThrows(VersionNoCoincideException.class,
+                () -> usuarioService.actualizarUsuario(1L, usuarioUpdateDTO, 1L));
+        verify(usuarioRepository, never()).save(any(Usuario.class));
+        verifyNoInteractions(usuarioMapper);
     }
 
     @Test
     void actualizarUsuarioParcial_Exito() throws JsonProcessingException {
         // GIVEN: Configurar el repositorio para que encuentre el usuario existente y se guarde la entidad actualizada
-        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
+        when(usuarioRepository.findConPerfilYCuentasById(1L)).thenReturn(Optional.of(usuario));
         when(usuarioRepository.save(any(Usuario.class))).thenReturn(usuario);
 
         // Stubear convertValue para que devuelva un UsuarioPatchDTO no nulo
@@ -199,7 +292,7 @@ public class UsuarioServiceTest {
         JsonNode patchNode = objectMapper.readTree(jsonPatch);
 
         // WHEN: Se invoca el método de actualización parcial del servicio
-        UsuarioDTO resultado = usuarioService.actualizarUsuarioParcial(1L, patchNode);
+        UsuarioDTO resultado = usuarioService.actualizarUsuarioParcial(1L, patchNode, null);
 
         // THEN: Verificamos que el DTO de respuesta muestra el teléfono actualizado
         assertNotNull(resultado);
@@ -210,7 +303,7 @@ public class UsuarioServiceTest {
     @Test
     void eliminarUsuario_Exito() {
         // GIVEN: El repositorio encuentra el usuario y se elimina
-        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario));
+        when(usuarioRepository.findConPerfilYCuentasById(1L)).thenReturn(Optional.of(usuario));
         doNothing().when(usuarioRepository).delete(any(Usuario.class));
 
         // WHEN
@@ -218,12 +311,13 @@ public class UsuarioServiceTest {
 
         // THEN: Se verifica que se llamó a delete en el repositorio
         verify(usuarioRepository).delete(any(Usuario.class));
+        verify(cacheRespuestas).invalidarTrasCommit(CacheRespuestas.Tipo.USUARIO, 1L);
     }
 
     @Test
     void eliminarUsuario_NoExiste() {
         // GIVEN: El usuario no se encuentra
-        when(usuarioRepository.findById(1L)).thenReturn(Optional.empty());
+        when(usuarioRepository.findConPerfilYCuentasById(1L)).thenReturn(Optional.empty());
 
         // WHEN & THEN: Se espera que se lance una excepción
         assertThrows(IllegalStateException.class, () -> usuarioService.eliminarUsuario(1L));
@@ -0,0 +1,87 @@
+package org.accesodatos.spring.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.accesodatos.spring.services.impl.VistaUsuarioServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class VistaUsuarioServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private VistaUsuarioServiceImpl vistaUsuarioService;
+
+    @Test
+    void actualizar_VuelcaCambiosYBloqueaAntesDeRecalcular() {
+        // WHEN
+        vistaUsuarioService.actualizar(List.of(2L, 1L));
+
+        // THEN: El recálculo lee los cambios pendientes de Hibernate y se hace con los usuarios ya bloqueados
+        ArgumentCaptor<Object> ids = ArgumentCaptor.forClass(Object.class);
+        InOrder orden = inOrder(entityManager, jdbcTemplate);
+        orden.verify(entityManager).flush();
+        orden.verify(jdbcTemplate).queryForList(contains("FOR NO KEY UPDATE"), eq(Long.class), any());
+        orden.verify(jdbcTemplate).queryForList(contains("FROM vistas_usuarios"), eq(Long.class), any());
+        orden.verify(jdbcTemplate).update(startsWith("INSERT INTO vistas_usuarios"), ids.capture());
+        assertArrayEquals(new Long[]{2L, 1L}, (Long[]) ids.getValue());
+    }
+
+    @Test
+    void registrarMovimientos_SumaSinBloquearNiRecalcular() {
+        // WHEN: Dos transacciones de la cuenta 3 con un importe neto de -15 €
+        vistaUsuarioService.registrarMovimientos(3L, -1500L, 2);
+
+        // THEN: Un único UPDATE incremental de la fila del usuario, sin vaciar Hibernate ni bloquear el usuario
+        verify(jdbcTemplate).update(startsWith("UPDATE vistas_usuarios"), eq(-1500L), eq(2), eq(3L), eq(-1500L), eq(2), eq(3L));
+        verifyNoMoreInteractions(jdbcTemplate);
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    void actualizar_SinUsuariosNoHaceNada() {
+        // WHEN
+        vistaUsuarioService.actualizar(List.of());
+
+        // THEN
+        verifyNoInteractions(entityManager, jdbcTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void obtenerVista_NoExiste() {
+        // GIVEN
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(99L))).thenReturn(List.of());
+
+        // WHEN & THEN
+        assertThrows(NoSuchElementException.class, () -> vistaUsuarioService.obtenerVista(99L));
+    }
+}
@@ -0,0 +1,13 @@
+package org.accesodatos.spring;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class Semana18ReactivoApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(Semana18ReactivoApplication.class, args);
+    }
+
+}
@@ -0,0 +1,101 @@
+package org.accesodatos.spring.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.accesodatos.spring.dtos.request.create.TransaccionCreateDTO;
+import org.accesodatos.spring.dtos.response.CuentaDTO;
+import org.accesodatos.spring.dtos.response.PaginaDTO;
+import org.accesodatos.spring.dtos.response.TransaccionDTO;
+import org.accesodatos.spring.services.CuentaService;
+import org.accesodatos.spring.services.TransaccionService;
+import org.accesodatos.spring.utils.CursorUtils;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Mismas rutas y respuestas que CuentaRestController de Semana18-Documentacion para las lecturas de cuentas,
+ * el historial y el registro de transacciones, sin bloquear ningún hilo mientras se espera a la base de datos.
+ */
+@RestController
+@RequestMapping("/api/cuentas")
+@RequiredArgsConstructor
+public class CuentaRestController {
+    private final CuentaService cuentaService;
+    private final TransaccionService transaccionService;
+
+    @GetMapping
+    @Operation(summary = "Obtiene las cuentas paginadas por cursor",
+            description = "El cursor de la página siguiente se devuelve en la cabecera " + CursorUtils.CABECERA_SIGUIENTE_CURSOR)
+    public Mono<ResponseEntity<List<CuentaDTO>>> obtenerTodasLasCuentas(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "" + CursorUtils.LIMITE_POR_DEFECTO) int limit) {
+        return cuentaService.obtenerCuentasPaginadas(after, limit).map(this::respuestaPaginada);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Exporta todas las cuentas en formato NDJSON (una cuenta por línea)",
+            description = "Las filas se leen de la base de datos al ritmo al que el cliente consume la respuesta")
+    public Flux<CuentaDTO> exportarCuentas() {
+        return cuentaService.exportarCuentas(); // 200 OK
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Obtiene una cuenta por su ID")
+    public Mono<ResponseEntity<CuentaDTO>> obtenerCuentaPorId(@PathVariable Long id) {
+        return cuentaService.obtenerCuentaPorId(id)
+                .map(cuenta -> ResponseEntity.ok()
+                        .eTag(String.valueOf(cuenta.getVersion()))
+                        .body(cuenta)); // 200 OK
+    }
+
+    @GetMapping("/usuario/{id}")
+    @Operation(summary = "Obtiene las cuentas de un usuario por su ID")
+    public Mono<ResponseEntity<List<CuentaDTO>>> obtenerCuentasPorUsuarioId(@PathVariable Long id) {
+        return cuentaService.obtenerCuentasPorIdUsuario(id)
+                .collectList()
+                .map(cuentas -> cuentas.isEmpty()
+                        ? ResponseEntity.noContent().<List<CuentaDTO>>build() // 204 No Content
+                        : ResponseEntity.ok(cuentas)); // 200 OK
+    }
+
+    @GetMapping("/{id}/transacciones")
+    @Operation(summary = "Obtiene el historial de transacciones de una cuenta, de más reciente a más antigua",
+            description = "Rango opcional [from, to) en formato ISO (2024-01-31T00:00:00). " +
+                    "El cursor de la página siguiente se devuelve en la cabecera " + CursorUtils.CABECERA_SIGUIENTE_CURSOR)
+    public Mono<ResponseEntity<List<TransaccionDTO>>> obtenerHistorialTransacciones(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "" + CursorUtils.LIMITE_POR_DEFECTO) int limit) {
+        return transaccionService.obtenerHistorial(id, from, to, after, limit).map(this::respuestaPaginada);
+    }
+
+    @PostMapping("/{id}/transacciones")
+    @Operation(summary = "Crea una nueva transacción para una cuenta")
+    public Mono<ResponseEntity<TransaccionDTO>> crearTransaccion(@PathVariable Long id,
+                                                                 @Valid @RequestBody TransaccionCreateDTO dto) {
+        return transaccionService.crearTransaccion(id, dto)
+                .map(transaccion -> ResponseEntity.status(HttpStatus.CREATED).body(transaccion));
+    }
+
+    private <T> ResponseEntity<List<T>> respuestaPaginada(PaginaDTO<T> pagina) {
+        if (pagina.getContenido().isEmpty()) {
+            return ResponseEntity.noContent().build(); // 204 No Content
+        }
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+        if (pagina.getSiguienteCursor() != null) {
+            respuesta.header(CursorUtils.CABECERA_SIGUIENTE_CURSOR, pagina.getSiguienteCursor());
+        }
+        return respuesta.body(pagina.getContenido()); // 200 OK
+    }
+}
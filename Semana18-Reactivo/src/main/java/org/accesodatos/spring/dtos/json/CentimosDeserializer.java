@@ -0,0 +1,44 @@
+package org.accesodatos.spring.dtos.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Lee un importe JSON en euros (número o texto, p. ej. 1250.5) y lo convierte a céntimos de forma exacta.
+ * Se rechazan los importes con más de dos decimales en lugar de redondearlos.
+ */
+public class CentimosDeserializer extends StdDeserializer<Long> {
+
+    public CentimosDeserializer() {
+        super(Long.class);
+    }
+
+    @Override
+    public Long deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.currentToken();
+        BigDecimal importe;
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            importe = p.getDecimalValue();
+        } else if (token == JsonToken.VALUE_STRING) {
+            try {
+                importe = new BigDecimal(p.getText().trim());
+            } catch (NumberFormatException e) {
+                return (Long) ctxt.handleWeirdStringValue(Long.class, p.getText(), "Importe no válido");
+            }
+        } else {
+            return (Long) ctxt.handleUnexpectedToken(Long.class, p);
+        }
+
+        try {
+            return importe.movePointRight(2).longValueExact();
+        } catch (ArithmeticException e) {
+            return (Long) ctxt.handleWeirdNumberValue(Long.class, importe,
+                    "El importe debe tener como máximo dos decimales");
+        }
+    }
+}
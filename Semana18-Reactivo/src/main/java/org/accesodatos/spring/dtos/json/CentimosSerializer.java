@@ -0,0 +1,35 @@
+package org.accesodatos.spring.dtos.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Escribe un importe en céntimos como número JSON con dos decimales (125050 -> 1250.50),
+ * sin pasar por double ni BigDecimal.
+ */
+public class CentimosSerializer extends StdSerializer<Long> {
+
+    public CentimosSerializer() {
+        super(Long.class);
+    }
+
+    @Override
+    public void serialize(Long centimos, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        long valor = centimos;
+        long absoluto = Math.abs(valor);
+        long decimales = absoluto % 100;
+        StringBuilder texto = new StringBuilder(24);
+        if (valor < 0) {
+            texto.append('-');
+        }
+        texto.append(absoluto / 100).append('.');
+        if (decimales < 10) {
+            texto.append('0');
+        }
+        texto.append(decimales);
+        gen.writeNumber(texto.toString());
+    }
+}
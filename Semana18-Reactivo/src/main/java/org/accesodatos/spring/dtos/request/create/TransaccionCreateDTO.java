@@ -0,0 +1,25 @@
+package org.accesodatos.spring.dtos.request.create;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+import org.accesodatos.spring.dtos.json.CentimosDeserializer;
+import org.accesodatos.spring.dtos.json.CentimosSerializer;
+
+@Data
+public class TransaccionCreateDTO {
+    // Importe en céntimos; en JSON se expresa en euros con dos decimales
+    @NotNull(message = "El monto es obligatorio")
+    @Min(value = 0, message = "El monto no puede ser negativo")
+    @JsonSerialize(using = CentimosSerializer.class)
+    @JsonDeserialize(using = CentimosDeserializer.class)
+    private Long monto;
+
+    @NotBlank(message = "El tipo de transacción es obligatorio")
+    @Pattern(regexp = "Deposito|Retiro", message = "El tipo de transacción debe ser 'Deposito' o 'Retiro'")
+    private String tipoTransaccion;
+}
@@ -0,0 +1,27 @@
+package org.accesodatos.spring.dtos.response;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.accesodatos.spring.dtos.json.CentimosDeserializer;
+import org.accesodatos.spring.dtos.json.CentimosSerializer;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransaccionDTO {
+    private Long id;
+    // Importe en céntimos; en JSON se expresa en euros con dos decimales
+    @JsonSerialize(using = CentimosSerializer.class)
+    @JsonDeserialize(using = CentimosDeserializer.class)
+    private long monto;
+    private LocalDateTime fecha;
+    private String tipoTransaccion;
+    // Saldo de la cuenta tras esta transacción (céntimos; en JSON, euros)
+    @JsonSerialize(using = CentimosSerializer.class)
+    private Long saldoPosterior;
+}
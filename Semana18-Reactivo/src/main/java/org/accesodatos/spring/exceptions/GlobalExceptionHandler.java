@@ -0,0 +1,74 @@
+package org.accesodatos.spring.exceptions;
+
+import org.springframework.core.codec.DecodingException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebInputException;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+// Mismas respuestas de error que el GlobalExceptionHandler de la aplicación bloqueante, con las excepciones de WebFlux
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<Map<String, Object>> handleValidationExceptions(WebExchangeBindException ex) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("error", "Validación fallida");
+        errorResponse.put("details", ex.getBindingResult().getFieldErrors().stream()
+                .collect(Collectors.toMap(
+                        FieldError::getField,
+                        fieldError -> Optional.ofNullable(fieldError.getDefaultMessage())
+                                .orElse("Mensaje de error no disponible"),
+                        (primero, segundo) -> primero
+                )));
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+    }
+
+    @ExceptionHandler(NoSuchElementException.class)
+    public ResponseEntity<Map<String, String>> handleNoSuchElementException(NoSuchElementException ex) {
+        Map<String, String> errorResponse = new HashMap<>();
+        errorResponse.put("error", "Recurso no encontrado");
+        errorResponse.put("details", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+    }
+
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Map<String, String>> handleDataIntegrityViolationException(DataIntegrityViolationException ex) {
+        Map<String, String> errorResponse = new HashMap<>();
+        errorResponse.put("error", "Error de integridad de datos");
+        errorResponse.put("details", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleIllegalArgumentException(IllegalArgumentException ex) {
+        Map<String, String> errorResponse = new HashMap<>();
+        errorResponse.put("error", "Argumento ilegal");
+        errorResponse.put("details", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+    }
+
+    // Cuerpo ilegible o parámetros con tipo incorrecto (equivalen a HttpMessageNotReadableException
+    // y MethodArgumentTypeMismatchException de Spring MVC)
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<Map<String, String>> handleServerWebInputException(ServerWebInputException ex) {
+        Map<String, String> errorResponse = new HashMap<>();
+        errorResponse.put("error", ex.getCause() instanceof DecodingException
+                ? "Cuerpo de la petición no válido" : "Tipo de argumento incorrecto");
+        errorResponse.put("details", ex.getMostSpecificCause().getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<Map<String, String>> handleGeneralException(Exception ex) {
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", "Error interno del servidor.", "details", String.valueOf(ex.getMessage())));
+    }
+}
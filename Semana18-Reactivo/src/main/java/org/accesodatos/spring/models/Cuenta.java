@@ -0,0 +1,32 @@
+package org.accesodatos.spring.models;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+// Sin relaciones: en R2DBC no hay carga perezosa, el usuario y las transacciones se consultan por su ID
+@Data
+@Table("cuentas")
+public class Cuenta {
+    @Id
+    @Column("id_cuenta")
+    private Long id;
+
+    // Céntimos (BIGINT)
+    private long saldo;
+
+    @Column("fecha_creacion")
+    private LocalDateTime fechaCreacion;
+
+    @Column("tipo_cuenta")
+    private String tipoCuenta;
+
+    @Column("id_usuario")
+    private Long idUsuario;
+
+    // Los UPDATE de saldo la incrementan a mano, igual que en la aplicación bloqueante
+    private Long version;
+}
@@ -0,0 +1,36 @@
+package org.accesodatos.spring.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("transacciones")
+public class Transaccion {
+    // Se asigna antes de insertar (GeneradorIdsTransaccion), como el pooled-lo de Hibernate
+    @Id
+    @Column("id_transaccion")
+    private Long id;
+
+    @Column("id_cuenta")
+    private Long idCuenta;
+
+    // Céntimos (BIGINT)
+    private long monto;
+
+    private LocalDateTime fecha;
+
+    @Column("tipo_transaccion")
+    private String tipoTransaccion;
+
+    // Saldo de la cuenta justo después de aplicar esta transacción, en céntimos
+    @Column("saldo_posterior")
+    private Long saldoPosterior;
+}
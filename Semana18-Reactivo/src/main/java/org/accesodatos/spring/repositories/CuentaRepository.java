@@ -0,0 +1,22 @@
+package org.accesodatos.spring.repositories;
+
+import org.accesodatos.spring.models.Cuenta;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface CuentaRepository extends ReactiveCrudRepository<Cuenta, Long> {
+    @Query("SELECT * FROM cuentas WHERE id_usuario = :usuarioId ORDER BY id_cuenta")
+    Flux<Cuenta> findByUsuarioId(Long usuarioId);
+
+    // Paginación keyset: se busca por clave primaria en lugar de usar OFFSET
+    @Query("SELECT * FROM cuentas WHERE id_cuenta > :despuesDe ORDER BY id_cuenta LIMIT :limite")
+    Flux<Cuenta> findSiguientePagina(long despuesDe, int limite);
+
+    // Movimiento atómico: el saldo se modifica en la propia sentencia y solo si no queda en negativo.
+    // Si no devuelve fila, la cuenta no existe o el saldo es insuficiente
+    @Query("UPDATE cuentas SET saldo = saldo + :importe, version = version + 1 " +
+            "WHERE id_cuenta = :id AND saldo + :importe >= 0 RETURNING saldo")
+    Mono<Long> aplicarImporte(Long id, long importe);
+}
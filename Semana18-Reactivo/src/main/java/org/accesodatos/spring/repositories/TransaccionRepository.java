@@ -0,0 +1,24 @@
+package org.accesodatos.spring.repositories;
+
+import org.accesodatos.spring.models.Transaccion;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface TransaccionRepository extends ReactiveCrudRepository<Transaccion, Long> {
+    // Transacciones de varias cuentas en una sola consulta, en el mismo orden que en la aplicación bloqueante
+    @Query("SELECT * FROM transacciones WHERE id_cuenta IN (:cuentaIds) ORDER BY id_transaccion")
+    Flux<Transaccion> findByCuentaIdIn(Collection<Long> cuentaIds);
+
+    // Historial con búsqueda por posición (seek), la misma consulta que en la aplicación bloqueante.
+    // La condición fecha <= :fechaAntesDe es redundante con la comparación de filas, pero PostgreSQL solo
+    // descarta particiones con condiciones simples sobre fecha
+    @Query("SELECT * FROM transacciones WHERE id_cuenta = :cuentaId AND fecha >= :desde AND fecha <= :fechaAntesDe " +
+            "AND (fecha, id_transaccion) < (:fechaAntesDe, :idAntesDe) " +
+            "ORDER BY fecha DESC, id_transaccion DESC LIMIT :limite")
+    Flux<Transaccion> findHistorial(Long cuentaId, LocalDateTime desde, LocalDateTime fechaAntesDe,
+                                    long idAntesDe, int limite);
+}
@@ -0,0 +1,13 @@
+package org.accesodatos.spring.services;
+
+import org.accesodatos.spring.dtos.response.CuentaDTO;
+import org.accesodatos.spring.dtos.response.PaginaDTO;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface CuentaService {
+    Mono<PaginaDTO<CuentaDTO>> obtenerCuentasPaginadas(String cursor, int limite);
+    Flux<CuentaDTO> exportarCuentas();
+    Mono<CuentaDTO> obtenerCuentaPorId(Long id);
+    Flux<CuentaDTO> obtenerCuentasPorIdUsuario(Long idUsuario);
+}
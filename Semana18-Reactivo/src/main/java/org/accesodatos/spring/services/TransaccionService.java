@@ -0,0 +1,14 @@
+package org.accesodatos.spring.services;
+
+import org.accesodatos.spring.dtos.request.create.TransaccionCreateDTO;
+import org.accesodatos.spring.dtos.response.PaginaDTO;
+import org.accesodatos.spring.dtos.response.TransaccionDTO;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+public interface TransaccionService {
+    Mono<PaginaDTO<TransaccionDTO>> obtenerHistorial(Long idCuenta, LocalDateTime desde, LocalDateTime hasta,
+                                                     String cursor, int limite);
+    Mono<TransaccionDTO> crearTransaccion(Long idCuenta, TransaccionCreateDTO dto);
+}
@@ -0,0 +1,122 @@
+package org.accesodatos.spring.services.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.accesodatos.spring.dtos.response.CuentaDTO;
+import org.accesodatos.spring.dtos.response.PaginaDTO;
+import org.accesodatos.spring.dtos.response.TransaccionDTO;
+import org.accesodatos.spring.models.Cuenta;
+import org.accesodatos.spring.models.Transaccion;
+import org.accesodatos.spring.repositories.CuentaRepository;
+import org.accesodatos.spring.repositories.TransaccionRepository;
+import org.accesodatos.spring.services.CuentaService;
+import org.accesodatos.spring.utils.CursorUtils;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+@Service
+@RequiredArgsConstructor
+public class CuentaServiceImpl implements CuentaService {
+    // Filas que PostgreSQL entrega en cada bloque del cursor, como en CuentaRepository.streamAll() de la aplicación bloqueante
+    private static final int TAMANO_BLOQUE_EXPORTACION = 500;
+
+    private final CuentaRepository cuentaRepository;
+    private final TransaccionRepository transaccionRepository;
+    private final DatabaseClient databaseClient;
+
+    // Fila de la exportación: la cuenta y una de sus transacciones (null si no tiene ninguna)
+    private record FilaExportacion(CuentaDTO cuenta, TransaccionDTO transaccion) {
+    }
+
+    @Override
+    public Mono<PaginaDTO<CuentaDTO>> obtenerCuentasPaginadas(String cursor, int limite) {
+        long despuesDe = CursorUtils.decodificar(cursor);
+        int tamanoPagina = CursorUtils.normalizarLimite(limite);
+
+        // Se lee una fila de más para saber si existe página siguiente
+        return cuentaRepository.findSiguientePagina(despuesDe, tamanoPagina + 1)
+                .collectList()
+                .map(cuentas -> CursorUtils.paginar(cuentas, tamanoPagina, Cuenta::getId, this::toDto))
+                .flatMap(pagina -> asignarTransacciones(pagina.getContenido()).thenReturn(pagina));
+    }
+
+    /**
+     * Todas las cuentas según las pide el cliente. Con fetchSize el driver lee la consulta por bloques y solo pide
+     * el siguiente cuando se ha consumido el anterior: si el cliente lee despacio, la consulta se detiene en lugar de
+     * acumular filas en memoria. Necesita una transacción para que PostgreSQL mantenga abierto el cursor.
+     * <p>
+     * Las transacciones llegan en la misma consulta, una fila por transacción y ordenadas por cuenta, y se agrupan
+     * al pasar de una cuenta a la siguiente: otra consulta por cuenta tendría que esperar a que se cerrase el cursor.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<CuentaDTO> exportarCuentas() {
+        return databaseClient.sql("SELECT c.id_cuenta, c.saldo, c.fecha_creacion, c.tipo_cuenta, c.id_usuario, c.version, " +
+                        "t.id_transaccion, t.monto, t.fecha, t.tipo_transaccion, t.saldo_posterior " +
+                        "FROM cuentas c LEFT JOIN transacciones t ON t.id_cuenta = c.id_cuenta " +
+                        "ORDER BY c.id_cuenta, t.id_transaccion")
+                .filter(sentencia -> sentencia.fetchSize(TAMANO_BLOQUE_EXPORTACION))
+                .map(fila -> new FilaExportacion(
+                        new CuentaDTO(fila.get("id_cuenta", Long.class), fila.get("saldo", Long.class),
+                                fila.get("fecha_creacion", LocalDateTime.class), fila.get("tipo_cuenta", String.class),
+                                fila.get("id_usuario", Long.class), fila.get("version", Long.class)),
+                        fila.get("id_transaccion") == null ? null
+                                : new TransaccionDTO(fila.get("id_transaccion", Long.class), fila.get("monto", Long.class),
+                                        fila.get("fecha", LocalDateTime.class), fila.get("tipo_transaccion", String.class),
+                                        fila.get("saldo_posterior", Long.class))))
+                .all()
+                .bufferUntilChanged(fila -> fila.cuenta().getId())
+                .map(filas -> {
+                    CuentaDTO cuenta = filas.get(0).cuenta();
+                    List<TransaccionDTO> transacciones = new ArrayList<>(filas.size());
+                    for (FilaExportacion fila : filas) {
+                        if (fila.transaccion() != null) {
+                            transacciones.add(fila.transaccion());
+                        }
+                    }
+                    cuenta.setTransacciones(transacciones);
+                    return cuenta;
+                });
+    }
+
+    @Override
+    public Mono<CuentaDTO> obtenerCuentaPorId(Long id) {
+        return cuentaRepository.findById(id)
+                .map(this::toDto)
+                .switchIfEmpty(Mono.error(() -> new NoSuchElementException("Cuenta con id " + id + " no encontrada")))
+                .flatMap(cuenta -> asignarTransacciones(List.of(cuenta)).thenReturn(cuenta));
+    }
+
+    @Override
+    public Flux<CuentaDTO> obtenerCuentasPorIdUsuario(Long idUsuario) {
+        return cuentaRepository.findByUsuarioId(idUsuario)
+                .map(this::toDto)
+                .collectList()
+                .flatMapMany(cuentas -> asignarTransacciones(cuentas).thenMany(Flux.fromIterable(cuentas)));
+    }
+
+    // Carga las transacciones de todas las cuentas con una única consulta y las reparte por cuenta
+    private Mono<Void> asignarTransacciones(List<CuentaDTO> cuentas) {
+        if (cuentas.isEmpty()) {
+            return Mono.empty();
+        }
+        List<Long> idsCuentas = cuentas.stream().map(CuentaDTO::getId).toList();
+        return transaccionRepository.findByCuentaIdIn(idsCuentas)
+                .collectMultimap(Transaccion::getIdCuenta, TransaccionServiceImpl::toDto)
+                .doOnNext(transaccionesPorCuenta -> cuentas.forEach(cuenta -> cuenta.setTransacciones(
+                        new ArrayList<>(transaccionesPorCuenta.getOrDefault(cuenta.getId(), List.of())))))
+                .then();
+    }
+
+    private CuentaDTO toDto(Cuenta cuenta) {
+        return new CuentaDTO(cuenta.getId(), cuenta.getSaldo(), cuenta.getFechaCreacion(), cuenta.getTipoCuenta(),
+                cuenta.getIdUsuario(), cuenta.getVersion());
+    }
+}
@@ -0,0 +1,92 @@
+package org.accesodatos.spring.services.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.accesodatos.spring.models.Transaccion;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Tablas que la aplicación bloqueante mantiene en la misma transacción que cada inserción: resúmenes diario
+ * y mensual, vista del usuario y outbox (migraciones 07 a 09 de Semana18-Documentacion). Se usan las mismas
+ * sentencias para que las dos aplicaciones puedan escribir sobre la misma base de datos.
+ * <p>
+ * Las cachés de la aplicación bloqueante no ven estas escrituras: cada movimiento hace NOTIFY cuentas_modificadas
+ * con el ID de la cuenta, que PostgreSQL entrega tras el commit a su EscuchaCambiosCuentas.
+ */
+@Component
+@RequiredArgsConstructor
+public class EscriturasDerivadas {
+    private final DatabaseClient databaseClient;
+
+    public Mono<Void> registrar(Transaccion transaccion) {
+        return acumularResumen("resumenes_diarios", "fecha::DATE", transaccion)
+                .then(acumularResumen("resumenes_mensuales", "date_trunc('month', fecha)::DATE", transaccion))
+                .then(registrarOutbox(transaccion))
+                .then(notificarCambio(transaccion))
+                // La última: la fila de la vista es compartida por las cuentas del usuario y queda bloqueada hasta el commit
+                .then(actualizarVistaUsuario(transaccion));
+    }
+
+    // El nombre de la tabla y la expresión del periodo son constantes de esta clase, no datos del cliente
+    private Mono<Void> acumularResumen(String tabla, String periodo, Transaccion transaccion) {
+        boolean deposito = "Deposito".equalsIgnoreCase(transaccion.getTipoTransaccion());
+        long monto = Math.abs(transaccion.getMonto());
+        return databaseClient.sql("INSERT INTO " + tabla + " AS r " +
+                        "(id_cuenta, periodo, total_depositos, total_retiros, num_transacciones, saldo_cierre) " +
+                        "SELECT :idCuenta, " + periodo + ", :depositos, :retiros, 1, :saldo " +
+                        "FROM (SELECT CAST(:fecha AS TIMESTAMP) AS fecha) f " +
+                        "ON CONFLICT (id_cuenta, periodo) DO UPDATE SET " +
+                        "total_depositos = r.total_depositos + EXCLUDED.total_depositos, " +
+                        "total_retiros = r.total_retiros + EXCLUDED.total_retiros, " +
+                        "num_transacciones = r.num_transacciones + EXCLUDED.num_transacciones, " +
+                        "saldo_cierre = EXCLUDED.saldo_cierre")
+                .bind("idCuenta", transaccion.getIdCuenta())
+                .bind("fecha", transaccion.getFecha())
+                .bind("depositos", deposito ? monto : 0L)
+                .bind("retiros", deposito ? 0L : monto)
+                .bind("saldo", transaccion.getSaldoPosterior())
+                .then();
+    }
+
+    // Mismo UPDATE incremental que VistaUsuarioServiceImpl.registrarMovimientos: suma el importe y la transacción
+    // al total del usuario y a la entrada de la cuenta, sin bloquear el usuario ni recalcular la fila
+    private Mono<Void> actualizarVistaUsuario(Transaccion transaccion) {
+        long importe = "Deposito".equalsIgnoreCase(transaccion.getTipoTransaccion())
+                ? Math.abs(transaccion.getMonto()) : -Math.abs(transaccion.getMonto());
+        return databaseClient.sql("""
+                        UPDATE vistas_usuarios v
+                        SET saldo_total = v.saldo_total + :importe,
+                            num_transacciones = v.num_transacciones + 1,
+                            cuentas = COALESCE((SELECT jsonb_agg(CASE WHEN (e ->> 'id')::BIGINT = :idCuenta
+                                                                      THEN e || jsonb_build_object(
+                                                                          'saldo', (e ->> 'saldo')::BIGINT + :importe,
+                                                                          'numTransacciones', (e ->> 'numTransacciones')::BIGINT + 1)
+                                                                      ELSE e END ORDER BY a.posicion)
+                                                FROM jsonb_array_elements(v.cuentas) WITH ORDINALITY a(e, posicion)), '[]'),
+                            actualizado = now()
+                        WHERE v.id_usuario = (SELECT id_usuario FROM cuentas WHERE id_cuenta = :idCuenta)""")
+                .bind("importe", importe)
+                .bind("idCuenta", transaccion.getIdCuenta())
+                .then();
+    }
+
+    private Mono<Void> registrarOutbox(Transaccion transaccion) {
+        return databaseClient.sql("INSERT INTO outbox_transacciones " +
+                        "(id_transaccion, id_cuenta, tipo_transaccion, monto, saldo_posterior, fecha) " +
+                        "VALUES (:idTransaccion, :idCuenta, :tipo, :monto, :saldo, :fecha)")
+                .bind("idTransaccion", transaccion.getId())
+                .bind("idCuenta", transaccion.getIdCuenta())
+                .bind("tipo", transaccion.getTipoTransaccion())
+                .bind("monto", transaccion.getMonto())
+                .bind("saldo", transaccion.getSaldoPosterior())
+                .bind("fecha", transaccion.getFecha())
+                .then();
+    }
+
+    private Mono<Void> notificarCambio(Transaccion transaccion) {
+        return databaseClient.sql("SELECT pg_notify('cuentas_modificadas', CAST(:idCuenta AS TEXT))")
+                .bind("idCuenta", transaccion.getIdCuenta())
+                .then();
+    }
+}
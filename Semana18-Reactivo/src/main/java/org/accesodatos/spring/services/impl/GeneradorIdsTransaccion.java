@@ -0,0 +1,54 @@
+package org.accesodatos.spring.services.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * IDs de transacción con el mismo esquema pooled-lo que Hibernate en la aplicación bloqueante:
+ * cada nextval de transacciones_id_transaccion_seq (incremento 50) reserva los 50 IDs que empiezan en él,
+ * así que las dos aplicaciones pueden insertar a la vez sin repetir IDs y solo se consulta la secuencia una vez por bloque.
+ */
+@Component
+@RequiredArgsConstructor
+public class GeneradorIdsTransaccion {
+    // Debe coincidir con el incremento de la secuencia y el allocationSize de Transaccion
+    private static final int TAMANO_BLOQUE = 50;
+
+    private final DatabaseClient databaseClient;
+    // Bloque agotado al arrancar: el primer ID pide uno nuevo
+    private final AtomicReference<Bloque> bloqueActual = new AtomicReference<>(new Bloque(0, TAMANO_BLOQUE));
+
+    private record Bloque(long inicio, AtomicLong siguiente) {
+        Bloque(long inicio, long siguiente) {
+            this(inicio, new AtomicLong(siguiente));
+        }
+
+        // -1 si el bloque está agotado
+        long tomar() {
+            long desplazamiento = siguiente.getAndIncrement();
+            return desplazamiento < TAMANO_BLOQUE ? inicio + desplazamiento : -1;
+        }
+    }
+
+    public Mono<Long> siguiente() {
+        long id = bloqueActual.get().tomar();
+        if (id >= 0) {
+            return Mono.just(id);
+        }
+        // Sin cerrojos: si varias peticiones agotan el bloque a la vez, cada una reserva el suyo
+        // y se conserva el último; los IDs que queden sin usar de los demás se pierden, como en Hibernate al reiniciar
+        return databaseClient.sql("SELECT nextval('transacciones_id_transaccion_seq')")
+                .map(fila -> fila.get(0, Long.class))
+                .one()
+                .map(inicio -> {
+                    Bloque nuevo = new Bloque(inicio, 1);
+                    bloqueActual.set(nuevo);
+                    return inicio;
+                });
+    }
+}
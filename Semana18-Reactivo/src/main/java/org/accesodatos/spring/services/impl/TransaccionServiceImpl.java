@@ -0,0 +1,103 @@
+package org.accesodatos.spring.services.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.accesodatos.spring.dtos.request.create.TransaccionCreateDTO;
+import org.accesodatos.spring.dtos.response.PaginaDTO;
+import org.accesodatos.spring.dtos.response.TransaccionDTO;
+import org.accesodatos.spring.models.Transaccion;
+import org.accesodatos.spring.repositories.CuentaRepository;
+import org.accesodatos.spring.repositories.TransaccionRepository;
+import org.accesodatos.spring.services.TransaccionService;
+import org.accesodatos.spring.utils.CursorUtils;
+import org.accesodatos.spring.utils.CursorUtils.PosicionFecha;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.NoSuchElementException;
+
+@Service
+@RequiredArgsConstructor
+public class TransaccionServiceImpl implements TransaccionService {
+    // Límites del historial cuando el cliente no indica rango (TIMESTAMP de PostgreSQL los admite)
+    private static final LocalDateTime FECHA_MINIMA = LocalDateTime.of(1, 1, 1, 0, 0);
+    private static final LocalDateTime FECHA_MAXIMA = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private final TransaccionRepository transaccionRepository;
+    private final CuentaRepository cuentaRepository;
+    private final R2dbcEntityTemplate r2dbcEntityTemplate;
+    private final GeneradorIdsTransaccion generadorIds;
+    private final EscriturasDerivadas escriturasDerivadas;
+
+    @Override
+    public Mono<PaginaDTO<TransaccionDTO>> obtenerHistorial(Long idCuenta, LocalDateTime desde, LocalDateTime hasta,
+                                                            String cursor, int limite) {
+        PosicionFecha posicion = CursorUtils.decodificarPosicionFecha(cursor);
+        int tamanoPagina = CursorUtils.normalizarLimite(limite);
+        LocalDateTime inicio = desde != null ? desde : FECHA_MINIMA;
+        LocalDateTime fin = hasta != null ? hasta : FECHA_MAXIMA;
+        if (!inicio.isBefore(fin)) {
+            return Mono.error(new IllegalArgumentException("La fecha 'from' debe ser anterior a 'to'"));
+        }
+
+        // Más recientes primero: se leen las anteriores al cursor o, en la primera página, a 'to' (exclusivo)
+        PosicionFecha antesDe = new PosicionFecha(fin, Long.MIN_VALUE);
+        if (posicion != null && posicion.compareTo(antesDe) < 0) {
+            antesDe = posicion;
+        }
+
+        // Se lee una fila de más para saber si existe página siguiente
+        return transaccionRepository.findHistorial(idCuenta, inicio, antesDe.fecha(), antesDe.id(), tamanoPagina + 1)
+                .collectList()
+                // Solo se comprueba la cuenta si no hay resultados, para distinguir una cuenta inexistente de un rango vacío
+                .flatMap(transacciones -> transacciones.isEmpty()
+                        ? cuentaExistente(idCuenta).thenReturn(transacciones)
+                        : Mono.just(transacciones))
+                .map(transacciones -> CursorUtils.paginarConCursor(transacciones, tamanoPagina,
+                        t -> CursorUtils.codificar(t.getFecha(), t.getId()), TransaccionServiceImpl::toDto));
+    }
+
+    /**
+     * Las mismas escrituras que la aplicación bloqueante, en una transacción: UPDATE condicional del saldo,
+     * INSERT de la transacción con el saldo resultante y las tablas derivadas (resúmenes, vista y outbox).
+     * No hace falta un carril por cuenta: la espera por una cuenta concurrida es la del bloqueo de su fila,
+     * que no ocupa ningún hilo.
+     */
+    @Override
+    @Transactional
+    public Mono<TransaccionDTO> crearTransaccion(Long idCuenta, TransaccionCreateDTO dto) {
+        // Importe en céntimos a aplicar al saldo según tipo de transacción
+        long importe;
+        if ("Deposito".equalsIgnoreCase(dto.getTipoTransaccion())) {
+            importe = dto.getMonto();
+        } else if ("Retiro".equalsIgnoreCase(dto.getTipoTransaccion())) {
+            importe = -dto.getMonto();
+        } else {
+            return Mono.error(new IllegalArgumentException("Tipo de transacción no válido"));
+        }
+
+        return cuentaRepository.aplicarImporte(idCuenta, importe)
+                // Sin fila actualizada: la cuenta no existe o el saldo no alcanza
+                .switchIfEmpty(Mono.defer(() -> cuentaExistente(idCuenta)
+                        .then(Mono.error(new IllegalArgumentException("Saldo insuficiente para el retiro")))))
+                .zipWith(generadorIds.siguiente(), (saldoPosterior, id) -> new Transaccion(id, idCuenta,
+                        dto.getMonto(), LocalDateTime.now(), dto.getTipoTransaccion(), saldoPosterior))
+                .flatMap(r2dbcEntityTemplate::insert)
+                .flatMap(transaccion -> escriturasDerivadas.registrar(transaccion).thenReturn(transaccion))
+                .map(TransaccionServiceImpl::toDto);
+    }
+
+    private Mono<Void> cuentaExistente(Long idCuenta) {
+        return cuentaRepository.existsById(idCuenta)
+                .flatMap(existe -> existe ? Mono.<Void>empty()
+                        : Mono.error(new NoSuchElementException("Cuenta con id " + idCuenta + " no encontrada")));
+    }
+
+    // También la usa CuentaServiceImpl para las transacciones de cada cuenta
+    static TransaccionDTO toDto(Transaccion transaccion) {
+        return new TransaccionDTO(transaccion.getId(), transaccion.getMonto(), transaccion.getFecha(),
+                transaccion.getTipoTransaccion(), transaccion.getSaldoPosterior());
+    }
+}
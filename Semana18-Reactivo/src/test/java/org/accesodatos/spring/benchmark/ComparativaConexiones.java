@@ -0,0 +1,121 @@
+package org.accesodatos.spring.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Misma carga contra la aplicación bloqueante (Semana18-Documentacion) y contra esta variante reactiva,
+ * una después de otra, para comparar ambas con miles de conexiones abiertas a la vez. No es un test:
+ * las dos aplicaciones deben estar arrancadas sobre la misma base de datos.
+ * <p>
+ * Cada cliente ocupa su propia conexión HTTP y repite una mezcla de lecturas de cuentas, páginas del historial
+ * y depósitos de 1 céntimo; al final se imprimen las peticiones por segundo y los percentiles de cada aplicación.
+ * <pre>
+ * java -cp target/test-classes org.accesodatos.spring.benchmark.ComparativaConexiones \
+ *     http://localhost:8080,http://localhost:8081 10000 60 1,2,3,4,5,6,7,8,9,10
+ * </pre>
+ * Argumentos: URLs base separadas por comas, clientes concurrentes, segundos de medida e IDs de cuenta.
+ * Los 15 primeros segundos de cada aplicación son de calentamiento y no se cuentan.
+ */
+public class ComparativaConexiones {
+    private static final int SEGUNDOS_CALENTAMIENTO = 15;
+    // Porcentaje de peticiones que van al historial y que registran un depósito; el resto lee la cuenta
+    private static final int PORCENTAJE_HISTORIAL = 20;
+    private static final int PORCENTAJE_DEPOSITO = 10;
+    private static final String DEPOSITO = "{\"monto\": 0.01, \"tipoTransaccion\": \"Deposito\"}";
+
+    private record Medida(String tipo, long nanos, boolean error) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String[] bases = (args.length > 0 ? args[0] : "http://localhost:8080,http://localhost:8081").split(",");
+        int clientes = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int segundos = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+        long[] cuentas = Arrays.stream((args.length > 3 ? args[3] : "1,2,3,4,5,6,7,8,9,10").split(","))
+                .mapToLong(Long::parseLong).toArray();
+
+        List<String> resultados = new ArrayList<>();
+        for (String base : bases) {
+            resultados.addAll(medir(base, clientes, segundos, cuentas));
+        }
+        System.out.printf("%n%d clientes, %d s por aplicación%n", clientes, segundos);
+        resultados.forEach(System.out::println);
+    }
+
+    private static List<String> medir(String base, int clientes, int segundos, long[] cuentas) {
+        long inicioMedida = System.nanoTime() + Duration.ofSeconds(SEGUNDOS_CALENTAMIENTO).toNanos();
+        long fin = inicioMedida + Duration.ofSeconds(segundos).toNanos();
+
+        // HTTP/1.1 sin multiplexar: el cliente abre una conexión por petición en curso y la reutiliza (keep-alive),
+        // así que el servidor mantiene tantas conexiones abiertas como clientes
+        List<List<Medida>> medidasPorCliente = new ArrayList<>();
+        try (HttpClient cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+             ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clientes; i++) {
+                List<Medida> medidas = new ArrayList<>();
+                medidasPorCliente.add(medidas);
+                hilos.submit(() -> {
+                    ThreadLocalRandom aleatorio = ThreadLocalRandom.current();
+                    while (System.nanoTime() < fin) {
+                        long idCuenta = cuentas[aleatorio.nextInt(cuentas.length)];
+                        int tirada = aleatorio.nextInt(100);
+                        String tipo = tirada < PORCENTAJE_DEPOSITO ? "deposito"
+                                : tirada < PORCENTAJE_DEPOSITO + PORCENTAJE_HISTORIAL ? "historial" : "cuenta";
+                        HttpRequest.Builder peticion = switch (tipo) {
+                            case "deposito" -> HttpRequest.newBuilder(URI.create(base + "/api/cuentas/" + idCuenta + "/transacciones"))
+                                    .header("Content-Type", "application/json")
+                                    .POST(HttpRequest.BodyPublishers.ofString(DEPOSITO));
+                            case "historial" -> HttpRequest.newBuilder(URI.create(base + "/api/cuentas/" + idCuenta + "/transacciones?limit=20"));
+                            default -> HttpRequest.newBuilder(URI.create(base + "/api/cuentas/" + idCuenta));
+                        };
+                        long inicio = System.nanoTime();
+                        boolean error;
+                        try {
+                            HttpResponse<Void> respuesta = cliente.send(peticion.timeout(Duration.ofSeconds(60)).build(),
+                                    HttpResponse.BodyHandlers.discarding());
+                            error = respuesta.statusCode() >= 400;
+                        } catch (Exception e) {
+                            error = true;
+                        }
+                        if (inicio >= inicioMedida) {
+                            medidas.add(new Medida(tipo, System.nanoTime() - inicio, error));
+                        }
+                    }
+                    return null;
+                });
+            }
+        }
+
+        List<Medida> todas = medidasPorCliente.stream().flatMap(List::stream).toList();
+        List<String> lineas = new ArrayList<>();
+        lineas.add(String.format("%s: %.0f peticiones/s, %d errores", base, todas.size() / (double) segundos,
+                todas.stream().filter(Medida::error).count()));
+        for (String tipo : List.of("cuenta", "historial", "deposito")) {
+            long[] nanos = todas.stream().filter(m -> m.tipo().equals(tipo)).mapToLong(Medida::nanos).sorted().toArray();
+            if (nanos.length > 0) {
+                lineas.add(String.format("  %-9s %8.0f/s  p50 %7.1f ms  p99 %7.1f ms  max %7.1f ms",
+                        tipo, nanos.length / (double) segundos, percentil(nanos, 50), percentil(nanos, 99),
+                        nanos[nanos.length - 1] / 1e6));
+            }
+        }
+        lineas.forEach(System.out::println);
+        return lineas;
+    }
+
+    private static double percentil(long[] ordenados, int percentil) {
+        return ordenados[(int) Math.min(ordenados.length - 1, (long) ordenados.length * percentil / 100)] / 1e6;
+    }
+}
@@ -0,0 +1,168 @@
+package org.accesodatos.spring.integration.controllers;
+
+import org.accesodatos.spring.controllers.CuentaRestController;
+import org.accesodatos.spring.dtos.request.create.TransaccionCreateDTO;
+import org.accesodatos.spring.dtos.response.CuentaDTO;
+import org.accesodatos.spring.dtos.response.PaginaDTO;
+import org.accesodatos.spring.dtos.response.TransaccionDTO;
+import org.accesodatos.spring.services.CuentaService;
+import org.accesodatos.spring.services.TransaccionService;
+import org.accesodatos.spring.utils.CursorUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@WebFluxTest(CuentaRestController.class)
+public class CuentaRestControllerTest {
+    @Autowired
+    private WebTestClient webTestClient; // Para realizar peticiones HTTP
+
+    @MockitoBean
+    private CuentaService cuentaService;
+
+    @MockitoBean
+    private TransaccionService transaccionService;
+
+    private TransaccionCreateDTO transaccionCreateDTO;
+    private TransaccionDTO transaccionDTO;
+    private CuentaDTO cuentaDTO;
+
+    @BeforeEach
+    void setUp() {
+        // TransaccionCreateDTO para el request
+        transaccionCreateDTO = new TransaccionCreateDTO();
+        transaccionCreateDTO.setMonto(25000L);
+        transaccionCreateDTO.setTipoTransaccion("Deposito");
+
+        // Respuestas simuladas
+        transaccionDTO = new TransaccionDTO(100L, 25000L, LocalDateTime.of(2024, 1, 15, 10, 0),
+                "Deposito", 125000L);
+        cuentaDTO = new CuentaDTO(1L, 125000L, LocalDateTime.of(2024, 1, 1, 0, 0), "Ahorro", 7L, 3L);
+    }
+
+    @Test
+    void crearTransaccion_Exito() {
+        // GIVEN
+        when(transaccionService.crearTransaccion(eq(1L), any(TransaccionCreateDTO.class)))
+                .thenReturn(Mono.just(transaccionDTO));
+
+        // WHEN & THEN
+        webTestClient.post().uri("/api/cuentas/{id}/transacciones", 1L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"monto\": 250.00, \"tipoTransaccion\": \"Deposito\"}")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(100)
+                .jsonPath("$.monto").isEqualTo(250.0) // En JSON el importe va en euros
+                .jsonPath("$.saldoPosterior").isEqualTo(1250.0);
+
+        // 250.00 euros en el JSON llegan al servicio como 25000 céntimos
+        verify(transaccionService).crearTransaccion(eq(1L), argThat(dto -> dto.getMonto() == 25000L));
+    }
+
+    @Test
+    void crearTransaccion_MontoNegativoInvalido() {
+        // GIVEN: Monto negativo (invalido)
+        transaccionCreateDTO.setMonto(-5000L);
+
+        // WHEN & THEN
+        webTestClient.post().uri("/api/cuentas/{id}/transacciones", 1L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(transaccionCreateDTO)
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verifyNoInteractions(transaccionService);
+    }
+
+    @Test
+    void crearTransaccion_SaldoInsuficiente() {
+        // GIVEN
+        when(transaccionService.crearTransaccion(eq(1L), any(TransaccionCreateDTO.class)))
+                .thenReturn(Mono.error(new IllegalArgumentException("Saldo insuficiente para el retiro")));
+
+        // WHEN & THEN
+        webTestClient.post().uri("/api/cuentas/{id}/transacciones", 1L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(transaccionCreateDTO)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void obtenerCuentaPorId_DevuelveETagConLaVersion() {
+        // GIVEN: Como en la aplicación bloqueante, la cuenta incluye sus transacciones
+        cuentaDTO.setTransacciones(List.of(transaccionDTO));
+        when(cuentaService.obtenerCuentaPorId(1L)).thenReturn(Mono.just(cuentaDTO));
+
+        // WHEN & THEN
+        webTestClient.get().uri("/api/cuentas/{id}", 1L)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"3\"")
+                .expectBody()
+                .jsonPath("$.saldo").isEqualTo(1250.0)
+                .jsonPath("$.transacciones[0].id").isEqualTo(100)
+                .jsonPath("$.transacciones[0].monto").isEqualTo(250.0)
+                .jsonPath("$.version").doesNotExist();
+    }
+
+    @Test
+    void obtenerCuentaPorId_NoEncontrada() {
+        // GIVEN
+        when(cuentaService.obtenerCuentaPorId(99L))
+                .thenReturn(Mono.error(new NoSuchElementException("Cuenta con id 99 no encontrada")));
+
+        // WHEN & THEN
+        webTestClient.get().uri("/api/cuentas/{id}", 99L)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void obtenerCuentasPaginadas_DevuelveCabeceraConSiguienteCursor() {
+        // GIVEN
+        when(cuentaService.obtenerCuentasPaginadas(null, 1))
+                .thenReturn(Mono.just(new PaginaDTO<>(List.of(cuentaDTO), "MQ")));
+
+        // WHEN & THEN
+        webTestClient.get().uri("/api/cuentas?limit=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(CursorUtils.CABECERA_SIGUIENTE_CURSOR, "MQ")
+                .expectBody()
+                .jsonPath("$[0].id").isEqualTo(1);
+    }
+
+    @Test
+    void exportarCuentas_NdjsonUnaCuentaPorLinea() {
+        // GIVEN
+        CuentaDTO otra = new CuentaDTO(2L, 500L, LocalDateTime.of(2024, 2, 1, 0, 0), "Corriente", 7L, 0L);
+        when(cuentaService.exportarCuentas()).thenReturn(Flux.just(cuentaDTO, otra));
+
+        // WHEN & THEN
+        webTestClient.get().uri("/api/cuentas")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(CuentaDTO.class)
+                .hasSize(2);
+    }
+}
@@ -0,0 +1,119 @@
+package org.accesodatos.spring.services;
+
+import org.accesodatos.spring.dtos.request.create.TransaccionCreateDTO;
+import org.accesodatos.spring.models.Transaccion;
+import org.accesodatos.spring.repositories.CuentaRepository;
+import org.accesodatos.spring.repositories.TransaccionRepository;
+import org.accesodatos.spring.services.impl.EscriturasDerivadas;
+import org.accesodatos.spring.services.impl.GeneradorIdsTransaccion;
+import org.accesodatos.spring.services.impl.TransaccionServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.NoSuchElementException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TransaccionServiceTest {
+
+    @Mock
+    private TransaccionRepository transaccionRepository;
+
+    @Mock
+    private CuentaRepository cuentaRepository;
+
+    @Mock
+    private R2dbcEntityTemplate r2dbcEntityTemplate;
+
+    @Mock
+    private GeneradorIdsTransaccion generadorIds;
+
+    @Mock
+    private EscriturasDerivadas escriturasDerivadas;
+
+    @InjectMocks
+    private TransaccionServiceImpl transaccionService;
+
+    private TransaccionCreateDTO transaccionCreateDTO;
+
+    @BeforeEach
+    void setUp() {
+        transaccionCreateDTO = new TransaccionCreateDTO();
+        transaccionCreateDTO.setMonto(25000L);
+        transaccionCreateDTO.setTipoTransaccion("Deposito");
+    }
+
+    @Test
+    void crearTransaccion_Exito() {
+        // GIVEN: el UPDATE condicional devuelve el saldo resultante
+        when(cuentaRepository.aplicarImporte(1L, 25000L)).thenReturn(Mono.just(125000L));
+        when(generadorIds.siguiente()).thenReturn(Mono.just(100L));
+        when(r2dbcEntityTemplate.insert(any(Transaccion.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(escriturasDerivadas.registrar(any(Transaccion.class))).thenReturn(Mono.empty());
+
+        // WHEN & THEN
+        StepVerifier.create(transaccionService.crearTransaccion(1L, transaccionCreateDTO))
+                .expectNextMatches(dto -> dto.getId() == 100L
+                        && dto.getMonto() == 25000L
+                        && dto.getSaldoPosterior() == 125000L)
+                .verifyComplete();
+
+        verify(escriturasDerivadas).registrar(argThat(t -> t.getIdCuenta() == 1L && t.getSaldoPosterior() == 125000L));
+    }
+
+    @Test
+    void crearTransaccion_RetiroConSaldoInsuficiente() {
+        // GIVEN: el UPDATE no afecta a ninguna fila, pero la cuenta existe
+        transaccionCreateDTO.setTipoTransaccion("Retiro");
+        when(cuentaRepository.aplicarImporte(1L, -25000L)).thenReturn(Mono.empty());
+        when(cuentaRepository.existsById(1L)).thenReturn(Mono.just(true));
+        when(generadorIds.siguiente()).thenReturn(Mono.just(100L));
+
+        // WHEN & THEN
+        StepVerifier.create(transaccionService.crearTransaccion(1L, transaccionCreateDTO))
+                .expectErrorMatches(e -> e instanceof IllegalArgumentException
+                        && e.getMessage().equals("Saldo insuficiente para el retiro"))
+                .verify();
+
+        verify(r2dbcEntityTemplate, never()).insert(any(Transaccion.class));
+        verifyNoInteractions(escriturasDerivadas);
+    }
+
+    @Test
+    void crearTransaccion_CuentaInexistente() {
+        // GIVEN
+        when(cuentaRepository.aplicarImporte(99L, 25000L)).thenReturn(Mono.empty());
+        when(cuentaRepository.existsById(99L)).thenReturn(Mono.just(false));
+        when(generadorIds.siguiente()).thenReturn(Mono.just(100L));
+
+        // WHEN & THEN
+        StepVerifier.create(transaccionService.crearTransaccion(99L, transaccionCreateDTO))
+                .expectError(NoSuchElementException.class)
+                .verify();
+
+        verify(r2dbcEntityTemplate, never()).insert(any(Transaccion.class));
+    }
+
+    @Test
+    void crearTransaccion_TipoTransaccionInvalido() {
+        // GIVEN
+        transaccionCreateDTO.setTipoTransaccion("Transferencia");
+
+        // WHEN & THEN
+        StepVerifier.create(transaccionService.crearTransaccion(1L, transaccionCreateDTO))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        verifyNoInteractions(cuentaRepository);
+    }
+}